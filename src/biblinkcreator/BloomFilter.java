@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2017 David Nazarian
+ *
+ * This file is part of BibLinkCreator.
+ *
+ * BibLinkCreator is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BibLinkCreator is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with BibLinkCreator.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biblinkcreator;
+
+import biblinkcreator.DataStructure.*;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * A Bloom filter kept outside of the Java heap. The items are provided as
+ * pairs of independent 64-bit hashes, from which the positions of the bits of
+ * each item are derived by double hashing.
+ * <br><br>
+ * Author: David Nazarian
+ * @author David Nazarian
+ */
+public class BloomFilter {
+    // The bits of the filter.
+    private final LongBuffer bitBuffer;
+    // The number of the bits of the filter.
+    private final long bitCount;
+    // The number of the bits set for each item.
+    private final int hashCount;
+    
+    /**
+     * @param bloomFilterParameterData The expected number of items and the
+     * false positive rate of the filter.
+     */
+    public BloomFilter(BloomFilterParameterData bloomFilterParameterData) {
+        long expectedItemCount = bloomFilterParameterData.getExpectedItemCount();
+        double falsePositiveRate =
+                bloomFilterParameterData.getFalsePositiveRate();
+        // The optimal number of bits for the expected number of items.
+        long optimalBitCount = (long) Math.ceil(-expectedItemCount *
+                Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        // The bits are stored in whole longs, up to the maximum capacity of a
+        // direct buffer.
+        long longCount = Math.min(Math.max((optimalBitCount + 63) / 64, 1),
+                Integer.MAX_VALUE / 8);
+        bitCount = longCount * 64;
+        // The optimal number of hashes for the size of the filter.
+        hashCount = (int) Math.max(1, Math.round(
+                (double) bitCount / expectedItemCount * Math.log(2)));
+        bitBuffer = ByteBuffer.allocateDirect((int) longCount * 8).
+                asLongBuffer();
+    }
+    
+    /**
+     * Adds an item into the filter.
+     * @param hash1 The first hash of the item.
+     * @param hash2 The second hash of the item.
+     * @return A value indicating if the item has certainly not been added
+     * before.
+     */
+    public boolean put(long hash1, long hash2) {
+        boolean bitsChanged = false;
+        long bitIndex, word, mask;
+        int wordIndex;
+        
+        for (int i = 0; i < hashCount; i++) {
+            bitIndex = getBitIndex(hash1, hash2, i);
+            wordIndex = (int) (bitIndex >>> 6);
+            mask = 1L << (bitIndex & 63);
+            word = bitBuffer.get(wordIndex);
+            
+            if ((word & mask) == 0) {
+                bitBuffer.put(wordIndex, word | mask);
+                bitsChanged = true;
+            }
+        }
+        
+        return bitsChanged;
+    }
+    
+    /**
+     * Adds a string into the filter.
+     * @param item The string.
+     * @return A value indicating if the string has certainly not been added
+     * before.
+     */
+    public boolean put(String item) {
+        return put(getStringHash(item, 0xCBF29CE484222325L, 0x100000001B3L),
+                getStringHash(item, 0x84222325CBF29CE4L, 0xC6A4A7935BD1E995L));
+    }
+    
+    /**
+     * Checks if a string might have been added into the filter. It can be
+     * called by more than one thread while no items are added.
+     * @param item The string.
+     * @return False if the string has certainly not been added, otherwise
+     * true.
+     */
+    public boolean mightContain(String item) {
+        return mightContain(
+                getStringHash(item, 0xCBF29CE484222325L, 0x100000001B3L),
+                getStringHash(item, 0x84222325CBF29CE4L, 0xC6A4A7935BD1E995L));
+    }
+    
+    /**
+     * Checks if an item might have been added into the filter.
+     * @param hash1 The first hash of the item.
+     * @param hash2 The second hash of the item.
+     * @return False if the item has certainly not been added, otherwise true.
+     */
+    public boolean mightContain(long hash1, long hash2) {
+        long bitIndex;
+        
+        for (int i = 0; i < hashCount; i++) {
+            bitIndex = getBitIndex(hash1, hash2, i);
+            
+            if ((bitBuffer.get((int) (bitIndex >>> 6)) &
+                    (1L << (bitIndex & 63))) == 0)
+                return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Gets the position of a bit of an item.
+     * @param hash1 The first hash of the item.
+     * @param hash2 The second hash of the item.
+     * @param i The index of the hash function.
+     * @return The position of the bit.
+     */
+    private long getBitIndex(long hash1, long hash2, int i) {
+        return Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+    }
+    
+    /**
+     * Calculates a multiplicative hash of a string, with its bits spread
+     * (SplitMix64 finalizer).
+     * @param item The string.
+     * @param seed The initial value of the hash.
+     * @param multiplier The multiplier of the hash.
+     * @return The hash of the string.
+     */
+    private static long getStringHash(String item, long seed,
+            long multiplier) {
+        long hash = seed;
+        
+        for (int i = 0; i < item.length(); i++)
+            hash = (hash ^ item.charAt(i)) * multiplier;
+        
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        
+        return hash ^ (hash >>> 31);
+    }
+}
\ No newline at end of file
@@ -21,21 +21,20 @@ package biblinkcreator;
 import biblinkcreator.Logger.*;
 import biblinkcreator.Identifier.*;
 import biblinkcreator.DataStructure.*;
+import biblinkcreator.HTTPTransport.*;
 import java.io.*;
 import java.net.URL;
 import java.nio.file.*;
 import java.util.*;
 import java.util.concurrent.*;
-import javax.xml.xpath.*;
-import javax.xml.parsers.*;
+import java.util.function.*;
+import javax.xml.stream.*;
 import org.json.JSONObject;
-import org.apache.commons.io.FileUtils;
 import org.openrdf.model.*;
 import org.openrdf.model.vocabulary.XMLSchema;
 import org.openrdf.repository.*;
 import org.openrdf.repository.http.HTTPRepository;
 import org.openrdf.rio.RDFFormat;
-import org.w3c.dom.*;
 
 /**
  * A mechanism that downloads data by utilizing APIs from various bibliographic
@@ -60,6 +59,20 @@ public class DataDownloader {
     // Number of extracted records needed for a message to be logged during the
     // extraction.
     private int extractMessageRecords = 25000;
+    // The number of threads parsing the files downloaded via the arXiv, the
+    // HathiTrust, the Open Library and the PubMed APIs.
+    private int downloadParserCount = 2;
+    // Sends the requests of the downloads through persistent connections.
+    private HTTPTransport httpTransport = new HTTPTransport();
+    // Runs the WorldCat downloads, keeping its threads between downloads.
+    private ExecutorService worldcatExecutorService = null;
+    // The rate limiters of the API hosts, which are shared by the downloads
+    // from each host.
+    private final Map<String, RateLimiter> rateLimiterMap =
+            new ConcurrentHashMap<>();
+    // Indicates if the HTTP transport has been provided, so that it must not
+    // be closed along with the downloader.
+    private boolean httpTransportProvided = false;
     // Download parameters for the APIs. For the rules and limitations (the
     // maximum number of identifiers in a single query, delay between
     // consecutive queries etc.) please consult each API's documentation.
@@ -162,6 +175,47 @@ public class DataDownloader {
         this.extractMessageRecords = extractMessageRecords;
     }
     
+    /**
+     * @return The number of threads parsing the downloaded files.
+     */
+    public int getDownloadParserCount() {
+        return downloadParserCount;
+    }
+    
+    /**
+     * @param downloadParserCount The number of threads parsing the files
+     * downloaded via the arXiv, the HathiTrust, the Open Library and the
+     * PubMed APIs. The downloaded files are parsed and their records are saved
+     * by other threads, so that only the downloads and the delay between them
+     * determine the duration of the downloading.
+     */
+    public void setDownloadParserCount(int downloadParserCount) {
+        if (downloadParserCount > 0)
+            this.downloadParserCount = downloadParserCount;
+        else
+            this.downloadParserCount = 1;
+    }
+    
+    /**
+     * @return The HTTP transport used by the downloads.
+     */
+    public HTTPTransport getHTTPTransport() {
+        return httpTransport;
+    }
+    
+    /**
+     * @param httpTransport An HTTP transport used by the downloads, which can
+     * be shared with other downloaders and linkers. It will not be closed
+     * along with the downloader.
+     */
+    public void setHTTPTransport(HTTPTransport httpTransport) {
+        if (!httpTransportProvided)
+            this.httpTransport.close();
+        
+        this.httpTransport = httpTransport;
+        httpTransportProvided = true;
+    }
+    
     /**
      * @return The download parameters for the arXiv API.
      */
@@ -244,9 +298,21 @@ public class DataDownloader {
     
     /**
      * Closes the connection to the source repository providing the identifiers
-     * to be queried during the data downloading via an API.
+     * to be queried during the data downloading via an API, along with the
+     * connections of the HTTP transport unless it has been provided, and
+     * stops the threads of the WorldCat downloads.
      */
     public void close() {
+        synchronized (this) {
+            if (worldcatExecutorService != null)
+                worldcatExecutorService.shutdownNow();
+            
+            worldcatExecutorService = null;
+        }
+        
+        if (!httpTransportProvided)
+            httpTransport.close();
+        
         try {
             sourceRepositoryConn.close();
         }
@@ -436,9 +502,9 @@ public class DataDownloader {
         int downloadDelay = arxivDLParameterData.getDownloadDelay();
         int maxAllowedConsecutiveErrors =
                 arxivDLParameterData.getMaxAllowedConsecutiveErrors();
-        int logCount = 0;
+        int throttlingRetryCount =
+                arxivDLParameterData.getThrottlingRetryCount();
         
-        FileOperation fileOperation = new FileOperation();
         Identifier identifier = new Identifier();
         // An identifier name for logging.
         String identifierName = identifier.getIdentifierName(identifierType);
@@ -446,16 +512,12 @@ public class DataDownloader {
         String identifierVariableName =
                 identifier.getIdentifierVariableName(identifierType);
         URL apiURL;
-        Path downloadPath;
         
         logger.logMessage("Downloading " + identifierName + 
                 " data from arXiv...", MessageCategory.Info);
         
         try {
             apiURL = new URL("http://export.arxiv.org/api/");
-            // Creates a temporary download folder.
-            downloadPath = Files.createTempDirectory("biblc_arxiv_" +
-                    identifierVariableName + "_");
         }
         catch (Exception ex) {
             logger.logMessage(ex.getMessage(), MessageCategory.Error);
@@ -468,9 +530,8 @@ public class DataDownloader {
         // will be generated after concatenating the base URL with an arxivID.
         String arxivURLString = "https://arxiv.org/abs/";
         URL fileURL;
-        File file;
-        String filename;
-        List<ExtractedData> collectiveList = new ArrayList<>();
+        // The downloaded content.
+        byte[] content;
         // A set of versioned arXiv IDs.
         Set<String> versionedIdentifierSet =
                 getVersionedArXivIDSet(identifierSet);
@@ -488,7 +549,15 @@ public class DataDownloader {
         IdentifierChainData identifierChainData;
         String identifierChain ;
         int identifierCount;
-        long startTime;
+        // Limits the rate of the downloads from the API host.
+        RateLimiter rateLimiter = getRateLimiter(apiURL, downloadDelay,
+                arxivDLParameterData.getBurstSize());
+        // Parses the downloaded files and saves their records in other
+        // threads.
+        DownloadPipeline pipeline = new DownloadPipeline(identifierName,
+                insertBatchSize, dataList -> executeTransaction(dataList,
+                arxivURLString, identifierVariableName, destRepositoryConn,
+                schema));
         
         // The versioned and non-versioned identifiers are queried separately.
         for (int i = 1; i <= 2; i++) {
@@ -509,17 +578,14 @@ public class DataDownloader {
                 default:
                     break;
             }
+            // The version exclusion of the files downloaded during the
+            // current pass.
+            boolean passExcludeVersion = excludeVersion;
             
             for (int j = 0; j < identifierChainDataList.size(); j++) {
                 if (consecutiveErrorsExceedMaxAllowed(consecutiveErrors,
                         maxAllowedConsecutiveErrors))
-                    return downloadCount;
-                // Begins the timing of the duration between consecutive
-                // queries.
-                startTime = System.currentTimeMillis();
-                // The name of the temporary file where the downloaded content
-                // will be saved.
-                filename = "batch_" + (j + 1) + ".xml";
+                    return pipeline.finish();
                 identifierChainData = identifierChainDataList.get(j);
                 // The delimited identifier chain.
                 identifierChain = identifierChainData.getIdentifierChain();
@@ -535,14 +601,12 @@ public class DataDownloader {
                     consecutiveErrors++;
                     continue;
                 }
-                // A file where the downloaded data will be saved.
-                file = new File(downloadPath.toString(), filename);
                 
                 try {
                     queryCount += identifierCount;
                     // Data download.
-                    FileUtils.copyURLToFile(fileURL, file, connectTimeout,
-                            readTimeout);
+                    content = downloadContent(fileURL, connectTimeout,
+                            readTimeout, rateLimiter, throttlingRetryCount);
                     // The variable is initialized after a successful download.
                     consecutiveErrors = 0;
                 }
@@ -551,41 +615,22 @@ public class DataDownloader {
                     consecutiveErrors++;
                     continue;
                 }
-                // Reads the downloaded file's content.
-                List<ExtractedData> extractedDataList =
-                        getArXivData(file, excludeVersion);
-                collectiveList.addAll(extractedDataList);
-                downloadCount += extractedDataList.size();
-                fileOperation.deleteTempFile(file);
-                // The collected content will be sent to the repository as a
-                // batch.
-                if (collectiveList.size() >= insertBatchSize) {
-                    if (executeTransaction(collectiveList, arxivURLString,
-                            identifierVariableName, destRepositoryConn,
-                            schema) == false)
-                        return downloadCount;
-                    
-                    collectiveList.clear();
-                }
-                // A message will be logged based on the downloadMessageRecords
-                // value.
-                logCount = logDownloadMessage(logCount, queryCount,
-                        downloadCount, identifierName);
-                // Delay between consecutive downloads
-                delayDownload(startTime, downloadDelay);
-            }
-            // The remaining content will be sent to the repository.
-            if (collectiveList.size() > 0) {
-                if (executeTransaction(collectiveList, arxivURLString,
-                        identifierVariableName, destRepositoryConn,
-                        schema) == false)
-                    return downloadCount;
-                
-                collectiveList.clear();
+                // The downloaded content is parsed and its records are saved
+                // while the next files are downloaded.
+                if (!pipeline.add(content, xmlContent -> getArXivData(
+                        xmlContent, passExcludeVersion), queryCount))
+                    break;
             }
+            // No more files are downloaded after a failed insertion.
+            if (pipeline.getFailed())
+                break;
         }
-        // Deletes the temporary download folder.
-        fileOperation.deleteTempFolder(downloadPath);
+        // Waits for the remaining files to be parsed and saved.
+        downloadCount = pipeline.finish();
+        
+        if (pipeline.getFailed())
+            return downloadCount;
+        
         logger.logMessage("\ttotal records downloaded and saved : " +
                 String.valueOf(downloadCount), MessageCategory.Info);
         
@@ -593,100 +638,114 @@ public class DataDownloader {
     }
     
     /**
-     * Extracts the content of a file downloaded via the arXiv API.
-     * @param xmlFile The downloaded xml file.
+     * Extracts the content downloaded via the arXiv API. The feed is read as
+     * a stream, so that only the current entry is kept in memory.
+     * @param xmlContent The downloaded xml content.
      * @param excludeVersion Excludes the version from the arXiv ID.
      * @return An extracted data list.
      */
-    private List<ExtractedData> getArXivData(File xmlFile,
+    private List<ExtractedData> getArXivData(byte[] xmlContent,
             boolean excludeVersion) {
         List<ExtractedData> downloadedDataList = new ArrayList<>();
-        NodeList feedNodeList;
+        XMLStreamReader xmlReader = null;
+        ExtractedData extractedData;
         
         try {
-            DocumentBuilderFactory builderFactory =
-                    DocumentBuilderFactory.newInstance();
-            // Prevents the default validation of the file's structure.
-            builderFactory.setFeature("http://apache.org/xml/features/" +
-                    "nonvalidating/load-external-dtd", false);
-            DocumentBuilder builder = builderFactory.newDocumentBuilder();
-            // Reads the file.
-            Document xmlDocument = builder.parse(xmlFile);
-            XPath xPath =  XPathFactory.newInstance().newXPath();
-            // XPath expression to retrieve an element.
-            String expression = "/feed/entry";
-            feedNodeList = (NodeList) xPath.evaluate(expression, xmlDocument,
-                    XPathConstants.NODESET);
+            xmlReader = getXMLStreamReader(xmlContent);
+            // The entries are read only from a feed root element.
+            if (!nextChildElement(xmlReader) ||
+                    !xmlReader.getLocalName().equals("feed"))
+                return downloadedDataList;
+            // Iteration through all the results retrieved.
+            while (nextChildElement(xmlReader)) {
+                if (!xmlReader.getLocalName().equals("entry")) {
+                    skipElement(xmlReader);
+                    continue;
+                }
+                
+                extractedData = getArXivEntry(xmlReader, excludeVersion);
+                
+                if (extractedData != null)
+                    downloadedDataList.add(extractedData);
+            }
         }
         catch (Exception ex) {
             logger.logMessage(ex.getMessage(), MessageCategory.Warning);
-            return downloadedDataList;
+        }
+        finally {
+            closeXMLStreamReader(xmlReader);
         }
         
-        String childNodeName;
+        return downloadedDataList;
+    }
+    
+    /**
+     * Reads an entry of a feed downloaded via the arXiv API, until the end of
+     * the entry element.
+     * @param xmlReader The reader positioned at the start of the entry.
+     * @param excludeVersion Excludes the version from the arXiv ID.
+     * @return The extracted data, or null if the entry doesn't contain the
+     * necessary data.
+     */
+    private ExtractedData getArXivEntry(XMLStreamReader xmlReader,
+            boolean excludeVersion) throws XMLStreamException {
+        ExtractedData extractedData = null;
+        // Indicates if the remaining child elements must be skipped.
+        boolean entryRead = false;
         String arxivID = "";
         String title = "";
-        String year = "";   
+        String year = "";
         String version;
-        // Iteration through all the results retrieved.
-        for (int i = 0; i < feedNodeList.getLength(); i++) {
-            try {
-                Node entryNode = feedNodeList.item(i);
-                
-                if (entryNode.getNodeType() == Node.ELEMENT_NODE) {
-                    Element entryElement = (Element) entryNode;
-                    NodeList entryChildNodeList = entryElement.getChildNodes();
-                    
-                    for (int j = 0; j < entryChildNodeList.getLength(); j++) {   
-                        Node entryChildNode = (Node) entryChildNodeList.item(j);
-                        childNodeName = entryChildNode.getNodeName();                        
-                        
-                        switch (childNodeName) {
-                            case "id":
-                                arxivID = entryChildNode.getTextContent();
-                                // Separates the ID from the URL.
-                                arxivID = arxivID.replace(
-                                        "http://arxiv.org/abs/", "");
-                                arxivID = arxivID.replace(
-                                        "https://arxiv.org/abs/", "");
-                                // Removes the version from the ID.
-                                if (excludeVersion) {
-                                    version = getArXivIDVersion(arxivID);
-                                    version = "v" + version;
-                                    arxivID = arxivID.replace(version, "");
-                                }
-                                
-                                break;
-                            case "title":
-                                // Reads the title.
-                                title = entryChildNode.getTextContent();                               
-                                break;
-                            case "published":
-                                year = entryChildNode.getTextContent();
-                                // Separates the publication year.
-                                year = year.substring(0, 4);
-                                break;
-                        }
-                        // The ID and the title are the minimum necessary data.
-                        if (arxivID.length() > 0 && title.length() > 0) {
-                            if (!title.equals("Error"))
-                                downloadedDataList.add(new ExtractedData(
-                                        "", arxivID, title, year));
-                            
-                            break;
-                        }
+        
+        while (nextChildElement(xmlReader)) {
+            if (entryRead) {
+                skipElement(xmlReader);
+                continue;
+            }
+            
+            switch (xmlReader.getLocalName()) {
+                case "id":
+                    arxivID = readTextContent(xmlReader);
+                    // Separates the ID from the URL.
+                    arxivID = arxivID.replace("http://arxiv.org/abs/", "");
+                    arxivID = arxivID.replace("https://arxiv.org/abs/", "");
+                    // Removes the version from the ID.
+                    if (excludeVersion) {
+                        version = getArXivIDVersion(arxivID);
+                        version = "v" + version;
+                        arxivID = arxivID.replace(version, "");
                     }
                     
-                    arxivID = "";
-                    title = "";
-                    year = "";
-                }
+                    break;
+                case "title":
+                    // Reads the title.
+                    title = readTextContent(xmlReader);
+                    break;
+                case "published":
+                    year = readTextContent(xmlReader);
+                    // An entry with an invalid publication date is skipped.
+                    if (year.length() < 4) {
+                        entryRead = true;
+                        continue;
+                    }
+                    // Separates the publication year.
+                    year = year.substring(0, 4);
+                    break;
+                default:
+                    skipElement(xmlReader);
+                    break;
             }
-            catch (Exception ex) {
+            // The ID and the title are the minimum necessary data.
+            if (arxivID.length() > 0 && title.length() > 0) {
+                if (!title.equals("Error"))
+                    extractedData = new ExtractedData("", arxivID, title,
+                            year);
+                
+                entryRead = true;
             }
         }
         
-        return downloadedDataList;
+        return extractedData;
     }
     
     /**
@@ -781,9 +840,9 @@ public class DataDownloader {
         int downloadDelay = hathitrustDLParameterData.getDownloadDelay();
         int maxAllowedConsecutiveErrors =
                 hathitrustDLParameterData.getMaxAllowedConsecutiveErrors();
-        int logCount = 0;
+        int throttlingRetryCount =
+                hathitrustDLParameterData.getThrottlingRetryCount();
         
-        FileOperation fileOperation = new FileOperation();
         Identifier identifier = new Identifier();
         // An identifier name for logging.
         String identifierName = identifier.getIdentifierName(identifierType);
@@ -791,16 +850,12 @@ public class DataDownloader {
         String identifierVariableName =
                 identifier.getIdentifierVariableName(identifierType);
         URL apiURL;
-        Path downloadPath;
         
         logger.logMessage("Downloading " + identifierName + 
                 " data from HathiTrust...", MessageCategory.Info);
         
         try {
             apiURL = new URL("https://catalog.hathitrust.org/");
-            // Creates a temporary download folder.
-            downloadPath = Files.createTempDirectory("biblc_hathitrust_" +
-                    identifierVariableName + "_");
         }
         catch (Exception ex) {
             logger.logMessage(ex.getMessage(), MessageCategory.Error);
@@ -809,9 +864,8 @@ public class DataDownloader {
         
         String apiPathString = "api/volumes/brief/json/";
         URL fileURL;
-        File file;
-        String filename;
-        List<ExtractedData> collectiveList = new ArrayList<>();
+        // The downloaded content.
+        byte[] content;
         // A list that contains delimited identifier chains and a count for the
         // identifiers present in each chain.
         List<IdentifierChainData> identifierChainDataList =
@@ -823,17 +877,19 @@ public class DataDownloader {
         IdentifierChainData identifierChainData;
         String identifierChain ;
         int identifierCount;
-        long startTime;
+        // Limits the rate of the downloads from the API host.
+        RateLimiter rateLimiter = getRateLimiter(apiURL, downloadDelay,
+                hathitrustDLParameterData.getBurstSize());
+        // Parses the downloaded files and saves their records in other
+        // threads.
+        DownloadPipeline pipeline = new DownloadPipeline(identifierName,
+                insertBatchSize, dataList -> executeTransaction(dataList,
+                "", identifierVariableName, destRepositoryConn, schema));
         
         for (int i = 0; i < identifierChainDataList.size(); i++) {           
             if (consecutiveErrorsExceedMaxAllowed(consecutiveErrors,
                     maxAllowedConsecutiveErrors))
-                return downloadCount;
-            // Begins the timing of the duration between consecutive queries.
-            startTime = System.currentTimeMillis();
-            // The name of the temporary file where the downloaded content will
-            // be saved.
-            filename = "batch_" + (i + 1) + ".json";
+                return pipeline.finish();
             identifierChainData = identifierChainDataList.get(i);
             // The delimited identifier chain.
             identifierChain = identifierChainData.getIdentifierChain();
@@ -849,14 +905,12 @@ public class DataDownloader {
                 consecutiveErrors++;
                 continue;
             }
-            // A file where the downloaded data will be saved.
-            file = new File(downloadPath.toString(), filename);
             
             try {
                 queryCount += identifierCount; 
                 // Data download.
-                FileUtils.copyURLToFile(fileURL, file, connectTimeout,
-                        readTimeout);
+                content = downloadContent(fileURL, connectTimeout,
+                        readTimeout, rateLimiter, throttlingRetryCount);
                 // The variable is initialized after a successful download.
                 consecutiveErrors = 0;
             }
@@ -865,38 +919,18 @@ public class DataDownloader {
                 consecutiveErrors++;
                 continue;
             }
-            // Reads the downloaded file's content.
-            List<ExtractedData> extractedDataList =
-                    getHathiTrustData(file, identifierVariableName);
-            collectiveList.addAll(extractedDataList);
-            downloadCount += extractedDataList.size();
-            fileOperation.deleteTempFile(file);
-            // The collected content will be sent to the repository as a batch.
-            if (collectiveList.size() >= insertBatchSize) {
-                if (executeTransaction(collectiveList, "",
-                        identifierVariableName, destRepositoryConn,
-                        schema) == false)
-                    return downloadCount;
-                
-                collectiveList.clear();
-            }
-            // A message will be logged based on the downloadMessageRecords
-            // value.
-            logCount = logDownloadMessage(logCount, queryCount, downloadCount,
-                    identifierName);
-            // Delay between consecutive downloads.
-            delayDownload(startTime, downloadDelay);
-        }
-        // The remaining content will be sent to the repository.
-        if (collectiveList.size() > 0) {
-            if (executeTransaction(collectiveList, "", identifierVariableName,
-                    destRepositoryConn, schema) == false)
-                return downloadCount;
-            
-            collectiveList.clear();
+            // The downloaded content is parsed and its records are saved
+            // while the next files are downloaded.
+            if (!pipeline.add(content, jsonContent -> getHathiTrustData(
+                    jsonContent, identifierVariableName), queryCount))
+                break;
         }
-        // Deletes the temporary download folder.
-        fileOperation.deleteTempFolder(downloadPath);
+        // Waits for the remaining files to be parsed and saved.
+        downloadCount = pipeline.finish();
+        
+        if (pipeline.getFailed())
+            return downloadCount;
+        
         logger.logMessage("\ttotal records downloaded and saved : " +
                 String.valueOf(downloadCount), MessageCategory.Info);
         
@@ -904,29 +938,17 @@ public class DataDownloader {
     }
     
     /**
-     * Extracts the content of a file downloaded via the HathiTrust API.
-     * @param jsonFile The downloaded json file.
+     * Extracts the content downloaded via the HathiTrust API. The identifiers
+     * are read one at a time from the content.
+     * @param jsonContent The downloaded json content.
      * @param identifierVariableName The identifier variable name.
      * @return An extracted data list.
      */
-    private List<ExtractedData> getHathiTrustData(File jsonFile,
+    private List<ExtractedData> getHathiTrustData(byte[] jsonContent,
             String identifierVariableName) {
         List<ExtractedData> downloadedDataList = new ArrayList<>();
-        Iterator jsonIterator;
-        JSONObject jsonObject;
-        FileOperation fileOperation = new FileOperation();
-        
-        try {
-            // Reads the content of the json file.
-            String jsonString = fileOperation.getTextContent(jsonFile);
-            jsonObject = new JSONObject(jsonString);
-            jsonIterator = jsonObject.keys();
-        }
-        catch (Exception ex) {
-            logger.logMessage(ex.getMessage(), MessageCategory.Error);
-            return downloadedDataList;
-        }
-        
+        JSONMemberReader memberReader = new JSONMemberReader(
+                new ByteArrayInputStream(jsonContent));
         String rootKey;
         String catalogID;
         String subject;
@@ -934,51 +956,59 @@ public class DataDownloader {
         List<Object> titleList;
         List<Object> yearList = new ArrayList<>();
         
-        while (jsonIterator.hasNext()) {
-            rootKey = (String)jsonIterator.next();
-            JSONObject recordsObject;
-            
-            try {
-                // Reads the records object.
-                recordsObject = jsonObject.getJSONObject(
-                        rootKey).getJSONObject("records");
-            }
-            catch (Exception ex) {
-                // If a records object not found.
-                continue;
-            }
-            
-            Iterator recordsIterator = recordsObject.keys();
-            
-            while (recordsIterator.hasNext()) {
-                catalogID = (String)recordsIterator.next();
+        try {
+            // Reads the object of the next identifier.
+            while (memberReader.next()) {
+                rootKey = memberReader.getKey();
+                JSONObject recordsObject;
                 
                 try {
-                    // Reads the subject url.
-                    subject = recordsObject.getJSONObject(
-                            catalogID).getString("recordURL");
-                    // Reads the title.
-                    titleList = recordsObject.getJSONObject(
-                            catalogID).getJSONArray("titles").toList();
+                    // Reads the records object.
+                    recordsObject = ((JSONObject) memberReader.getValue()).
+                            getJSONObject("records");
                 }
                 catch (Exception ex) {
-                    // If a subject or a title not found.
+                    // If a records object not found.
                     continue;
                 }
                 
-                try {
-                    // Reads the publication year list.
-                    yearList = recordsObject.getJSONObject(
-                            catalogID).getJSONArray("publishDates").toList();
-                }
-                catch (Exception ex) {
+                Iterator recordsIterator = recordsObject.keys();
+                
+                while (recordsIterator.hasNext()) {
+                    catalogID = (String)recordsIterator.next();
+                    
+                    try {
+                        // Reads the subject url.
+                        subject = recordsObject.getJSONObject(
+                                catalogID).getString("recordURL");
+                        // Reads the title.
+                        titleList = recordsObject.getJSONObject(
+                                catalogID).getJSONArray("titles").toList();
+                    }
+                    catch (Exception ex) {
+                        // If a subject or a title not found.
+                        continue;
+                    }
+                    // The publication year is optional for each record.
+                    yearList = new ArrayList<>();
+                    
+                    try {
+                        // Reads the publication year list.
+                        yearList = recordsObject.getJSONObject(catalogID).
+                                getJSONArray("publishDates").toList();
+                    }
+                    catch (Exception ex) {
+                    }
+                    // The identifier to be added.
+                    rootKey = rootKey.replace(identifierVariableName, "");
+                    addIdentifierItems(downloadedDataList, subject, rootKey,
+                            titleList, yearList);
                 }
-                // The identifier to be added.
-                rootKey = rootKey.replace(identifierVariableName, "");
-                addIdentifierItems(downloadedDataList, subject, rootKey,
-                        titleList, yearList);
             }
         }
+        catch (Exception ex) {
+            logger.logMessage(ex.getMessage(), MessageCategory.Error);
+        }
         
         return downloadedDataList;
     }
@@ -1062,9 +1092,9 @@ public class DataDownloader {
         int downloadDelay = openlibraryDLParameterData.getDownloadDelay();
         int maxAllowedConsecutiveErrors =
                 openlibraryDLParameterData.getMaxAllowedConsecutiveErrors();
-        int logCount = 0;
+        int throttlingRetryCount =
+                openlibraryDLParameterData.getThrottlingRetryCount();
         
-        FileOperation fileOperation = new FileOperation();
         Identifier identifier = new Identifier();
         // An identifier name for logging.
         String identifierName = identifier.getIdentifierName(identifierType);
@@ -1072,16 +1102,12 @@ public class DataDownloader {
         String identifierVariableName =
                 identifier.getIdentifierVariableName(identifierType);
         URL apiURL;
-        Path downloadPath;
         
         logger.logMessage("Downloading " + identifierName + 
                 " data from Open Library...", MessageCategory.Info);
         
         try {
             apiURL = new URL("https://openlibrary.org/api/");
-            // Creates a temporary download folder.
-            downloadPath = Files.createTempDirectory("biblc_openlibrary_" +
-                    identifierVariableName + "_");
         }
         catch (Exception ex) {
             logger.logMessage(ex.getMessage(), MessageCategory.Error);
@@ -1090,9 +1116,8 @@ public class DataDownloader {
         
         String queryString = "books?jscmd=data&format=json&bibkeys=";
         URL fileURL;
-        File file;
-        String filename;
-        List<ExtractedData> collectiveList = new ArrayList<>();
+        // The downloaded content.
+        byte[] content;
         // A list that contains delimited identifier chains and a count for the
         // identifiers present in each chain.
         List<IdentifierChainData> identifierChainDataList =
@@ -1104,18 +1129,19 @@ public class DataDownloader {
         IdentifierChainData identifierChainData;
         String identifierChain ;
         int identifierCount;
-        long startTime;
+        // Limits the rate of the downloads from the API host.
+        RateLimiter rateLimiter = getRateLimiter(apiURL, downloadDelay,
+                openlibraryDLParameterData.getBurstSize());
+        // Parses the downloaded files and saves their records in other
+        // threads.
+        DownloadPipeline pipeline = new DownloadPipeline(identifierName,
+                insertBatchSize, dataList -> executeTransaction(dataList,
+                "", identifierVariableName, destRepositoryConn, schema));
         
         for (int i = 0; i < identifierChainDataList.size(); i++) {
             if (consecutiveErrorsExceedMaxAllowed(consecutiveErrors,
                     maxAllowedConsecutiveErrors))
-                return downloadCount;
-            // Begins the timing of the duration between consecutive queries.
-            startTime = System.currentTimeMillis();
-            // The name of the temporary file where the downloaded content will
-            // be saved.
-            filename = "batch_" + (i + 1) + ".json";
-            
+                return pipeline.finish();
             identifierChainData = identifierChainDataList.get(i);
             // The delimited identifier chain.
             identifierChain = identifierChainData.getIdentifierChain();
@@ -1131,14 +1157,12 @@ public class DataDownloader {
                 consecutiveErrors++;
                 continue;
             }
-            // A file where the downloaded data will be saved.
-            file = new File(downloadPath.toString(), filename);
             
             try {
                 queryCount += identifierCount;
                 // Data download.
-                FileUtils.copyURLToFile(fileURL, file, connectTimeout,
-                        readTimeout);
+                content = downloadContent(fileURL, connectTimeout,
+                        readTimeout, rateLimiter, throttlingRetryCount);
                 // The variable is initialized after a successful download.
                 consecutiveErrors = 0;
             }
@@ -1147,37 +1171,18 @@ public class DataDownloader {
                 consecutiveErrors++;
                 continue;
             }
-            // Reads the downloaded file's content.
-            List<ExtractedData> extractedDataList =
-                    getOpenLibraryData(file, identifierVariableName);
-            collectiveList.addAll(extractedDataList);
-            downloadCount += extractedDataList.size();
-            fileOperation.deleteTempFile(file);
-            // The collected content will be sent to the repository as a batch.
-            if (collectiveList.size() >= insertBatchSize) {
-                if (executeTransaction(collectiveList, "",
-                        identifierVariableName, destRepositoryConn,
-                        schema) == false)
-                    return downloadCount;
-                
-                collectiveList.clear();
-            }
-            // A message will be logged based on the downloadMessageRecords
-            // value.
-            logCount = logDownloadMessage(logCount, queryCount, downloadCount,
-                    identifierName);
-            delayDownload(startTime, downloadDelay);
-        }
-        // The remaining content will be sent to the repository.
-        if (collectiveList.size() > 0) {
-            if (executeTransaction(collectiveList, "", identifierVariableName,
-                    destRepositoryConn, schema) == false)
-                return downloadCount;
-            
-            collectiveList.clear();
+            // The downloaded content is parsed and its records are saved
+            // while the next files are downloaded.
+            if (!pipeline.add(content, jsonContent -> getOpenLibraryData(
+                    jsonContent, identifierVariableName), queryCount))
+                break;
         }
-        // Deletes the temporary download folder.
-        fileOperation.deleteTempFolder(downloadPath);
+        // Waits for the remaining files to be parsed and saved.
+        downloadCount = pipeline.finish();
+        
+        if (pipeline.getFailed())
+            return downloadCount;
+        
         logger.logMessage("\ttotal records downloaded and saved : " +
                 String.valueOf(downloadCount), MessageCategory.Info);
         
@@ -1185,65 +1190,60 @@ public class DataDownloader {
     }
     
     /**
-     * Extracts the content of a file downloaded via the Open Library API.
-     * @param jsonFile The downloaded json file.
+     * Extracts the content downloaded via the Open Library API. The
+     * identifiers are read one at a time from the content.
+     * @param jsonContent The downloaded json content.
      * @param identifierVariableName The identifier variable name.
      * @return An extracted data list.
      */
-    private List<ExtractedData> getOpenLibraryData(File jsonFile,
+    private List<ExtractedData> getOpenLibraryData(byte[] jsonContent,
             String identifierVariableName) {
         List<ExtractedData> downloadedDataList = new ArrayList<>();
-        Iterator jsonIterator;
-        JSONObject jsonObject;
-        FileOperation fileOperation = new FileOperation();
-        
-        try {
-            // Reads the content of the json file.
-            String jsonString = fileOperation.getTextContent(jsonFile);
-            jsonObject = new JSONObject(jsonString);
-            jsonIterator = jsonObject.keys();
-        }
-        catch (Exception ex) {
-            logger.logMessage(ex.getMessage(), MessageCategory.Error);
-            return downloadedDataList;
-        }
-        
+        JSONMemberReader memberReader = new JSONMemberReader(
+                new ByteArrayInputStream(jsonContent));
+        JSONObject recordObject;
         String rootKeyString, subjectString, titleString;
         String yearString = "";
         identifierVariableName += ":";   
         
-        while (jsonIterator.hasNext()) {
-            rootKeyString = (String)jsonIterator.next();
-            
-            try {
-                // Reads the subject url.
-                subjectString = jsonObject.getJSONObject(
-                        rootKeyString).getString("url");
-                // Reads the title.
-                titleString = jsonObject.getJSONObject(
-                        rootKeyString).getString("title");
-            }
-            catch (Exception ex) {
-                // If a subject or a title not found.
-                continue;
-            }
-            
-            try {
-                // Reads the publication year.
-                yearString = jsonObject.getJSONObject(
-                        rootKeyString).getString("publish_date");
-            }
-            catch (Exception ex) {
-            }
-            // A title is necessary for the data to be added.
-            if (titleString.length() > 0) {
-                // The identifier to be added.
-                rootKeyString =
-                        rootKeyString.replace(identifierVariableName, "");
-                downloadedDataList.add(new ExtractedData(subjectString,
-                        rootKeyString, titleString, yearString));
+        try {
+            // Reads the object of the next identifier.
+            while (memberReader.next()) {
+                rootKeyString = memberReader.getKey();
+                
+                try {
+                    recordObject = (JSONObject) memberReader.getValue();
+                    // Reads the subject url.
+                    subjectString = recordObject.getString("url");
+                    // Reads the title.
+                    titleString = recordObject.getString("title");
+                }
+                catch (Exception ex) {
+                    // If a subject or a title not found.
+                    continue;
+                }
+                // The publication year is optional for each record.
+                yearString = "";
+                
+                try {
+                    // Reads the publication year.
+                    yearString = recordObject.getString("publish_date");
+                }
+                catch (Exception ex) {
+                }
+                // A title is necessary for the data to be added.
+                if (titleString.length() > 0) {
+                    // The identifier to be added.
+                    rootKeyString =
+                            rootKeyString.replace(identifierVariableName, "");
+                    downloadedDataList.add(new ExtractedData(subjectString,
+                            rootKeyString, titleString, yearString));
+                }
             }
         }
+        catch (Exception ex) {
+            logger.logMessage(ex.getMessage(), MessageCategory.Error);
+        }
         
         return downloadedDataList;
     }
@@ -1282,12 +1282,12 @@ public class DataDownloader {
         int downloadDelay = pubmedDLParameterData.getDownloadDelay();
         int maxAllowedConsecutiveErrors =
                 pubmedDLParameterData.getMaxAllowedConsecutiveErrors();
+        int throttlingRetryCount =
+                pubmedDLParameterData.getThrottlingRetryCount();
         // Authentication parameters.
         String apiTool = pubmedDLParameterData.getAPITool();
         String apiEmail = pubmedDLParameterData.getAPIEmail();
         
-        int logCount = 0;
-        FileOperation fileOperation = new FileOperation();
         Identifier identifier = new Identifier();
         // An identifier name for logging.
         String identifierName = identifier.getIdentifierName(identifierType);
@@ -1295,16 +1295,12 @@ public class DataDownloader {
         String identifierVariableName =
                 identifier.getIdentifierVariableName(identifierType);
         URL apiURL;
-        Path downloadPath;
         
         logger.logMessage("Downloading " + identifierName + 
                 " data from PubMed...", MessageCategory.Info);
         
         try {
             apiURL = new URL("https://eutils.ncbi.nlm.nih.gov/entrez/eutils/");
-            // Creates a temporary download folder.
-            downloadPath = Files.createTempDirectory("biblc_pubmed_" +
-                    identifierVariableName + "_");
         }
         catch (Exception ex) {
             logger.logMessage(ex.getMessage(), MessageCategory.Error);
@@ -1317,9 +1313,8 @@ public class DataDownloader {
         // will be generated after concatenating the base URL with a PMID.
         String pubmedURLString = "https://www.ncbi.nlm.nih.gov/pubmed/";
         URL fileURL;
-        File file;
-        String filename;
-        List<ExtractedData> collectiveList = new ArrayList<>();
+        // The downloaded content.
+        byte[] content;
         // A list that contains delimited identifier chains and a count for the
         // identifiers present in each chain.
         List<IdentifierChainData> identifierChainDataList =
@@ -1330,17 +1325,20 @@ public class DataDownloader {
         IdentifierChainData identifierChainData;
         String identifierChain ;
         int identifierCount;
-        long startTime;
+        // Limits the rate of the downloads from the API host.
+        RateLimiter rateLimiter = getRateLimiter(apiURL, downloadDelay,
+                pubmedDLParameterData.getBurstSize());
+        // Parses the downloaded files and saves their records in other
+        // threads.
+        DownloadPipeline pipeline = new DownloadPipeline(identifierName,
+                insertBatchSize, dataList -> executeTransaction(dataList,
+                pubmedURLString, identifierVariableName, destRepositoryConn,
+                schema));
         
         for (int i = 0; i < identifierChainDataList.size(); i++) {
             if (consecutiveErrorsExceedMaxAllowed(consecutiveErrors,
                     maxAllowedConsecutiveErrors))
-                return downloadCount;
-            // Begins the timing of the duration between consecutive queries.
-            startTime = System.currentTimeMillis();
-            // The name of the temporary file where the downloaded content will
-            // be saved.
-            filename = "batch_" + (i + 1) + ".xml";
+                return pipeline.finish();
             identifierChainData = identifierChainDataList.get(i);
             // The delimited identifier chain.
             identifierChain = identifierChainData.getIdentifierChain();
@@ -1356,14 +1354,12 @@ public class DataDownloader {
                 consecutiveErrors++;
                 continue;
             }
-            // A file where the downloaded data will be saved.
-            file = new File(downloadPath.toString(), filename);
             
             try {
                 queryCount += identifierCount;
                 // Data download.
-                FileUtils.copyURLToFile(fileURL, file, connectTimeout,
-                        readTimeout);
+                content = downloadContent(fileURL, connectTimeout,
+                        readTimeout, rateLimiter, throttlingRetryCount);
                 // The variable is initialized after a successful download.
                 consecutiveErrors = 0;
             }
@@ -1372,38 +1368,18 @@ public class DataDownloader {
                 consecutiveErrors++;
                 continue;
             }
-            // Reads the downloaded file's content.
-            List<ExtractedData> extractedDataList = getPubMedData(file);
-            collectiveList.addAll(extractedDataList);
-            downloadCount += extractedDataList.size();
-            fileOperation.deleteTempFile(file);
-            // The collected content will be sent to the repository as a batch.
-            if (collectiveList.size() >= insertBatchSize) {
-                if (executeTransaction(collectiveList, pubmedURLString,
-                        identifierVariableName, destRepositoryConn,
-                        schema) == false)
-                    return downloadCount;
-                
-                collectiveList.clear();
-            }
-            // A message will be logged based on the downloadMessageRecords
-            // value.
-            logCount = logDownloadMessage(logCount, queryCount, downloadCount,
-                    identifierName);
-            // Delay between consecutive downloads.
-            delayDownload(startTime, downloadDelay);
-        }
-        // The remaining content will be sent to the repository.
-        if (collectiveList.size() > 0) {
-            if (executeTransaction(collectiveList, pubmedURLString, 
-                    identifierVariableName, destRepositoryConn,
-                    schema) == false)
-                return downloadCount;
-            
-            collectiveList.clear();
+            // The downloaded content is parsed and its records are saved
+            // while the next files are downloaded.
+            if (!pipeline.add(content, xmlContent -> getPubMedData(
+                    xmlContent), queryCount))
+                break;
         }
-        // Deletes the temporary download folder.
-        fileOperation.deleteTempFolder(downloadPath);
+        // Waits for the remaining files to be parsed and saved.
+        downloadCount = pipeline.finish();
+        
+        if (pipeline.getFailed())
+            return downloadCount;
+        
         logger.logMessage("\ttotal records downloaded and saved : " +
                 String.valueOf(downloadCount), MessageCategory.Info);
         
@@ -1411,85 +1387,222 @@ public class DataDownloader {
     }
     
     /**
-     * Extracts the content of a file downloaded via the PubMed API.
-     * @param xmlFile The downloaded xml file.
+     * Extracts the content downloaded via the PubMed API. The summaries are
+     * read as a stream, so that only the current document summary is kept in
+     * memory.
+     * @param xmlContent The downloaded xml content.
      * @return An extracted data list.
      */
-    private List<ExtractedData> getPubMedData(File xmlFile) {
+    private List<ExtractedData> getPubMedData(byte[] xmlContent) {
         List<ExtractedData> downloadedDataList = new ArrayList<>();
-        NodeList docSumNodeList;
+        XMLStreamReader xmlReader = null;
+        ExtractedData extractedData;
         
         try {
-            DocumentBuilderFactory builderFactory =
-                    DocumentBuilderFactory.newInstance();
-            // Prevents the default validation of the file's structure.
-            builderFactory.setFeature("http://apache.org/xml/features/" + 
-                    "nonvalidating/load-external-dtd", false);
-            DocumentBuilder builder = builderFactory.newDocumentBuilder();
-            // Reads the file.
-            Document xmlDocument = builder.parse(xmlFile);
-            XPath xPath =  XPathFactory.newInstance().newXPath();
-            // XPath expression to retrieve an element.
-            String expression = "/eSummaryResult/DocSum";
-            docSumNodeList = (NodeList) xPath.evaluate(expression,
-                    xmlDocument, XPathConstants.NODESET);
+            xmlReader = getXMLStreamReader(xmlContent);
+            // The summaries are read only from an eSummaryResult root
+            // element.
+            if (!nextChildElement(xmlReader) ||
+                    !xmlReader.getLocalName().equals("eSummaryResult"))
+                return downloadedDataList;
+            // Iteration through all the results retrieved.
+            while (nextChildElement(xmlReader)) {
+                if (!xmlReader.getLocalName().equals("DocSum")) {
+                    skipElement(xmlReader);
+                    continue;
+                }
+                
+                extractedData = getPubMedDocSum(xmlReader);
+                
+                if (extractedData != null)
+                    downloadedDataList.add(extractedData);
+            }
         }
         catch (Exception ex) {
             logger.logMessage(ex.getMessage(), MessageCategory.Warning);
-            return downloadedDataList;
+        }
+        finally {
+            closeXMLStreamReader(xmlReader);
         }
         
-        String pmid;
+        return downloadedDataList;
+    }
+    
+    /**
+     * Reads a document summary downloaded via the PubMed API, until the end of
+     * the DocSum element.
+     * @param xmlReader The reader positioned at the start of the DocSum.
+     * @return The extracted data, or null if the document summary doesn't
+     * contain the necessary data.
+     */
+    private ExtractedData getPubMedDocSum(XMLStreamReader xmlReader)
+            throws XMLStreamException {
+        String pmid = null;
         String title = "";
         String year = "";
         String nameValue;
-        // Iteration through all the results retrieved.
-        for (int i = 0; i < docSumNodeList.getLength(); i++) {
-            try {
-                Node docSumNode = docSumNodeList.item(i);
-                
-                if (docSumNode.getNodeType() == Node.ELEMENT_NODE) {
-                    Element docSumElement = (Element) docSumNode;
+        // Indicates if the remaining items must be skipped.
+        boolean itemsRead = false;
+        boolean valid = true;
+        // The depth of the current element inside the DocSum.
+        int depth = 0;
+        
+        while (depth >= 0 && xmlReader.hasNext()) {
+            switch (xmlReader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
                     // Reads the identifier.
-                    pmid = docSumElement.getElementsByTagName("Id").
-                            item(0).getTextContent();
-                    NodeList docSumChildNodeList =
-                            docSumElement.getElementsByTagName("Item");
+                    if (pmid == null &&
+                            xmlReader.getLocalName().equals("Id")) {
+                        pmid = readTextContent(xmlReader);
+                        break;
+                    }
                     
-                    for (int j = 0; j < docSumChildNodeList.getLength(); j++) {                       
-                        Element docSumChildElement =
-                                (Element) docSumChildNodeList.item(j);
-                        nameValue = docSumChildElement.getAttribute("Name");
-                        
-                        switch (nameValue) {
-                            case "Title":
-                                // Reads the title.
-                                title = docSumChildElement.getTextContent();
-                                break;
-                            case "PubDate":
-                                year = docSumChildElement.getTextContent();
-                                // Separates the publication year.
-                                year = year.substring(0, 4);
-                                break;
+                    nameValue = (itemsRead ||
+                            !xmlReader.getLocalName().equals("Item")) ? "" :
+                            xmlReader.getAttributeValue(null, "Name");
+                    
+                    if ("Title".equals(nameValue)) {
+                        // Reads the title.
+                        title = readTextContent(xmlReader);
+                    }
+                    else if ("PubDate".equals(nameValue)) {
+                        year = readTextContent(xmlReader);
+                        // A summary with an invalid publication date is
+                        // skipped.
+                        if (year.length() < 4) {
+                            valid = false;
+                            itemsRead = true;
                         }
-                        
-                        if (title.length() > 0 && year.length() > 0)
-                            break;
+                        else
+                            // Separates the publication year.
+                            year = year.substring(0, 4);
+                    }
+                    else {
+                        depth++;
+                        break;
                     }
-                    // The ID and the title are the minimum necessary data.
-                    if (pmid.length() > 0 && title.length() > 0)
-                        downloadedDataList.add(new ExtractedData(
-                                "", pmid, title, year));
                     
-                    title = "";
-                    year = "";
-                }
+                    if (title.length() > 0 && year.length() > 0)
+                        itemsRead = true;
+                    
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
             }
-            catch (Exception ex) {
+        }
+        // The ID and the title are the minimum necessary data.
+        if (valid && pmid != null && pmid.length() > 0 && title.length() > 0)
+            return new ExtractedData("", pmid, title, year);
+        
+        return null;
+    }
+    
+    /**
+     * Creates a reader for downloaded xml content. The element names are read
+     * with their prefixes and the document type definitions are not loaded.
+     * @param xmlContent The downloaded xml content.
+     * @return The xml stream reader.
+     */
+    private XMLStreamReader getXMLStreamReader(byte[] xmlContent)
+            throws XMLStreamException {
+        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        // Prevents the loading of external document type definitions.
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(
+                XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        
+        return inputFactory.createXMLStreamReader(
+                new ByteArrayInputStream(xmlContent));
+    }
+    
+    /**
+     * Moves to the next child element of the current element.
+     * @param xmlReader The xml stream reader.
+     * @return True if the reader is positioned at the start of a child
+     * element, or false if it has reached the end of the current element.
+     */
+    private boolean nextChildElement(XMLStreamReader xmlReader)
+            throws XMLStreamException {
+        while (xmlReader.hasNext()) {
+            switch (xmlReader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    return true;
+                case XMLStreamConstants.END_ELEMENT:
+                    return false;
             }
         }
         
-        return downloadedDataList;
+        return false;
+    }
+    
+    /**
+     * Reads the text of the current element and its descendants, until the
+     * end of the element.
+     * @param xmlReader The reader positioned at the start of the element.
+     * @return The text content of the element.
+     */
+    private String readTextContent(XMLStreamReader xmlReader)
+            throws XMLStreamException {
+        StringBuilder textBuilder = new StringBuilder();
+        int depth = 1;
+        
+        while (depth > 0) {
+            switch (xmlReader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    textBuilder.append(xmlReader.getTextCharacters(),
+                            xmlReader.getTextStart(),
+                            xmlReader.getTextLength());
+                    break;
+            }
+        }
+        
+        return textBuilder.toString();
+    }
+    
+    /**
+     * Skips the current element along with its descendants.
+     * @param xmlReader The reader positioned at the start of the element.
+     */
+    private void skipElement(XMLStreamReader xmlReader)
+            throws XMLStreamException {
+        int depth = 1;
+        
+        while (depth > 0) {
+            switch (xmlReader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+            }
+        }
+    }
+    
+    /**
+     * Closes an xml stream reader.
+     * @param xmlReader The xml stream reader, or null if it hasn't been
+     * created.
+     */
+    private void closeXMLStreamReader(XMLStreamReader xmlReader) {
+        if (xmlReader == null)
+            return;
+        
+        try {
+            xmlReader.close();
+        }
+        catch (Exception ex) {
+        }
     }
     
     /**
@@ -1577,37 +1690,35 @@ public class DataDownloader {
         }
         
         URL fileURL;
-        ExecutorService executorService =
-                Executors.newFixedThreadPool(downloadBatchSize);
-        Callable callable;
-        List<Future> callResultList = new ArrayList<>();
         File file;
         String filename;
-        List<File> fileList = new ArrayList();
-        List<File> collectiveList = new ArrayList();
-        // A list that contains delimited identifier chains and a count for the
-        // identifiers present in each chain.
-        List<IdentifierChainData> identifierChainDataList =
-                getIdentifierChainDataList(identifierSet, "", "", ",",
-                        downloadBatchSize);
+        String identifierString;
+        List<File> collectiveList = new ArrayList<>();
+        // Completes the downloads in the order they finish, so that a slow
+        // download doesn't hold up the others.
+        CompletionService<Integer> completionService =
+                new ExecutorCompletionService<>(getWorldCatExecutorService());
+        // The files of the downloads in progress, which are limited to
+        // downloadBatchSize.
+        Map<Future<Integer>, File> pendingFileMap = new HashMap<>();
+        // Keeps the downloads from writing files after the downloading has
+        // stopped.
+        DownloadTracker downloadTracker = new DownloadTracker();
+        Future<Integer> callResult;
+        Iterator<String> identifierIterator = identifierSet.iterator();
         int consecutiveErrors = 0;
-        int consecutiveDownloadErrors;
         int queryCount = 0;
-        IdentifierChainData identifierChainData;
-        String identifierChain;
-        long startTime;
-        
-        for (int i = 0; i < identifierChainDataList.size(); i++) {
-            // Begins the timing of the duration between consecutive queries.
-            startTime = System.currentTimeMillis();
-            
-            identifierChainData = identifierChainDataList.get(i);
-            // The delimited identifier chain.
-            identifierChain = identifierChainData.getIdentifierChain();
-            // Converts the identifier chain to an array.
-            String[] identifierArray = identifierChain.split(",");
-            
-            for (String identifierString : identifierArray) {
+        // Limits the rate of the downloads from the API host, so that a batch
+        // of parallel downloads is sent per download delay.
+        RateLimiter rateLimiter = getRateLimiter(apiURL,
+                downloadDelay / Math.max(downloadBatchSize, 1),
+                downloadBatchSize * worldcatDLParameterData.getBurstSize());
+        
+        while (identifierIterator.hasNext() || !pendingFileMap.isEmpty()) {
+            // A new download starts as soon as a previous one has finished.
+            while (pendingFileMap.size() < downloadBatchSize &&
+                    identifierIterator.hasNext()) {
+                identifierString = identifierIterator.next();
                 // The name of the temporary file where the downloaded content
                 // will be saved.
                 filename = identifierString + ".ttl";
@@ -1623,65 +1734,75 @@ public class DataDownloader {
                 }
                 // A file where the downloaded data will be saved.
                 file = new File(downloadPath.toString(), filename);
-                fileList.add(file);
                 // A callable which will be used to download the file.
-                callable = new WorldCatCallable(fileURL, file, connectTimeout,
-                        readTimeout, attemptCount, delayBetweenAttemps);
-                // Initiates a download via a new thread.
-                callResultList.add(executorService.submit(callable));
-                queryCount++;
+                WorldCatCallable callable = new WorldCatCallable(
+                        httpTransport, rateLimiter, fileURL, file,
+                        connectTimeout, readTimeout, attemptCount,
+                        delayBetweenAttemps);
+                // Initiates a download via a thread of the executor.
+                pendingFileMap.put(completionService.submit(
+                        () -> downloadTracker.run(callable)), file);
             }
             
+            if (pendingFileMap.isEmpty())
+                break;
+            
             try {
-                executorService.shutdown();
-                // Waits for termination of all the download threads.
-                executorService.awaitTermination(Long.MAX_VALUE,
-                        TimeUnit.SECONDS);
+                // Waits for the next finished download.
+                callResult = completionService.take();
             }
-            catch (Exception ex) {
-                logger.logMessage(ex.getMessage(), MessageCategory.Error);
-                consecutiveErrors++;
-                continue;
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
             }
             
-            collectiveList.addAll(fileList);
-            // Adds the count of the successfully downloaded files.
-            downloadCount += getFileCount(fileList);
-            fileList.clear();
+            file = pendingFileMap.remove(callResult);
+            queryCount++;
+            
+            if (getErrorCount(callResult) == 0)
+                // The variable is initialized after a successful download.
+                consecutiveErrors = 0;
+            else
+                consecutiveErrors++;
+            
+            if (file.exists()) {
+                collectiveList.add(file);
+                downloadCount++;
+            }
             // The collected content will be sent to the repository as a batch.
-            if (getFileCount(collectiveList) >= insertBatchSize) {
+            if (collectiveList.size() >= insertBatchSize) {
                 if (executeTransaction(collectiveList,
-                        destRepositoryConn) == false)
+                        destRepositoryConn) == false) {
+                    stopDownloads(pendingFileMap, downloadTracker);
+                    // Deletes the temporary download folder.
+                    fileOperation.deleteTempFolder(downloadPath);
                     return downloadCount;
+                }
                 
                 collectiveList.clear();
             }
-            // Creates a new thread pool based on the provided batch size.
-            executorService = Executors.newFixedThreadPool(downloadBatchSize);
-            // Retrieves the number of consecutive errors.
-            consecutiveDownloadErrors =
-                    getConsecutiveErrorCount(callResultList);
-            
-            if (consecutiveDownloadErrors == 0)
-                consecutiveErrors = 0;
-            else
-                consecutiveErrors += consecutiveDownloadErrors;
             
+            // The files downloaded so far are saved before stopping.
             if (consecutiveErrorsExceedMaxAllowed(consecutiveErrors,
                     maxAllowedConsecutiveErrors))
-                return downloadCount;
+                break;
             
             // A message will be logged based on the downloadMessageRecords
             // value.
             logCount = logDownloadMessage(logCount, queryCount, downloadCount,
                     identifierName);
-            // Delay between consecutive downloads.
-            delayDownload(startTime, downloadDelay);
         }
+        // Cancels the downloads in progress if the downloading has stopped
+        // early.
+        stopDownloads(pendingFileMap, downloadTracker);
         // The remaining content will be sent to the repository.
-        if (getFileCount(collectiveList) > 0) {
-            if (executeTransaction(collectiveList, destRepositoryConn) == false)
+        if (collectiveList.size() > 0) {
+            if (executeTransaction(collectiveList, destRepositoryConn) ==
+                    false) {
+                // Deletes the temporary download folder.
+                fileOperation.deleteTempFolder(downloadPath);
                 return downloadCount;
+            }
             
             collectiveList.clear();
         }
@@ -1694,22 +1815,57 @@ public class DataDownloader {
     }
     
     /**
-     * Gets the count of the successfully downloaded files.
-     * @param fileList A list of files.
-     * @return The count of the successful downloads.
+     * Gets the executor of the WorldCat downloads, which is created at the
+     * first download and kept along with its idle threads for the next
+     * downloads.
+     * @return The executor.
      */
-    private int getFileCount(List<File> fileList) {
-        int fileCount = 0;
-        File file;
+    private synchronized ExecutorService getWorldCatExecutorService() {
+        if (worldcatExecutorService == null)
+            // The number of the threads follows the number of the downloads
+            // in progress, and a thread expires after a minute of idleness.
+            worldcatExecutorService = Executors.newCachedThreadPool(
+                    runnable -> {
+                Thread thread = new Thread(runnable, "biblc-worldcat");
+                // The threads don't keep the application running.
+                thread.setDaemon(true);
+                
+                return thread;
+            });
         
-        for (int i = 0; i < fileList.size(); i++) {
-            file = fileList.get(i);
-            
-            if (file.exists())
-                fileCount++;
+        return worldcatExecutorService;
+    }
+    
+    /**
+     * Gets the number of errors of a finished WorldCat download.
+     * @param callResult The result of the download thread.
+     * @return The number of errors.
+     */
+    private int getErrorCount(Future<Integer> callResult) {
+        try {
+            return callResult.get();
+        }
+        catch (Exception ex) {
+            return 1;
         }
-        
-        return fileCount;    
+    }
+    
+    /**
+     * Cancels the WorldCat downloads in progress when the downloading stops
+     * early, and waits for the running ones to end, so that no file is
+     * written in the download folder afterwards.
+     * @param pendingFileMap The files of the downloads in progress.
+     * @param downloadTracker Tracks the running downloads.
+     */
+    private void stopDownloads(Map<Future<Integer>, File> pendingFileMap,
+            DownloadTracker downloadTracker) {
+        // The interrupted downloads skip their remaining attempts, while the
+        // ones which haven't started will not run.
+        for (Future<Integer> callResult : pendingFileMap.keySet())
+            callResult.cancel(true);
+        
+        pendingFileMap.clear();
+        downloadTracker.stop();
     }
     
     /**
@@ -1995,36 +2151,6 @@ public class DataDownloader {
         return errorsExceed;
     }
     
-    /**
-     * Gets the count of the consecutive errors.
-     * @param callResultList A future list containing the errors generated 
-     * during each thread.
-     * @return The consecutive error count.
-     */
-    private int getConsecutiveErrorCount(List<Future> callResultList) {
-        int consecutiveErrorCount = 0;
-        int errorCount;
-        Future callResult;
-        
-        for (int i = 0; i < callResultList.size(); i++) {
-            try {
-                callResult = callResultList.get(i);
-                errorCount = (int) callResult.get();
-                
-                if (errorCount == 0)
-                    // The variable is initialized after a successful download.
-                    consecutiveErrorCount = 0;
-                else
-                    consecutiveErrorCount += errorCount;
-            }
-            catch (Exception ex) {
-                consecutiveErrorCount++;
-            }
-        }
-        
-        return consecutiveErrorCount;
-    }
-    
     /**
      * Logs a message during the downloads depending on the value of the
      * downloadMessageRecords variable.
@@ -2188,22 +2314,309 @@ public class DataDownloader {
     }
 
     /**
-     * Delays the current thread based on the timing initiation moment.
-     * @param startTime The timing start (in milliseconds).
-     * @param delay The delay (in milliseconds).
+     * Gets the rate limiter of an API host, which is shared by the downloads
+     * from the host.
+     * @param apiURL The URL of the API.
+     * @param interval The interval (in milliseconds) between the downloads at
+     * the steady rate.
+     * @param burstSize The number of downloads that can be sent at once after
+     * an idle period.
+     * @return The rate limiter.
+     */
+    private RateLimiter getRateLimiter(URL apiURL, long interval,
+            int burstSize) {
+        RateLimiter rateLimiter = rateLimiterMap.computeIfAbsent(
+                apiURL.getHost(), host -> new RateLimiter(interval,
+                burstSize));
+        // The rate follows the current download parameters.
+        rateLimiter.setRate(interval, burstSize);
+        
+        return rateLimiter;
+    }
+    
+    /**
+     * Downloads content via an API at the rate allowed by its rate limiter.
+     * A download throttled by the API host (HTTP 429 or 503) is repeated
+     * after the pause requested by the host or an increasing pause.
+     * @param fileURL The URL of the content.
+     * @param connectTimeout The connection timeout (in milliseconds).
+     * @param readTimeout The read timeout (in milliseconds).
+     * @param rateLimiter The rate limiter of the API host.
+     * @param throttlingRetryCount The number of times a throttled download is
+     * repeated.
+     * @return The downloaded content.
      */
-    private void delayDownload(long startTime, int delay) {
-        // Gets the current time in milliseconds.
-        long stopTime = System.currentTimeMillis();
-        // Calculates the elapsed time.
-        long elapsedTime = stopTime - startTime;
+    private byte[] downloadContent(URL fileURL, int connectTimeout,
+            int readTimeout, RateLimiter rateLimiter,
+            int throttlingRetryCount) throws IOException {
+        byte[] content;
+        
+        for (int i = 0; ; i++) {
+            // Waits for the rate limiter.
+            rateLimiter.acquire();
+            
+            try {
+                content = httpTransport.getContent(fileURL, connectTimeout,
+                        readTimeout);
+                rateLimiter.reportSuccess();
+                
+                return content;
+            }
+            catch (HTTPStatusException ex) {
+                if (!ex.getThrottled())
+                    throw ex;
+                // Pauses the next downloads from the host.
+                rateLimiter.reportThrottling(ex.getRetryAfter());
+                
+                if (i >= throttlingRetryCount)
+                    throw ex;
+                
+                logger.logMessage(ex.getMessage() + ", the download will " +
+                        "be repeated", MessageCategory.Warning);
+            }
+        }
+    }
+    
+    /**
+     * Parses the files downloaded via an API and saves their records in other
+     * threads, so that the next files can be downloaded meanwhile. The files
+     * are parsed by a pool of downloadParserCount threads, while their records
+     * are collected in the order of the downloads by a single thread which
+     * sends them to the destination repository in batches. The number of the
+     * files waiting to be parsed is limited, so that the downloads are paused
+     * if the parsing or the saving falls behind.
+     */
+    private class DownloadPipeline {
+        // The name of the identifier for logging.
+        private final String identifierName;
+        // The number of records to be batch inserted.
+        private final int insertBatchSize;
+        // Sends a batch of records into the destination repository and
+        // returns the success of sending it.
+        private final Predicate<List<ExtractedData>> transaction;
+        private final ExecutorService parserService;
+        private final ExecutorService writerService;
+        // The files being parsed, in the order of their download.
+        private final BlockingQueue<ParsedFile> parsedFileQueue;
+        private final Future<Integer> writerResult;
+        // Indicates if a batch couldn't be sent to the repository.
+        private volatile boolean failed = false;
+        // The number of the parsed records.
+        private int downloadCount = 0;
+        
+        /**
+         * @param identifierName The name of the identifier for logging.
+         * @param insertBatchSize The number of records to be batch inserted.
+         * @param transaction Sends a batch of records into the destination
+         * repository and returns the success of sending it.
+         */
+        public DownloadPipeline(String identifierName, int insertBatchSize,
+                Predicate<List<ExtractedData>> transaction) {
+            this.identifierName = identifierName;
+            this.insertBatchSize = insertBatchSize;
+            this.transaction = transaction;
+            parserService = Executors.newFixedThreadPool(downloadParserCount);
+            parsedFileQueue = new ArrayBlockingQueue<>(downloadParserCount * 2);
+            writerService = Executors.newSingleThreadExecutor();
+            writerResult = writerService.submit(this::saveParsedFiles);
+        }
+        
+        /**
+         * Adds a downloaded file to be parsed. It waits while too many files
+         * are being parsed.
+         * @param content The downloaded content of the file.
+         * @param parser Reads the records of the content.
+         * @param queryCount The number of identifiers queried until the
+         * download of the file, for logging.
+         * @return False if a batch couldn't be sent to the repository, so that
+         * no more files must be downloaded, otherwise true.
+         */
+        public boolean add(byte[] content,
+                Function<byte[], List<ExtractedData>> parser,
+                int queryCount) {
+            if (failed)
+                return false;
+            
+            Future<List<ExtractedData>> parseResult = parserService.submit(
+                    () -> parser.apply(content));
+            
+            return putParsedFile(new ParsedFile(parseResult, queryCount)) &&
+                    !failed;
+        }
         
-        if (elapsedTime < delay)
+        /**
+         * Waits for the added files to be parsed and their records to be
+         * saved, and stops the threads.
+         * @return The number of the parsed records.
+         */
+        public int finish() {
             try {
-                // Delays the thread.
-                Thread.sleep(delay - elapsedTime);
+                // Marks the end of the files.
+                putParsedFile(new ParsedFile(null, 0));
+                downloadCount = writerResult.get();
             }
             catch (Exception ex) {
+                logger.logMessage(ex.getMessage(), MessageCategory.Error);
+                failed = true;
+            }
+            finally {
+                parserService.shutdownNow();
+                writerService.shutdownNow();
+            }
+            
+            return downloadCount;
+        }
+        
+        /**
+         * @return A value indicating if a batch couldn't be sent to the
+         * repository.
+         */
+        public boolean getFailed() {
+            return failed;
+        }
+        
+        /**
+         * Puts a file in the queue of the parsed files, waiting while the
+         * queue is full.
+         * @param parsedFile The file being parsed.
+         * @return False if the saving thread has stopped unexpectedly, so
+         * that the queue will not be emptied, otherwise true.
+         */
+        private boolean putParsedFile(ParsedFile parsedFile) {
+            try {
+                while (!parsedFileQueue.offer(parsedFile, 1,
+                        TimeUnit.SECONDS)) {
+                    if (writerResult.isDone()) {
+                        failed = true;
+                        return false;
+                    }
+                }
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            
+            return true;
+        }
+        
+        /**
+         * Collects the records of the parsed files in the order of their
+         * download and sends them to the repository in batches. After a
+         * failed batch, the remaining files are only awaited.
+         * @return The number of the parsed records.
+         */
+        private Integer saveParsedFiles() throws InterruptedException {
+            List<ExtractedData> collectiveList = new ArrayList<>();
+            List<ExtractedData> extractedDataList;
+            ParsedFile parsedFile;
+            int logCount = 0;
+            
+            while ((parsedFile = parsedFileQueue.take()).parseResult != null) {
+                try {
+                    extractedDataList = parsedFile.parseResult.get();
+                }
+                catch (ExecutionException ex) {
+                    logger.logMessage(ex.getCause().getMessage(),
+                            MessageCategory.Error);
+                    continue;
+                }
+                
+                if (failed)
+                    continue;
+                
+                collectiveList.addAll(extractedDataList);
+                downloadCount += extractedDataList.size();
+                // The collected content will be sent to the repository as a
+                // batch.
+                if (collectiveList.size() >= insertBatchSize) {
+                    failed = !transaction.test(collectiveList);
+                    collectiveList.clear();
+                }
+                // A message will be logged based on the downloadMessageRecords
+                // value.
+                logCount = logDownloadMessage(logCount, parsedFile.queryCount,
+                        downloadCount, identifierName);
+            }
+            // The remaining content will be sent to the repository.
+            if (!failed && collectiveList.size() > 0)
+                failed = !transaction.test(collectiveList);
+            
+            return downloadCount;
+        }
+    }
+    
+    /**
+     * Counts the WorldCat downloads running in the threads of the executor.
+     * Once it has been stopped no more downloads start, so that the files of
+     * a stopped downloading can be deleted. A cancelled download may still be
+     * running, since the interruption doesn't stop the blocking I/O.
+     */
+    private static class DownloadTracker {
+        private int runningCount = 0;
+        private boolean stopped = false;
+        
+        /**
+         * Runs a download unless the tracker has been stopped.
+         * @param callable The download.
+         * @return The number of consecutive errors during the download.
+         */
+        public Integer run(WorldCatCallable callable) {
+            synchronized (this) {
+                if (stopped)
+                    return 1;
+                
+                runningCount++;
+            }
+            
+            try {
+                return callable.call();
             }
+            finally {
+                synchronized (this) {
+                    runningCount--;
+                    notifyAll();
+                }
+            }
+        }
+        
+        /**
+         * Prevents new downloads from starting and waits for the running ones
+         * to end.
+         */
+        public synchronized void stop() {
+            boolean interrupted = false;
+            stopped = true;
+            
+            while (runningCount > 0) {
+                try {
+                    wait();
+                }
+                catch (InterruptedException ex) {
+                    // The waiting continues, since the files of the running
+                    // downloads must not be written after the deletion.
+                    interrupted = true;
+                }
+            }
+            
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * A file being parsed and the number of identifiers queried until its
+     * download.
+     */
+    private static class ParsedFile {
+        // The records of the file, or null for the end of the files.
+        private final Future<List<ExtractedData>> parseResult;
+        private final int queryCount;
+        
+        public ParsedFile(Future<List<ExtractedData>> parseResult,
+                int queryCount) {
+            this.parseResult = parseResult;
+            this.queryCount = queryCount;
+        }
     }
 }
\ No newline at end of file
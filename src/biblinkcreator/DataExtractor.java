@@ -21,10 +21,14 @@ package biblinkcreator;
 import biblinkcreator.Logger.*;
 import biblinkcreator.Identifier.*;
 import biblinkcreator.DataStructure.*;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.*;
 import org.openrdf.model.*;
 import org.openrdf.model.vocabulary.XMLSchema;
 import org.openrdf.query.*;
+import org.openrdf.query.parser.QueryParserUtil;
 import org.openrdf.repository.*;
 import org.openrdf.repository.http.HTTPRepository;
 
@@ -44,6 +48,37 @@ public class DataExtractor {
     // The number of records to be batch inserted after extraction and
     // preprocessing.
     private int insertBatchSize = 1000;
+    // The number of threads formatting the extracted identifiers.
+    private int formatParallelism = 1;
+    // The number of identifiers formatted by a thread at a time.
+    private static final int FORMAT_BATCH_SIZE = 1024;
+    // Indicates if each source repository is queried once during the
+    // extraction, keeping its records in a temporary file until their
+    // insertion.
+    private boolean singleScan = false;
+    // (Optional) The parameters of the Bloom filter of the source A
+    // identifiers, which screens the source B identifiers before they are
+    // searched in the source A identifier set.
+    private BloomFilterParameterData inclusionBloomFilterParameterData = null;
+    // Indicates if the Bloom filter replaces the source A identifier set
+    // during the extraction of the source B identifiers.
+    private boolean approximateInclusion = false;
+    // Indicates if the records are inserted by queries restricted to the
+    // matched identifiers instead of a query retrieving all the records.
+    private boolean pushDownFiltering = false;
+    // The number of identifiers contained in the VALUES block of each
+    // restricted query.
+    private int valuesBatchSize = 500;
+    // The maximum ratio of the matched identifiers to the retrieved records
+    // for which the restricted queries are used.
+    private double maxPushDownSelectivity = 0.1;
+    // (Optional) The folder of the snapshots of the saved identifiers, which
+    // replace their retrieval from the destination repository when only new
+    // data are saved.
+    private Path identifierSnapshotPath = null;
+    // Indicates if the snapshot of the saved identifiers is replaced by the
+    // identifiers of the destination repository.
+    private boolean refreshIdentifierSnapshot = false;
     // Provides structure for the saved data.
     private Schema schema = null;
     private Logger logger = null;
@@ -186,6 +221,185 @@ public class DataExtractor {
         this.insertBatchSize = insertBatchSize;
     }
     
+    /**
+     * @return The number of threads formatting the extracted identifiers.
+     */
+    public int getFormatParallelism() {
+        return formatParallelism;
+    }
+    
+    /**
+     * @param formatParallelism The number of threads formatting the extracted
+     * identifiers. If it is greater than 1, the identifiers are formatted in
+     * batches while the next ones are retrieved from the source repository.
+     */
+    public void setFormatParallelism(int formatParallelism) {
+        if (formatParallelism > 0)
+            this.formatParallelism = formatParallelism;
+        else
+            this.formatParallelism = 1;
+    }
+    
+    /**
+     * @return A value indicating if each source repository is queried once
+     * during the extraction.
+     */
+    public boolean getSingleScan() {
+        return singleScan;
+    }
+    
+    /**
+     * @param singleScan A value indicating if each source repository is
+     * queried once during the extraction. The records of the valid identifiers
+     * are kept in a temporary file while the identifier sets are built, and
+     * the matched ones are inserted from the file instead of being retrieved
+     * again from the repository.
+     */
+    public void setSingleScan(boolean singleScan) {
+        this.singleScan = singleScan;
+    }
+    
+    /**
+     * @return The parameters of the Bloom filter of the source A identifiers,
+     * or null if no filter is used.
+     */
+    public BloomFilterParameterData getInclusionBloomFilterParameterData() {
+        return inclusionBloomFilterParameterData;
+    }
+    
+    /**
+     * @param inclusionBloomFilterParameterData (Optional) The parameters of
+     * the Bloom filter of the source A identifiers. If provided, the source B
+     * identifiers are screened by the filter before they are searched in the
+     * source A identifier set, so that most of the unmatched ones never reach
+     * the set.
+     */
+    public void setInclusionBloomFilterParameterData(
+            BloomFilterParameterData inclusionBloomFilterParameterData) {
+        this.inclusionBloomFilterParameterData =
+                inclusionBloomFilterParameterData;
+    }
+    
+    /**
+     * @return A value indicating if the Bloom filter replaces the source A
+     * identifier set during the extraction of the source B identifiers.
+     */
+    public boolean getApproximateInclusion() {
+        return approximateInclusion;
+    }
+    
+    /**
+     * @param approximateInclusion A value indicating if the Bloom filter
+     * replaces the source A identifier set during the extraction of the source
+     * B identifiers, so that the memory of the set is released. A few source B
+     * records of identifiers not existing in source A will then be saved, in
+     * the rate of the false positives of the filter, which will never be
+     * linked. It has no effect if no Bloom filter parameters are provided.
+     */
+    public void setApproximateInclusion(boolean approximateInclusion) {
+        this.approximateInclusion = approximateInclusion;
+    }
+    
+    /**
+     * @return A value indicating if the records are inserted by queries
+     * restricted to the matched identifiers.
+     */
+    public boolean getPushDownFiltering() {
+        return pushDownFiltering;
+    }
+    
+    /**
+     * @param pushDownFiltering A value indicating if the records are inserted
+     * by queries restricted to the matched identifiers. The identifiers are
+     * kept as retrieved during the extraction, and the extraction queries are
+     * repeated with VALUES blocks containing those of the matched ones, so
+     * that the source repositories only return the records to be inserted.
+     * The extraction queries are used unchanged if too many identifiers have
+     * been matched, if an identifier is a blank node, or if a query cannot be
+     * restricted. It has no effect in the single scan mode.
+     */
+    public void setPushDownFiltering(boolean pushDownFiltering) {
+        this.pushDownFiltering = pushDownFiltering;
+    }
+    
+    /**
+     * @return The number of identifiers contained in the VALUES block of each
+     * restricted query.
+     */
+    public int getValuesBatchSize() {
+        return valuesBatchSize;
+    }
+    
+    /**
+     * @param valuesBatchSize The number of identifiers contained in the VALUES
+     * block of each restricted query.
+     */
+    public void setValuesBatchSize(int valuesBatchSize) {
+        if (valuesBatchSize > 0)
+            this.valuesBatchSize = valuesBatchSize;
+        else
+            this.valuesBatchSize = 1;
+    }
+    
+    /**
+     * @return The maximum ratio of the matched identifiers to the retrieved
+     * records for which the restricted queries are used.
+     */
+    public double getMaxPushDownSelectivity() {
+        return maxPushDownSelectivity;
+    }
+    
+    /**
+     * @param maxPushDownSelectivity The maximum ratio of the matched
+     * identifiers to the records retrieved during the extraction for which the
+     * restricted queries are used. For a greater ratio, the records are
+     * retrieved by the unchanged extraction query, since most of them will be
+     * inserted anyway.
+     */
+    public void setMaxPushDownSelectivity(double maxPushDownSelectivity) {
+        this.maxPushDownSelectivity = maxPushDownSelectivity;
+    }
+    
+    /**
+     * @return The folder of the snapshots of the saved identifiers, or null if
+     * no snapshots are used.
+     */
+    public Path getIdentifierSnapshotPath() {
+        return identifierSnapshotPath;
+    }
+    
+    /**
+     * @param identifierSnapshotPath (Optional) The folder of the snapshots of
+     * the saved identifiers. If provided, the identifiers saved from source B
+     * are kept in a local file for each named graph and identifier type, which
+     * is read instead of the destination repository when only new data are
+     * saved and is updated after each inserted batch. The first extraction
+     * retrieves the identifiers from the repository to create the file.
+     */
+    public void setIdentifierSnapshotPath(Path identifierSnapshotPath) {
+        this.identifierSnapshotPath = identifierSnapshotPath;
+    }
+    
+    /**
+     * @return A value indicating if the snapshot of the saved identifiers is
+     * replaced by the identifiers of the destination repository.
+     */
+    public boolean getRefreshIdentifierSnapshot() {
+        return refreshIdentifierSnapshot;
+    }
+    
+    /**
+     * @param refreshIdentifierSnapshot A value indicating if the snapshot of
+     * the saved identifiers is replaced by the identifiers of the destination
+     * repository during the next extractions, e.g. after the named graph has
+     * been modified by another application or by an extraction saving all the
+     * data.
+     */
+    public void setRefreshIdentifierSnapshot(
+            boolean refreshIdentifierSnapshot) {
+        this.refreshIdentifierSnapshot = refreshIdentifierSnapshot;
+    }
+    
     /**
      * Closes the connection to the source repository providing the subjects
      * of the links and the destination repository where the extracted and
@@ -267,6 +481,12 @@ public class DataExtractor {
         // Repository connection to the source repository providing the objects
         // of the links.
         RepositoryConnection sourceBRepositoryConn = null;
+        // The records retrieved from the source repositories in the single
+        // scan mode.
+        ExtractionSpool sourceASpool = null, sourceBSpool = null;
+        // The identifiers retrieved from the source repositories in the push
+        // down filtering mode.
+        IdentifierTermIndex sourceATermIndex = null, sourceBTermIndex = null;
         
         try {
             String sourceAServerURLString =
@@ -322,39 +542,79 @@ public class DataExtractor {
                     identifier.getIdentifierVariableName(identifierType);
             // A set of identifiers data for which have been saved once.
             Set<String> existingIdentifierSet = null;
+            // (Optional) Keeps the saved identifiers of source B between the
+            // extractions.
+            IdentifierSnapshot identifierSnapshot = null;
             
             if (saveNewDataOnly) {
                 String graphURIString = schema.getDataGraphURIString(
-                        sourceBRepositoryName);        
-                String identifierRetrievalQuery =
-                "PREFIX prop: <" + schema.getPropertyPath() + ">           \n" +
-                "                                                          \n" +
-                "SELECT                                                    \n" +
-                "    *                                                     \n" +
-                "WHERE                                                     \n" +
-                "    {                                                     \n" +
-                "        GRAPH <" + graphURIString + ">                    \n" +
-                "            {?subject prop:" + identifierVariableName +
-                              " ?" + identifierVariableName + " .}         \n" +
-                "    }                                                     \n";
-
-                logger.logMessage("Retrieving " + identifierName + " data of " +
-                        sourceBRepositoryName + " from repository " +
-                        destRepositoryID + "...", MessageCategory.Info);
-                // Retrieves the identifier set data for which have been saved
-                // once.
-                existingIdentifierSet =
-                        getIdentifierSet(identifierRetrievalQuery,
-                        destRepositoryConn, identifierType, false, null);
-                // The set will have a null value in case of an error in the 
-                // getIdentifierSet method.
-                if (existingIdentifierSet == null)
-                    return recordCount;
+                        sourceBRepositoryName);
+                
+                if (identifierSnapshotPath != null) {
+                    identifierSnapshot = new IdentifierSnapshot(
+                            identifierSnapshotPath, graphURIString,
+                            identifierType);
+                    // Unless a refresh has been requested, the identifiers are
+                    // read from the snapshot instead of the repository.
+                    if (!refreshIdentifierSnapshot)
+                        existingIdentifierSet = loadIdentifierSnapshot(
+                                identifierSnapshot, identifierName,
+                                sourceBRepositoryName);
+                }
+                
+                if (existingIdentifierSet == null) {
+                    // Retrieves the identifier set data for which have been
+                    // saved once.
+                    existingIdentifierSet = getSavedIdentifierSet(
+                            graphURIString, identifierType,
+                            sourceBRepositoryName);
+                    // The set will have a null value in case of an error in
+                    // the getSavedIdentifierSet method.
+                    if (existingIdentifierSet == null)
+                        return recordCount;
+                    // The snapshot is replaced by the identifiers of the
+                    // repository.
+                    if (identifierSnapshot != null)
+                        identifierSnapshot = writeIdentifierSnapshot(
+                                identifierSnapshot, existingIdentifierSet);
+                }
 
                 logger.logMessage("\tunique records found : " + String.valueOf(
                         existingIdentifierSet.size()), MessageCategory.Info);
             }
             
+            // The string format data of the sources are compiled once for
+            // both the identifier extraction and the record insertion.
+            StringFormatProgram sourceAStringFormatProgram =
+                    getStringFormatProgram(sourceAStringFormatData);
+            StringFormatProgram sourceBStringFormatProgram =
+                    getStringFormatProgram(sourceBStringFormatData);
+            // In the single scan mode, the records are kept while the
+            // identifiers are extracted, so that they can be saved without
+            // querying the source repositories again.
+            if (singleScan) {
+                try {
+                    sourceASpool = new ExtractionSpool();
+                    sourceBSpool = new ExtractionSpool();
+                }
+                catch (IOException ex) {
+                    logger.logMessage(ex.getMessage(), MessageCategory.Error);
+                    return recordCount;
+                }
+            }
+            // Otherwise, the identifiers can be kept as retrieved, so that
+            // only the records of the matched ones are retrieved again.
+            else if (pushDownFiltering) {
+                try {
+                    sourceATermIndex = new IdentifierTermIndex();
+                    sourceBTermIndex = new IdentifierTermIndex();
+                }
+                catch (IOException ex) {
+                    logger.logMessage(ex.getMessage(), MessageCategory.Error);
+                    return recordCount;
+                }
+            }
+            
             logger.logMessage("Extracting " + identifierName +
                     " data from repository " + sourceARepositoryID + "...",
                     MessageCategory.Info);
@@ -362,9 +622,10 @@ public class DataExtractor {
             // of those retrieved from the destination repository) from the
             // source A repository.
             ExtractionResult extractionResultA = getFormattedIdentifierSet(
-                    sourceAExtractionQuery, sourceARepositoryConn, null,
+                    sourceAExtractionQuery, sourceARepositoryConn, null, null,
                     existingIdentifierSet, identifierType,
-                    sourceAStringFormatData);
+                    sourceAStringFormatProgram, sourceASpool,
+                    sourceATermIndex);
             // The set will have a null value in case of an error in the 
             // getFormattedIdentifierSet method.
             if (extractionResultA == null ||
@@ -374,6 +635,24 @@ public class DataExtractor {
             logger.logMessage("\ttotal unique records found : " +
                     String.valueOf(extractionResultA.getIdentifierSet().size()),
                     MessageCategory.Info);
+            // The source B identifiers must exist in source A.
+            Set<String> inclusionSet = extractionResultA.getIdentifierSet();
+            BloomFilter inclusionFilter = null;
+            
+            if (inclusionBloomFilterParameterData != null) {
+                // Screens the source B identifiers before the set.
+                inclusionFilter =
+                        new BloomFilter(inclusionBloomFilterParameterData);
+                
+                for (String identifierString : inclusionSet)
+                    inclusionFilter.put(identifierString);
+                // The memory of the set is released, since only the filter
+                // will be used.
+                if (approximateInclusion) {
+                    inclusionSet = null;
+                    extractionResultA = null;
+                }
+            }
 
             logger.logMessage("Extracting " + identifierName +
                     " data from repository " + sourceBRepositoryID + "...",
@@ -382,8 +661,9 @@ public class DataExtractor {
             // those that exist in source A) from the source B repository.
             ExtractionResult extractionResultB = getFormattedIdentifierSet(
                     sourceBExtractionQuery, sourceBRepositoryConn,
-                    extractionResultA.getIdentifierSet(), null, identifierType,
-                    sourceBStringFormatData);
+                    inclusionSet, inclusionFilter, null, identifierType,
+                    sourceBStringFormatProgram, sourceBSpool,
+                    sourceBTermIndex);
             // The set will have a null value in case of an error in the
             // getFormattedIdentifierSet method.
             if (extractionResultB == null ||
@@ -400,10 +680,26 @@ public class DataExtractor {
             // Extracts, preprocesses data retrieved from the source A
             // repository based on the provided identifier set, and saves them
             // into the destination repository.
-            int recordCountA = insertExtractedData(identifierSet,
-                    sourceAExtractionQuery, sourceARepositoryName,
-                    sourceARepositoryConn, identifierType,
-                    identifierVariableName, sourceAStringFormatData);
+            int recordCountA;
+            
+            if (sourceASpool != null)
+                recordCountA = insertSpooledData(identifierSet, sourceASpool,
+                        sourceARepositoryName, identifierType,
+                        identifierVariableName, sourceAStringFormatProgram,
+                        null);
+            else if (sourceATermIndex != null)
+                recordCountA = insertRestrictedData(identifierSet,
+                        sourceATermIndex, sourceAExtractionQuery,
+                        sourceARepositoryName, sourceARepositoryConn,
+                        identifierType, identifierVariableName,
+                        sourceAStringFormatProgram, null);
+            else
+                recordCountA = insertExtractedData(identifierSet,
+                        sourceAExtractionQuery, sourceARepositoryName,
+                        sourceARepositoryConn, identifierType,
+                        identifierVariableName, sourceAStringFormatProgram,
+                        null);
+            
             logger.logMessage("\ttotal records saved : " + String.valueOf(
                     recordCountA), MessageCategory.Info);
             
@@ -412,10 +708,26 @@ public class DataExtractor {
             // Extracts, preprocesses data retrieved from the source B
             // repository based on the provided identifier set, and saves them
             // into the destination repository.
-            int recordCountB = insertExtractedData(identifierSet,
-                    sourceBExtractionQuery, sourceBRepositoryName,
-                    sourceBRepositoryConn, identifierType,
-                    identifierVariableName, sourceBStringFormatData);
+            int recordCountB;
+            
+            if (sourceBSpool != null)
+                recordCountB = insertSpooledData(identifierSet, sourceBSpool,
+                        sourceBRepositoryName, identifierType,
+                        identifierVariableName, sourceBStringFormatProgram,
+                        identifierSnapshot);
+            else if (sourceBTermIndex != null)
+                recordCountB = insertRestrictedData(identifierSet,
+                        sourceBTermIndex, sourceBExtractionQuery,
+                        sourceBRepositoryName, sourceBRepositoryConn,
+                        identifierType, identifierVariableName,
+                        sourceBStringFormatProgram, identifierSnapshot);
+            else
+                recordCountB = insertExtractedData(identifierSet,
+                        sourceBExtractionQuery, sourceBRepositoryName,
+                        sourceBRepositoryConn, identifierType,
+                        identifierVariableName, sourceBStringFormatProgram,
+                        identifierSnapshot);
+            
             logger.logMessage("\ttotal records saved : " + String.valueOf(
                     recordCountB), MessageCategory.Info);
             // The number of successfully saved records from the source B
@@ -429,11 +741,112 @@ public class DataExtractor {
             }
             catch (Exception ex) {
             }
+            // Deletes the temporary files of the records.
+            if (sourceASpool != null)
+                sourceASpool.close();
+            
+            if (sourceBSpool != null)
+                sourceBSpool.close();
+            // Deletes the temporary files of the retrieved identifiers.
+            if (sourceATermIndex != null)
+                sourceATermIndex.close();
+            
+            if (sourceBTermIndex != null)
+                sourceBTermIndex.close();
         }
         
         return recordCount;
     }
     
+    /**
+     * Retrieves the identifiers saved in a named graph of the destination
+     * repository.
+     * @param graphURIString The named graph of the identifiers.
+     * @param identifierType The type of the identifiers.
+     * @param repositoryName The name (alias) of the source repository whose
+     * records are saved in the named graph.
+     * @return The saved identifiers, or null in case of an error.
+     */
+    private Set<String> getSavedIdentifierSet(String graphURIString,
+            IdentifierType identifierType, String repositoryName) {
+        Identifier identifier = new Identifier();
+        String identifierName = identifier.getIdentifierName(identifierType);
+        String identifierVariableName =
+                identifier.getIdentifierVariableName(identifierType);
+        String identifierRetrievalQuery =
+        "PREFIX prop: <" + schema.getPropertyPath() + ">           \n" +
+        "                                                          \n" +
+        "SELECT                                                    \n" +
+        "    *                                                     \n" +
+        "WHERE                                                     \n" +
+        "    {                                                     \n" +
+        "        GRAPH <" + graphURIString + ">                    \n" +
+        "            {?subject prop:" + identifierVariableName +
+                      " ?" + identifierVariableName + " .}         \n" +
+        "    }                                                     \n";
+
+        logger.logMessage("Retrieving " + identifierName + " data of " +
+                repositoryName + " from repository " +
+                destRepositoryID + "...", MessageCategory.Info);
+        // Retrieves the identifier set data for which have been saved once.
+        return getIdentifierSet(identifierRetrievalQuery,
+                destRepositoryConn, identifierType, false, null);
+    }
+    
+    /**
+     * Reads the identifiers of a snapshot, logging the errors as warnings so
+     * that the identifiers can be retrieved from the repository instead.
+     * @param identifierSnapshot The snapshot.
+     * @param identifierName The name of the identifier for logging.
+     * @param repositoryName The name (alias) of the source repository whose
+     * records are saved in the named graph of the snapshot.
+     * @return The identifiers, or null if the snapshot cannot be read.
+     */
+    private Set<String> loadIdentifierSnapshot(
+            IdentifierSnapshot identifierSnapshot, String identifierName,
+            String repositoryName) {
+        Set<String> identifierSet = null;
+        
+        logger.logMessage("Reading " + identifierName + " data of " +
+                repositoryName + " from snapshot " +
+                identifierSnapshot.getSnapshotPath() + "...",
+                MessageCategory.Info);
+        
+        try {
+            identifierSet = identifierSnapshot.load();
+            
+            if (identifierSet == null)
+                logger.logMessage("\tno valid snapshot found",
+                        MessageCategory.Info);
+        }
+        catch (IOException ex) {
+            logger.logMessage(ex.getMessage(), MessageCategory.Warning);
+        }
+        
+        return identifierSet;
+    }
+    
+    /**
+     * Replaces the identifiers of a snapshot, logging the errors as warnings
+     * so that the extraction can continue without the snapshot.
+     * @param identifierSnapshot The snapshot.
+     * @param identifierSet The identifiers saved in the named graph of the
+     * snapshot.
+     * @return The snapshot, or null if it cannot be written.
+     */
+    private IdentifierSnapshot writeIdentifierSnapshot(
+            IdentifierSnapshot identifierSnapshot, Set<String> identifierSet) {
+        try {
+            identifierSnapshot.write(identifierSet);
+        }
+        catch (IOException ex) {
+            logger.logMessage(ex.getMessage(), MessageCategory.Warning);
+            return null;
+        }
+        
+        return identifierSnapshot;
+    }
+    
     /**
      * Extracts, preprocesses records from the source repository and inserts
      * them into the destination repository. A record will be omitted from the
@@ -471,9 +884,12 @@ public class DataExtractor {
      * @param identifierType The type of the identifier to be used for the
      * extraction.
      * @param identifierVariableName The variable name for the identifier.
-     * @param stringFormatData (Optional) Extra preprocessing information for
-     * the variable of the identifier, the title and the publication year
-     * contained in each record extracted from the source repository.
+     * @param stringFormatProgram (Optional) Compiled extra preprocessing
+     * information for the variable of the identifier, the title and the
+     * publication year contained in each record extracted from the source
+     * repository.
+     * @param identifierSnapshot (Optional) A snapshot where the identifiers
+     * of the inserted records are appended.
      * @return The count of the inserted records into the destination
      * repository.
      */
@@ -481,20 +897,162 @@ public class DataExtractor {
             String extractionQuery, String repositoryName,
             RepositoryConnection sourceRepositoryConn,
             IdentifierType identifierType, String identifierVariableName,
-            StringFormatData stringFormatData) {
-        int insertCount = 0;
+            StringFormatProgram stringFormatProgram,
+            IdentifierSnapshot identifierSnapshot) {
+        // Preprocesses the records and inserts them in batches.
+        ExtractedDataInserter inserter = new ExtractedDataInserter(
+                repositoryName, identifierType, identifierVariableName,
+                stringFormatProgram, identifierSnapshot);
+        
+        try {
+            insertQueryResult(identifierSet, extractionQuery,
+                    sourceRepositoryConn, identifierType,
+                    identifierVariableName, stringFormatProgram, inserter);
+            // The remaining records will be sent to the repository.
+            inserter.finish();
+        }
+        catch (Exception ex) {
+            logger.logMessage(ex.getMessage(), MessageCategory.Error);
+        }
+        
+        return inserter.getInsertCount();
+    }
+    
+    /**
+     * Extracts, preprocesses records from the source repository by queries
+     * restricted to the matched identifiers and inserts them into the
+     * destination repository. The extraction query is repeated with a VALUES
+     * block for each batch of the matched identifiers, as retrieved during the
+     * extraction of the identifiers. If the ratio of the matched identifiers
+     * is too high, or the extraction query cannot be restricted, the
+     * insertExtractedData method is used instead.
+     * @param identifierSet The set of identifiers necessary for the insertion.
+     * @param termIndex The identifiers retrieved during the extraction.
+     * @param extractionQuery A SPARQL query which will extract the records
+     * from the source repository, as described in the insertExtractedData
+     * method.
+     * @param repositoryName The name (alias) of the source repository from 
+     * where the records will be extracted, preprocessed and saved.
+     * @param sourceRepositoryConn A repository connection to the source
+     * repository from where the records will be extracted, preprocessed and
+     * saved.
+     * @param identifierType The type of the identifier to be used for the
+     * extraction.
+     * @param identifierVariableName The variable name for the identifier.
+     * @param stringFormatProgram (Optional) Compiled extra preprocessing
+     * information for the variable of the identifier, the title and the
+     * publication year contained in each record extracted from the source
+     * repository.
+     * @param identifierSnapshot (Optional) A snapshot where the identifiers
+     * of the inserted records are appended.
+     * @return The count of the inserted records into the destination
+     * repository.
+     */
+    private int insertRestrictedData(Set<String> identifierSet,
+            IdentifierTermIndex termIndex, String extractionQuery,
+            String repositoryName, RepositoryConnection sourceRepositoryConn,
+            IdentifierType identifierType, String identifierVariableName,
+            StringFormatProgram stringFormatProgram,
+            IdentifierSnapshot identifierSnapshot) {
+        // The matched identifiers as retrieved from the source repository.
+        List<String> termList;
+        
+        try {
+            termList = termIndex.getTermList(identifierSet);
+        }
+        catch (IOException ex) {
+            logger.logMessage(ex.getMessage(), MessageCategory.Error);
+            // The records are retrieved by an unrestricted query instead.
+            return insertExtractedData(identifierSet, extractionQuery,
+                    repositoryName, sourceRepositoryConn, identifierType,
+                    identifierVariableName, stringFormatProgram,
+                    identifierSnapshot);
+        }
+        // The restricted query of the first batch, which is checked before any
+        // record is retrieved.
+        String valuesQuery = IdentifierTermIndex.getValuesQuery(
+                extractionQuery, identifierVariableName, termList.subList(0,
+                Math.min(valuesBatchSize, termList.size())));
+        
+        if (!termIndex.getExpressible() || termList.size() >
+                termIndex.getRecordCount() * maxPushDownSelectivity ||
+                !isValidQuery(valuesQuery))
+            return insertExtractedData(identifierSet, extractionQuery,
+                    repositoryName, sourceRepositoryConn, identifierType,
+                    identifierVariableName, stringFormatProgram,
+                    identifierSnapshot);
+        // Preprocesses the records and inserts them in batches.
+        ExtractedDataInserter inserter = new ExtractedDataInserter(
+                repositoryName, identifierType, identifierVariableName,
+                stringFormatProgram, identifierSnapshot);
+        
+        try {
+            for (int i = 0; i < termList.size(); i += valuesBatchSize) {
+                if (i > 0)
+                    valuesQuery = IdentifierTermIndex.getValuesQuery(
+                            extractionQuery, identifierVariableName,
+                            termList.subList(i, Math.min(i + valuesBatchSize,
+                            termList.size())));
+                // The returned identifiers are still formatted and searched in
+                // the identifier set, as in an unrestricted query.
+                insertQueryResult(identifierSet, valuesQuery,
+                        sourceRepositoryConn, identifierType,
+                        identifierVariableName, stringFormatProgram, inserter);
+            }
+            // The remaining records will be sent to the repository.
+            inserter.finish();
+        }
+        catch (Exception ex) {
+            logger.logMessage(ex.getMessage(), MessageCategory.Error);
+        }
+        
+        return inserter.getInsertCount();
+    }
+    
+    /**
+     * Determines if a restricted extraction query can be parsed.
+     * @param query The restricted query, or null if the extraction query
+     * couldn't be restricted.
+     * @return A value indicating if the query can be parsed.
+     */
+    private boolean isValidQuery(String query) {
+        if (query == null)
+            return false;
+        
+        try {
+            QueryParserUtil.parseTupleQuery(QueryLanguage.SPARQL, query, null);
+        }
+        catch (Exception ex) {
+            return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Extracts records from the source repository and adds those of the
+     * identifiers found in a provided identifier set to an inserter.
+     * @param identifierSet The set of identifiers necessary for the insertion.
+     * @param extractionQuery A SPARQL query which will extract the records
+     * from the source repository.
+     * @param sourceRepositoryConn A repository connection to the source
+     * repository.
+     * @param identifierType The type of the identifier.
+     * @param identifierVariableName The variable name for the identifier.
+     * @param stringFormatProgram (Optional) Compiled extra preprocessing
+     * information for the identifier.
+     * @param inserter The inserter of the records.
+     */
+    private void insertQueryResult(Set<String> identifierSet,
+            String extractionQuery, RepositoryConnection sourceRepositoryConn,
+            IdentifierType identifierType, String identifierVariableName,
+            StringFormatProgram stringFormatProgram,
+            ExtractedDataInserter inserter) throws Exception {
         StringOperation stringOperation = new StringOperation();
         BindingSet bindingSet;
         TupleQueryResult queryResult = null;
-        int invalidTitleCount = 0;
-        int invalidYearCount = 0;
-        int logCount = 0;
-        Identifier identifier = new Identifier();
-        // An identifier name for logging.
-        String identifierName = identifier.getIdentifierName(identifierType);
-        String subjectString, identifierString, titleString, yearString;
-        StringFormatResult identifierResult, titleResult, yearResult;
-        Set<ExtractedData> extractedDataSet = new HashSet<>();
+        String identifierString;
+        StringFormatResult identifierResult;
         
         try {
             // Retrieves data from the source repository.
@@ -508,84 +1066,17 @@ public class DataExtractor {
                         identifierVariableName).getValue().stringValue();
                 // Formats the identifier string.
                 identifierResult = stringOperation.formatIdentifier(
-                        identifierString, identifierType, stringFormatData);
+                        identifierString, identifierType, stringFormatProgram);
                 // If the retrieved identifier is invalid or not contained in
                 // the identifier set, then its record will be omitted from 
                 // the insertion.
                 if (!identifierResult.getIsValid() ||
                         !identifierSet.contains(identifierResult.getValue()))
                     continue;
-                // Reads the subject string.
-                subjectString = bindingSet.getBinding("subject").getValue().
-                        stringValue();
-                // Reads the title string.
-                titleString = bindingSet.getBinding("title").getValue().
-                        stringValue();
-                // Since the publication year variable is optional in some cases
-                // it must be checked first for existance.
-                if (bindingSet.getBinding("year") != null)
-                    // Reads the publication year string.
-                    yearString = bindingSet.getBinding("year").getValue().
-                            stringValue();
-                else
-                    yearString = "";
-                
-                if (stringFormatData != null) {
-                    // Extra preprocessing for the title.
-                    titleResult = stringOperation.formatTitle(titleString,
-                            stringFormatData.getTitleReplacementDataList());
-                    // Extra preprocessing for the publication year.
-                    yearResult = stringOperation.formatYear(yearString,
-                            stringFormatData.getYearReplacementDataList());
-                }
-                else {
-                    // Default preprocessing for the title.
-                    titleResult =
-                            stringOperation.formatTitle(titleString, null);
-                    // Default preprocessing for the publication year.
-                    yearResult = stringOperation.formatYear(yearString, null);
-                }
-                
-                if (!yearResult.getIsValid())
-                    invalidYearCount++;
-                
-                if (!titleResult.getIsValid())
-                    invalidTitleCount++;
-                else {
-                    // Adds a record.
-                    extractedDataSet.add(new ExtractedData(subjectString,
-                        identifierResult.getValue(), titleResult.getValue(),
-                        yearResult.getValue()));
-                    // The collected records will be sent to the repository as a
-                    // batch.
-                    if (extractedDataSet.size() >= insertBatchSize) {
-                        insertCount += executeTransaction(extractedDataSet,
-                                identifierVariableName, repositoryName,
-                                destRepositoryConn);
-                        extractedDataSet.clear();
-                        
-                        logCount = logInsertMessage(logCount, insertCount,
-                                identifierName);
-                    }
-                }
+                // Preprocesses and adds the record.
+                inserter.add(getExtractedRecord(bindingSet,
+                        identifierResult.getValue()));
             }
-            // The remaining records will be sent to the repository.
-            if (extractedDataSet.size() > 0) {
-                insertCount += executeTransaction(extractedDataSet, 
-                        identifierVariableName, repositoryName,
-                        destRepositoryConn);
-                extractedDataSet.clear();
-            }
-            
-            if (invalidTitleCount > 0)
-                logger.logMessage("\tinvalid title count : " + String.valueOf(
-                        invalidTitleCount), MessageCategory.Info);
-            if (invalidYearCount > 0)
-                logger.logMessage("\tinvalid year count : " + String.valueOf(
-                        invalidYearCount), MessageCategory.Info);
-        }
-        catch (Exception ex) {
-            logger.logMessage(ex.getMessage(), MessageCategory.Error);
         }
         finally {
             if (queryResult != null) {
@@ -596,8 +1087,83 @@ public class DataExtractor {
                 }
             }
         }
+    }
+    
+    /**
+     * Preprocesses records kept in a temporary file during the extraction of
+     * the identifiers and inserts them into the destination repository. A
+     * record will be omitted from the insertion if its identifier is not found
+     * in a provided identifier set.
+     * @param identifierSet A set containing the identifiers of the records
+     * that will be inserted into the destination repository.
+     * @param spool The records kept during the extraction of the identifiers.
+     * @param repositoryName The name (alias) of the source repository from 
+     * where the records have been extracted.
+     * @param identifierType The type of the identifier of the records.
+     * @param identifierVariableName The variable name for the identifier.
+     * @param stringFormatProgram (Optional) Compiled extra preprocessing
+     * information for the title and the publication year of the records.
+     * @param identifierSnapshot (Optional) A snapshot where the identifiers
+     * of the inserted records are appended.
+     * @return The count of the inserted records into the destination
+     * repository.
+     */
+    private int insertSpooledData(Set<String> identifierSet,
+            ExtractionSpool spool, String repositoryName,
+            IdentifierType identifierType, String identifierVariableName,
+            StringFormatProgram stringFormatProgram,
+            IdentifierSnapshot identifierSnapshot) {
+        ExtractedData record;
+        // Preprocesses the records and inserts them in batches.
+        ExtractedDataInserter inserter = new ExtractedDataInserter(
+                repositoryName, identifierType, identifierVariableName,
+                stringFormatProgram, identifierSnapshot);
+        
+        try {
+            spool.rewind();
+            
+            while ((record = spool.next()) != null) {
+                // The identifiers of the kept records are already formatted
+                // and valid.
+                if (identifierSet.contains(record.getIdentifier()))
+                    inserter.add(record);
+            }
+            // The remaining records will be sent to the repository.
+            inserter.finish();
+        }
+        catch (Exception ex) {
+            logger.logMessage(ex.getMessage(), MessageCategory.Error);
+        }
+        
+        return inserter.getInsertCount();
+    }
+    
+    /**
+     * Reads a record retrieved from a source repository.
+     * @param bindingSet The binding set of the record.
+     * @param identifierString The formatted identifier of the record.
+     * @return The record, containing the formatted identifier and the title
+     * and the publication year as retrieved from the source repository.
+     */
+    private ExtractedData getExtractedRecord(BindingSet bindingSet,
+            String identifierString) {
+        String subjectString, titleString, yearString;
+        // Reads the subject string.
+        subjectString = bindingSet.getBinding("subject").getValue().
+                stringValue();
+        // Reads the title string.
+        titleString = bindingSet.getBinding("title").getValue().stringValue();
+        // Since the publication year variable is optional in some cases it
+        // must be checked first for existance.
+        if (bindingSet.getBinding("year") != null)
+            // Reads the publication year string.
+            yearString = bindingSet.getBinding("year").getValue().
+                    stringValue();
+        else
+            yearString = "";
         
-        return insertCount;
+        return new ExtractedData(subjectString, identifierString, titleString,
+                yearString);
     }
     
     /**
@@ -612,6 +1178,8 @@ public class DataExtractor {
      * where the extracted and preprocessed data will be sent.
      * @param schema Provides structure for the saved data.
      * @return The count of the saved records.
+     * @throws RepositoryException If the batch couldn't be saved, in which
+     * case none of its records have been saved.
      */
     private int executeTransaction(Set<ExtractedData> extractedDataSet,
             String identifierVariableName, String repositoryName,
@@ -673,15 +1241,20 @@ public class DataExtractor {
                 }
             }
             
+            // Commits the transation.
+            destRepositoryConn.commit();
             recordCount = extractedDataSet.size();
         }
-        finally {
+        catch (RepositoryException | RuntimeException ex) {
             try {
-                // Commits the transation.
-                destRepositoryConn.commit();
+                // Discards the records of the failed transaction.
+                if (destRepositoryConn.isActive())
+                    destRepositoryConn.rollback();
             }
-            catch (Exception ex) {
+            catch (RepositoryException rollbackEx) {
             }
+            
+            throw ex;
         }
         
         return recordCount;
@@ -744,6 +1317,9 @@ public class DataExtractor {
         String identifierName = identifier.getIdentifierName(identifierType);
         String identifierVariableName = identifier.
                 getIdentifierVariableName(identifierType);
+        // The string format data are compiled once for all the identifiers.
+        StringFormatProgram stringFormatProgram = formatIdentifier ?
+                getStringFormatProgram(stringFormatData) : null;
         
         try {
             // Retrieves data from the source repository.
@@ -752,7 +1328,7 @@ public class DataExtractor {
             // Initializes the identifier set that will be returned. In case of
             // an error during the retrieval from the repository, a null value
             // must be returned.
-            identifierSet = new HashSet<>();
+            identifierSet = IdentifierSet.create(identifierType);
             
             while (queryResult.hasNext()) {
                 bindingSet = queryResult.next();
@@ -763,7 +1339,8 @@ public class DataExtractor {
                 if (formatIdentifier) {
                     // Formats the identifier string.
                     identifierResult = stringOperation.formatIdentifier(
-                            identifierString, identifierType, stringFormatData);
+                            identifierString, identifierType,
+                            stringFormatProgram);
                     // Only valid identifiers can be used after formatting.
                     if (identifierResult.getIsValid())
                         identifierSet.add(identifierResult.getValue());
@@ -827,66 +1404,136 @@ public class DataExtractor {
             RepositoryConnection sourceRepositoryConn, Set<String> inclusionSet,
             Set<String> exclusionSet, IdentifierType identifierType,
             StringFormatData stringFormatData) {
+        return getFormattedIdentifierSet(extractionQuery, sourceRepositoryConn,
+                inclusionSet, exclusionSet, identifierType,
+                getStringFormatProgram(stringFormatData));
+    }
+    
+    /**
+     * Gets an extraction result which contains a formatted identifier set and 
+     * a count for the invalid identifiers encountered during the extraction
+     * of data from the source repository.
+     * The formatted identifier set can be narrowed by an exclusion set and be
+     * controlled by an inclusion set regarding its content.
+     * @param extractionQuery A SPARQL query which will extract the identifiers
+     * from the source repository. Its select clause must contain a variable
+     * with the name of the identifier, e.g. ?isbn. The variable names for the
+     * identifiers can be retrieved by using the getIdentifierVariableName
+     * method of the Identifier class.
+     * @param sourceRepositoryConn A repository connection to the source
+     * repository from where the identifiers will be extracted and preprocessed.
+     * @param inclusionSet (Optional) A set of identifiers which will control
+     * the content of the result set. Only identifiers retrieved by the
+     * extractionQuery that exist in this set can be added to the result set.
+     * @param exclusionSet (Optional) A set of identifiers which will narrow the
+     * content of the result set. The identifiers retrieved by the
+     * extractionQuery that exist in this set will be omitted from the result
+     * set.
+     * @param identifierType The type of the identifier to be extracted.
+     * @param stringFormatProgram (Optional) Extra preprocessing information,
+     * compiled by the getStringFormatProgram method, for the identifiers
+     * extracted from the source repository.
+     * @return An extraction result which contains a formatted identifier set
+     * and a count for the invalid identifiers encountered.
+     */ 
+    public ExtractionResult getFormattedIdentifierSet(String extractionQuery,
+            RepositoryConnection sourceRepositoryConn, Set<String> inclusionSet,
+            Set<String> exclusionSet, IdentifierType identifierType,
+            StringFormatProgram stringFormatProgram) {
+        return getFormattedIdentifierSet(extractionQuery, sourceRepositoryConn,
+                inclusionSet, null, exclusionSet, identifierType,
+                stringFormatProgram, null, null);
+    }
+    
+    /**
+     * Gets an extraction result which contains a formatted identifier set and 
+     * a count for the invalid identifiers encountered during the extraction
+     * of data from the source repository, optionally keeping the records of
+     * the identifiers included in the set.
+     * @param extractionQuery A SPARQL query which will extract the identifiers
+     * from the source repository.
+     * @param sourceRepositoryConn A repository connection to the source
+     * repository from where the identifiers will be extracted and preprocessed.
+     * @param inclusionSet (Optional) A set of identifiers which will control
+     * the content of the result set.
+     * @param inclusionFilter (Optional) A Bloom filter of the identifiers of
+     * the inclusion set, which screens the identifiers before they are
+     * searched in the set. If no inclusion set is provided, the identifiers
+     * passing the filter are included in the result set.
+     * @param exclusionSet (Optional) A set of identifiers which will narrow the
+     * content of the result set.
+     * @param identifierType The type of the identifier to be extracted.
+     * @param stringFormatProgram (Optional) Compiled extra preprocessing
+     * information for the identifiers.
+     * @param spool (Optional) Keeps the records of the valid identifiers
+     * included in the result set. Its extraction query must also select the
+     * variables of the insertExtractedData method. All the records are
+     * retrieved, even if the identifiers of the inclusion set have all been
+     * found.
+     * @param termIndex (Optional) Keeps the valid identifiers included in the
+     * result set as retrieved, for the restriction of the queries inserting
+     * their records. All the identifiers are retrieved, even if the
+     * identifiers of the inclusion set have all been found.
+     * @return An extraction result which contains a formatted identifier set
+     * and a count for the invalid identifiers encountered.
+     */ 
+    private ExtractionResult getFormattedIdentifierSet(String extractionQuery,
+            RepositoryConnection sourceRepositoryConn, Set<String> inclusionSet,
+            BloomFilter inclusionFilter, Set<String> exclusionSet,
+            IdentifierType identifierType,
+            StringFormatProgram stringFormatProgram, ExtractionSpool spool,
+            IdentifierTermIndex termIndex) {
         ExtractionResult extractionResult = null;
-        Set<String> identifierSet = new HashSet<>();
-        int invalidIdentifierCount = 0;
         BindingSet bindingSet;
         TupleQueryResult queryResult = null;
         String identifierString;
         StringOperation stringOperation = new StringOperation();
         StringFormatResult identifierResult;
-        // Indicates if data have been retrieved from the source repository.
-        boolean dataExist = false;
-        int extractedCount = 0;
         Identifier identifier = new Identifier();
         String identifierName = identifier.getIdentifierName(identifierType);
         String identifierVariableName = identifier.getIdentifierVariableName(
                 identifierType);
+        // Collects the formatted identifiers in the order of their retrieval.
+        FormattedIdentifierCollector collector =
+                new FormattedIdentifierCollector(inclusionSet, inclusionFilter,
+                exclusionSet, identifierType, spool, termIndex);
         
         try {
             // Retrieves data from the source repository.
             queryResult = sourceRepositoryConn.prepareTupleQuery(
                     QueryLanguage.SPARQL, extractionQuery).evaluate();
             
-            while (queryResult.hasNext()) {
-                bindingSet = queryResult.next();
-                // Data have been retrieved from the source repository.
-                dataExist = true;
-                extractedCount++;
-                
-                if (extractedCount % extractMessageRecords == 0)
-                    logExtractMessage(extractedCount, identifierName);
-                // Reads the identifier string.
-                identifierString = bindingSet.getBinding(
-                        identifierVariableName).getValue().stringValue();
-                // Formats the identifier string.
-                identifierResult = stringOperation.formatIdentifier(
-                        identifierString, identifierType, stringFormatData);
-                // If an inclusion set is provided and it doesn't contain the
-                // formatted identifier, then the formatted identifier will not
-                // be included in the result set.
-                if (inclusionSet != null && !inclusionSet.contains(
-                        identifierResult.getValue()))
-                    continue;
-                // If an exclusion set is provided and it contains the formatted
-                // identifier, then the formatted identifier will not be
-                // included in the result set.
-                if (exclusionSet != null && exclusionSet.contains(
-                        identifierResult.getValue()))
-                    continue;
-                // Only valid identifiers can be used after formatting
-                if (identifierResult.getIsValid()) {
-                    identifierSet.add(identifierResult.getValue());
-                    // If an inclusion set is provided and all of its
-                    // identifiers exist in the result set, then no more data
-                    // will be needed from the source repository.
-                    if (inclusionSet != null && inclusionSet.size() > 0 &&
-                            inclusionSet.size() == identifierSet.size())
+            if (formatParallelism > 1)
+                // Formats the identifiers in parallel batches.
+                collectFormattedIdentifiersParallel(queryResult,
+                        identifierVariableName, identifierType,
+                        stringFormatProgram, collector);
+            else {
+                while (queryResult.hasNext()) {
+                    bindingSet = queryResult.next();
+                    // Reads the identifier string.
+                    identifierString = bindingSet.getBinding(
+                            identifierVariableName).getValue().stringValue();
+                    // Formats the identifier string.
+                    identifierResult = stringOperation.formatIdentifier(
+                            identifierString, identifierType,
+                            stringFormatProgram);
+                    // Excluded identifiers are only counted.
+                    if (!collector.isIncluded(identifierResult))
+                        identifierResult = null;
+                    // Adds the formatted identifier, unless all the
+                    // identifiers of the inclusion set have been found.
+                    if (!collector.add(identifierResult,
+                            collector.getRecord(bindingSet, identifierResult),
+                            collector.getIdentifierValue(bindingSet,
+                            identifierVariableName, identifierResult)))
                         break;
                 }
-                else
-                    invalidIdentifierCount++;
             }
+            
+            Set<String> identifierSet = collector.getIdentifierSet();
+            int invalidIdentifierCount = collector.getInvalidIdentifierCount();
+            int extractedCount = collector.getExtractedCount();
             // Creates the result to be returned.
             extractionResult = new ExtractionResult(identifierSet,
                     invalidIdentifierCount);
@@ -901,7 +1548,8 @@ public class DataExtractor {
                         MessageCategory.Info);
             
             if (extractionResult.getIdentifierSet().isEmpty()) {
-                if (dataExist)
+                // Data have been retrieved from the source repository.
+                if (extractedCount > 0)
                     logger.logMessage("\tno new " + identifierName +
                             " records found", MessageCategory.Info);
                 else
@@ -1041,6 +1689,493 @@ public class DataExtractor {
         return parameterMissing;
     }
     
+    /**
+     * Formats the identifiers of a query result in parallel. The retrieved
+     * identifiers are formatted in batches by a pool of formatParallelism
+     * threads, while the formatted batches are added to the collector in the
+     * order of their retrieval, so that the result is the same as that of a
+     * serial formatting.
+     * @param queryResult The query result containing the identifiers.
+     * @param identifierVariableName The variable name for the identifier.
+     * @param identifierType The type of the identifier.
+     * @param stringFormatProgram (Optional) Extra preprocessing information for
+     * the identifiers.
+     * @param collector The collector of the formatted identifiers.
+     */
+    private void collectFormattedIdentifiersParallel(
+            TupleQueryResult queryResult, String identifierVariableName,
+            IdentifierType identifierType,
+            StringFormatProgram stringFormatProgram,
+            FormattedIdentifierCollector collector) throws Exception {
+        ForkJoinPool forkJoinPool = new ForkJoinPool(formatParallelism);
+        // The batches being formatted, in the order of their retrieval.
+        Deque<ForkJoinTask<FormattedBatch>> taskQueue = new ArrayDeque<>();
+        List<BindingSet> bindingSetBatch = new ArrayList<>(FORMAT_BATCH_SIZE);
+        // Indicates if all the identifiers of the inclusion set have been
+        // found.
+        boolean complete = false;
+        
+        try {
+            while (!complete && queryResult.hasNext()) {
+                bindingSetBatch.add(queryResult.next());
+                
+                if (bindingSetBatch.size() < FORMAT_BATCH_SIZE &&
+                        queryResult.hasNext())
+                    continue;
+                
+                final List<BindingSet> batch = bindingSetBatch;
+                // Formats the batch in the pool.
+                taskQueue.add(forkJoinPool.submit(() -> formatIdentifierBatch(
+                        batch, identifierVariableName, identifierType,
+                        stringFormatProgram, collector)));
+                bindingSetBatch = new ArrayList<>(FORMAT_BATCH_SIZE);
+                // The number of the batches waiting in memory is limited by
+                // adding the oldest one before the next retrieval.
+                if (taskQueue.size() > formatParallelism * 2)
+                    complete = !addFormattedBatch(taskQueue.poll(), collector);
+            }
+            
+            while (!complete && !taskQueue.isEmpty())
+                complete = !addFormattedBatch(taskQueue.poll(), collector);
+        }
+        finally {
+            forkJoinPool.shutdownNow();
+        }
+    }
+    
+    /**
+     * Formats a batch of identifiers.
+     * @param bindingSetBatch The binding sets of the identifiers.
+     * @param identifierVariableName The variable name for the identifier.
+     * @param identifierType The type of the identifiers.
+     * @param stringFormatProgram (Optional) Extra preprocessing information for
+     * the identifiers.
+     * @param collector The collector deciding which identifiers are included.
+     * @return The formatted batch.
+     */
+    private FormattedBatch formatIdentifierBatch(
+            List<BindingSet> bindingSetBatch, String identifierVariableName,
+            IdentifierType identifierType,
+            StringFormatProgram stringFormatProgram,
+            FormattedIdentifierCollector collector) {
+        StringOperation stringOperation = new StringOperation();
+        FormattedBatch formattedBatch =
+                new FormattedBatch(bindingSetBatch.size());
+        StringFormatResult identifierResult;
+        BindingSet bindingSet;
+        
+        for (int i = 0; i < bindingSetBatch.size(); i++) {
+            bindingSet = bindingSetBatch.get(i);
+            // Formats the identifier string.
+            identifierResult = stringOperation.formatIdentifier(
+                    bindingSet.getBinding(identifierVariableName).getValue().
+                    stringValue(), identifierType, stringFormatProgram);
+            // Excluded identifiers are only counted.
+            if (!collector.isIncluded(identifierResult))
+                continue;
+            
+            formattedBatch.identifierResults[i] = identifierResult;
+            formattedBatch.records[i] =
+                    collector.getRecord(bindingSet, identifierResult);
+            formattedBatch.identifierValues[i] = collector.getIdentifierValue(
+                    bindingSet, identifierVariableName, identifierResult);
+        }
+        
+        return formattedBatch;
+    }
+    
+    /**
+     * Waits for a batch to be formatted and adds its identifiers to the
+     * collector.
+     * @param task The task formatting the batch.
+     * @param collector The collector of the formatted identifiers.
+     * @return False if all the identifiers of the inclusion set have been
+     * found, otherwise true.
+     */
+    private boolean addFormattedBatch(ForkJoinTask<FormattedBatch> task,
+            FormattedIdentifierCollector collector) throws Exception {
+        FormattedBatch formattedBatch;
+        
+        try {
+            formattedBatch = task.get();
+        }
+        catch (ExecutionException ex) {
+            // The error of the formatting is reported as in a serial
+            // formatting.
+            if (ex.getCause() instanceof Exception)
+                throw (Exception)ex.getCause();
+            
+            throw ex;
+        }
+        
+        for (int i = 0; i < formattedBatch.identifierResults.length; i++) {
+            if (!collector.add(formattedBatch.identifierResults[i],
+                    formattedBatch.records[i],
+                    formattedBatch.identifierValues[i]))
+                return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * The formatted identifiers of a batch, in the order of their retrieval.
+     */
+    private static class FormattedBatch {
+        // The formatted identifiers, with null values for those excluded from
+        // the result.
+        private final StringFormatResult[] identifierResults;
+        // The records to be kept, with null values for those not kept.
+        private final ExtractedData[] records;
+        // The retrieved identifiers to be kept, with null values for those not
+        // kept.
+        private final Value[] identifierValues;
+        
+        public FormattedBatch(int size) {
+            identifierResults = new StringFormatResult[size];
+            records = new ExtractedData[size];
+            identifierValues = new Value[size];
+        }
+    }
+    
+    /**
+     * Preprocesses the titles and the publication years of extracted records
+     * and inserts the records into the destination repository in batches.
+     */
+    private class ExtractedDataInserter {
+        private final StringOperation stringOperation = new StringOperation();
+        // The name (alias) of the source repository of the records.
+        private final String repositoryName;
+        private final String identifierVariableName;
+        // An identifier name for logging.
+        private final String identifierName;
+        // The string replacements of the title and the publication year, or
+        // null if only the default preprocessing will occur.
+        private StringReplacementProgram titleProgram = null;
+        private StringReplacementProgram yearProgram = null;
+        // (Optional) Keeps the identifiers of the inserted records.
+        private IdentifierSnapshot identifierSnapshot;
+        private final Set<ExtractedData> extractedDataSet = new HashSet<>();
+        private int insertCount = 0;
+        private int invalidTitleCount = 0;
+        private int invalidYearCount = 0;
+        private int logCount = 0;
+        
+        /**
+         * @param repositoryName The name (alias) of the source repository of
+         * the records.
+         * @param identifierType The type of the identifier of the records.
+         * @param identifierVariableName The variable name for the identifier.
+         * @param stringFormatProgram (Optional) Compiled extra preprocessing
+         * information for the title and the publication year.
+         * @param identifierSnapshot (Optional) A snapshot where the
+         * identifiers of the inserted records are appended after each batch.
+         */
+        public ExtractedDataInserter(String repositoryName,
+                IdentifierType identifierType, String identifierVariableName,
+                StringFormatProgram stringFormatProgram,
+                IdentifierSnapshot identifierSnapshot) {
+            this.repositoryName = repositoryName;
+            this.identifierSnapshot = identifierSnapshot;
+            this.identifierVariableName = identifierVariableName;
+            identifierName = new Identifier().getIdentifierName(identifierType);
+            
+            if (stringFormatProgram != null) {
+                titleProgram = stringFormatProgram.getTitleProgram();
+                yearProgram = stringFormatProgram.getYearProgram();
+            }
+        }
+        
+        /**
+         * Preprocesses a record and adds it to the current batch.
+         * @param record The record, containing the formatted identifier and
+         * the title and the publication year as retrieved from the source
+         * repository.
+         */
+        public void add(ExtractedData record) throws RepositoryException {
+            // Preprocessing for the title.
+            StringFormatResult titleResult = stringOperation.formatTitle(
+                    record.getTitle(), titleProgram);
+            // Preprocessing for the publication year.
+            StringFormatResult yearResult = stringOperation.formatYear(
+                    record.getYear(), yearProgram);
+            
+            if (!yearResult.getIsValid())
+                invalidYearCount++;
+            
+            if (!titleResult.getIsValid()) {
+                invalidTitleCount++;
+                return;
+            }
+            // Adds a record.
+            extractedDataSet.add(new ExtractedData(record.getSubject(),
+                    record.getIdentifier(), titleResult.getValue(),
+                    yearResult.getValue()));
+            // The collected records will be sent to the repository as a batch.
+            if (extractedDataSet.size() >= insertBatchSize) {
+                insertCount += executeTransaction(extractedDataSet,
+                        identifierVariableName, repositoryName,
+                        destRepositoryConn);
+                appendToSnapshot();
+                extractedDataSet.clear();
+                
+                logCount = logInsertMessage(logCount, insertCount,
+                        identifierName);
+            }
+        }
+        
+        /**
+         * Inserts the remaining records and logs the invalid titles and
+         * publication years.
+         */
+        public void finish() throws RepositoryException {
+            // The remaining records will be sent to the repository.
+            if (extractedDataSet.size() > 0) {
+                insertCount += executeTransaction(extractedDataSet, 
+                        identifierVariableName, repositoryName,
+                        destRepositoryConn);
+                appendToSnapshot();
+                extractedDataSet.clear();
+            }
+            
+            if (invalidTitleCount > 0)
+                logger.logMessage("\tinvalid title count : " + String.valueOf(
+                        invalidTitleCount), MessageCategory.Info);
+            if (invalidYearCount > 0)
+                logger.logMessage("\tinvalid year count : " + String.valueOf(
+                        invalidYearCount), MessageCategory.Info);
+        }
+        
+        /**
+         * @return The count of the inserted records.
+         */
+        public int getInsertCount() {
+            return insertCount;
+        }
+        
+        /**
+         * Appends the identifiers of the inserted batch to the snapshot. It
+         * must be called only after the batch has been committed. If
+         * the snapshot cannot be written, the insertion continues without it,
+         * since a snapshot missing identifiers only causes their records to
+         * be saved again.
+         */
+        private void appendToSnapshot() {
+            if (identifierSnapshot == null)
+                return;
+            
+            List<String> identifierList =
+                    new ArrayList<>(extractedDataSet.size());
+            
+            for (ExtractedData extractedData : extractedDataSet)
+                identifierList.add(extractedData.getIdentifier());
+            
+            try {
+                identifierSnapshot.append(identifierList);
+            }
+            catch (IOException ex) {
+                logger.logMessage(ex.getMessage(), MessageCategory.Warning);
+                identifierSnapshot = null;
+            }
+        }
+    }
+    
+    /**
+     * Collects the formatted identifiers of an extraction in the order of
+     * their retrieval and counts the invalid ones.
+     */
+    private class FormattedIdentifierCollector {
+        private final Set<String> inclusionSet;
+        // (Optional) Screens the identifiers before the inclusion set.
+        private final BloomFilter inclusionFilter;
+        private final Set<String> exclusionSet;
+        // The name of the identifier for logging.
+        private final String identifierName;
+        // (Optional) Keeps the records of the included valid identifiers.
+        private final ExtractionSpool spool;
+        // (Optional) Keeps the included valid identifiers as retrieved.
+        private final IdentifierTermIndex termIndex;
+        private final Set<String> identifierSet;
+        private int invalidIdentifierCount = 0;
+        private int extractedCount = 0;
+        
+        /**
+         * @param inclusionSet (Optional) A set of identifiers which will
+         * control the content of the result set.
+         * @param inclusionFilter (Optional) A Bloom filter of the identifiers
+         * of the inclusion set, or of the included identifiers if no inclusion
+         * set is provided.
+         * @param exclusionSet (Optional) A set of identifiers which will narrow
+         * the content of the result set.
+         * @param identifierType The type of the identifiers.
+         * @param spool (Optional) Keeps the records of the included valid
+         * identifiers, in which case all the identifiers are retrieved.
+         * @param termIndex (Optional) Keeps the included valid identifiers as
+         * retrieved, in which case all the identifiers are retrieved.
+         */
+        public FormattedIdentifierCollector(Set<String> inclusionSet,
+                BloomFilter inclusionFilter, Set<String> exclusionSet,
+                IdentifierType identifierType, ExtractionSpool spool,
+                IdentifierTermIndex termIndex) {
+            this.inclusionSet = inclusionSet;
+            this.inclusionFilter = inclusionFilter;
+            this.exclusionSet = exclusionSet;
+            this.identifierName =
+                    new Identifier().getIdentifierName(identifierType);
+            this.spool = spool;
+            this.termIndex = termIndex;
+            // A compact set suitable for the identifier type.
+            identifierSet = IdentifierSet.create(identifierType);
+        }
+        
+        /**
+         * Reads the record of an identifier if it must be kept. It can be
+         * called by more than one thread.
+         * @param bindingSet The binding set of the identifier.
+         * @param identifierResult The formatted identifier, or null if it
+         * isn't included in the result set.
+         * @return The record, or null if it must not be kept.
+         */
+        public ExtractedData getRecord(BindingSet bindingSet,
+                StringFormatResult identifierResult) {
+            if (spool == null || identifierResult == null ||
+                    !identifierResult.getIsValid())
+                return null;
+            
+            return getExtractedRecord(bindingSet, identifierResult.getValue());
+        }
+        
+        /**
+         * Reads the retrieved value of an identifier if it must be kept. It
+         * can be called by more than one thread.
+         * @param bindingSet The binding set of the identifier.
+         * @param identifierVariableName The variable name for the identifier.
+         * @param identifierResult The formatted identifier, or null if it
+         * isn't included in the result set.
+         * @return The retrieved value, or null if it must not be kept.
+         */
+        public Value getIdentifierValue(BindingSet bindingSet,
+                String identifierVariableName,
+                StringFormatResult identifierResult) {
+            if (termIndex == null || identifierResult == null ||
+                    !identifierResult.getIsValid())
+                return null;
+            
+            return bindingSet.getBinding(identifierVariableName).getValue();
+        }
+        
+        /**
+         * Determines if a formatted identifier can be included in the result
+         * set. It can be called by more than one thread, since the inclusion
+         * and the exclusion sets are only read.
+         * @param identifierResult The formatted identifier.
+         * @return A value indicating if the identifier can be included.
+         */
+        public boolean isIncluded(StringFormatResult identifierResult) {
+            // Most of the identifiers not contained in the inclusion set are
+            // rejected by the filter without searching the set.
+            if (inclusionFilter != null && !inclusionFilter.mightContain(
+                    identifierResult.getValue()))
+                return false;
+            // If an inclusion set is provided and it doesn't contain the
+            // formatted identifier, then the formatted identifier will not be
+            // included in the result set.
+            if (inclusionSet != null && !inclusionSet.contains(
+                    identifierResult.getValue()))
+                return false;
+            // If an exclusion set is provided and it contains the formatted
+            // identifier, then the formatted identifier will not be included in
+            // the result set.
+            return !(exclusionSet != null && exclusionSet.contains(
+                    identifierResult.getValue()));
+        }
+        
+        /**
+         * Adds the next retrieved identifier.
+         * @param identifierResult The formatted identifier, or null if it
+         * isn't included in the result set.
+         * @param record The record to be kept, or null if it must not be kept.
+         * @param identifierValue The retrieved value of the identifier to be
+         * kept, or null if it must not be kept.
+         * @return False if all the identifiers of the inclusion set have been
+         * found, so that no more data are needed, otherwise true.
+         */
+        public boolean add(StringFormatResult identifierResult,
+                ExtractedData record, Value identifierValue)
+                throws IOException {
+            extractedCount++;
+            
+            if (extractedCount % extractMessageRecords == 0)
+                logExtractMessage(extractedCount, identifierName);
+            // The retrieved records are counted by the index, so that the
+            // ratio of the matched identifiers can be calculated.
+            if (termIndex != null)
+                termIndex.add(identifierValue, (identifierValue != null) ?
+                        identifierResult.getValue() : null);
+            
+            if (identifierResult == null)
+                return true;
+            // Only valid identifiers can be used after formatting
+            if (identifierResult.getIsValid()) {
+                identifierSet.add(identifierResult.getValue());
+                
+                if (record != null)
+                    spool.add(record);
+                // If an inclusion set is provided and all of its identifiers
+                // exist in the result set, then no more data will be needed
+                // from the source repository, unless the records or the
+                // retrieved identifiers are kept.
+                return !(spool == null && termIndex == null &&
+                        inclusionSet != null &&
+                        inclusionSet.size() > 0 &&
+                        inclusionSet.size() == identifierSet.size());
+            }
+            
+            invalidIdentifierCount++;
+            
+            return true;
+        }
+        
+        public Set<String> getIdentifierSet() {
+            return identifierSet;
+        }
+        
+        public int getInvalidIdentifierCount() {
+            return invalidIdentifierCount;
+        }
+        
+        /**
+         * @return The number of the identifiers retrieved from the source
+         * repository.
+         */
+        public int getExtractedCount() {
+            return extractedCount;
+        }
+    }
+    
+    /**
+     * Compiles the string format data, so that their regular expressions are
+     * parsed once for all the extracted records. The rejected replacements are
+     * logged as warnings and will be skipped during the preprocessing.
+     * @param stringFormatData (Optional) The string format data to be
+     * compiled.
+     * @return The compiled string format data, or null if no string format
+     * data have been provided.
+     */
+    public StringFormatProgram getStringFormatProgram(
+            StringFormatData stringFormatData) {
+        if (stringFormatData == null)
+            return null;
+        
+        StringFormatProgram stringFormatProgram =
+                new StringFormatProgram(stringFormatData);
+        
+        for (String message : stringFormatProgram.getInvalidRuleMessageList())
+            logger.logMessage("The " + message, MessageCategory.Warning);
+        
+        return stringFormatProgram;
+    }
+    
     /**
      * Logs a message during the extraction.
      * @param extractedCount The number of records that have been extracted.
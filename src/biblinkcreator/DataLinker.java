@@ -23,10 +23,12 @@ import biblinkcreator.Identifier.*;
 import biblinkcreator.DataStructure.*;
 import java.io.*;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
 import org.json.JSONObject;
-import org.apache.commons.io.FileUtils;
 import org.openrdf.model.*;
 import org.openrdf.query.*;
 import org.openrdf.repository.*;
@@ -39,6 +41,27 @@ import org.openrdf.repository.http.HTTPRepository;
  * @author David Nazarian
  */
 public class DataLinker {
+    /**
+     * An enumeration for the places where the records of the link source and
+     * destination named graphs are joined on their identifiers.
+     */
+    public enum JoinType {
+        // The named graphs are joined by a SPARQL query of the repository.
+        Quadstore,
+        // Each named graph is retrieved once and the smaller one is indexed
+        // in memory and probed with the records of the other one.
+        Hash,
+        // Each named graph is retrieved once, sorted on disk by its
+        // identifiers and the two sorted named graphs are merged.
+        SortMerge
+    }
+    
+    // The number of link candidates passed between the threads of the parallel
+    // link creation at once.
+    private static final int PIPELINE_BATCH_SIZE = 256;
+    // Marks the end of the items of a queue of the parallel link creation.
+    private static final List<LinkCandidateData> END_OF_QUEUE =
+            new ArrayList<>();
     // Number of created links needed for a message to be logged during the
     // link creation.
     private int linkMessageRecords = 5000;
@@ -47,16 +70,42 @@ public class DataLinker {
             new DownloadParameterData(2000, 2000, 20);
     // The number of consecutive errors occured during doi.org URL resolving.
     private int consecutiveErrors = 0;
+    // Sends the requests of the doi.org URL resolving through persistent
+    // connections.
+    private HTTPTransport httpTransport = new HTTPTransport();
+    // Indicates if the HTTP transport has been provided, so that it must not
+    // be closed along with the linker.
+    private boolean httpTransportProvided = false;
     // The number of created links to be batch inserted.
     private int insertBatchSize = 5000;
+    // The number of title shingle profiles to be kept in memory during the
+    // link creation, so that the titles are not segmented for every compared
+    // pair.
+    private int shingleProfileCacheSize = 50000;
+    // (Optional) The parameters of the MinHash candidate generation for the
+    // category-B identifiers. If it isn't set, every pair of records sharing
+    // an identifier and a year is compared.
+    private MinHashParameterData minHashParameterData = null;
+    // The number of threads comparing the titles and years of the category-A
+    // identified data. If it is greater than 1, the retrieval, the comparisons
+    // and the insertion of the links run in parallel.
+    private int linkParallelism = 1;
+    // The place where the records of the link source and destination named
+    // graphs are joined on their identifiers.
+    private JoinType joinType = JoinType.Quadstore;
+    // The number of records kept in memory before they are sorted and
+    // written into a temporary file during a sort-merge join.
+    private int sortRunSize = 200000;
+    // (Optional) The parameters of the Bloom filter used to count the unique
+    // created links approximately in a fixed amount of memory. If it isn't
+    // set, the links are counted exactly.
+    private BloomFilterParameterData linkCountBloomFilterParameterData = null;
     // Repository connection to the destination repository where the created
     // links will be saved. It is also the source of the data that will be used
     // for the link creation.
     private RepositoryConnection destRepositoryConn = null;
     // Provides structure for the saved data.
     private Schema schema = null;
-    // Path for the downloaded json files of the doi URL resolver API.
-    private Path downloadPath;
     // Logs messages generated by the methods of the class.
     private Logger logger = null;
     
@@ -132,6 +181,26 @@ public class DataLinker {
         this.doiResolverDLParameterData = doiResolverDLParameterData;
     }
     
+    /**
+     * @return The HTTP transport used by the doi.org URL resolving.
+     */
+    public HTTPTransport getHTTPTransport() {
+        return httpTransport;
+    }
+    
+    /**
+     * @param httpTransport An HTTP transport used by the doi.org URL
+     * resolving, which can be shared with other downloaders and linkers. It
+     * will not be closed along with the linker.
+     */
+    public void setHTTPTransport(HTTPTransport httpTransport) {
+        if (!httpTransportProvided)
+            this.httpTransport.close();
+        
+        this.httpTransport = httpTransport;
+        httpTransportProvided = true;
+    }
+    
     /**
      * @return The number of created links to be batch inserted.
      */
@@ -146,11 +215,122 @@ public class DataLinker {
         this.insertBatchSize = insertBatchSize;
     }
     
+    /**
+     * @return The number of title shingle profiles to be kept in memory during
+     * the link creation.
+     */
+    public int getShingleProfileCacheSize() {
+        return shingleProfileCacheSize;
+    }
+    
+    /**
+     * @param shingleProfileCacheSize The number of title shingle profiles to be
+     * kept in memory during the link creation.
+     */
+    public void setShingleProfileCacheSize(int shingleProfileCacheSize) {
+        this.shingleProfileCacheSize = shingleProfileCacheSize;
+    }
+    
+    /**
+     * @return The parameters of the MinHash candidate generation for the
+     * category-B identifiers.
+     */
+    public MinHashParameterData getMinHashParameterData() {
+        return minHashParameterData;
+    }
+    
+    /**
+     * @param minHashParameterData (Optional) The parameters of the MinHash
+     * candidate generation for the category-B identifiers. If it is null,
+     * every pair of records sharing an identifier and a year is compared.
+     */
+    public void setMinHashParameterData(
+            MinHashParameterData minHashParameterData) {
+        this.minHashParameterData = minHashParameterData;
+    }
+    
+    /**
+     * @return The number of threads comparing the titles and years of the
+     * category-A identified data.
+     */
+    public int getLinkParallelism() {
+        return linkParallelism;
+    }
+    
+    /**
+     * @param linkParallelism The number of threads comparing the titles and
+     * years of the category-A identified data. If it is greater than 1, the
+     * retrieval, the comparisons and the insertion of the links run in
+     * parallel.
+     */
+    public void setLinkParallelism(int linkParallelism) {
+        if (linkParallelism > 0)
+            this.linkParallelism = linkParallelism;
+        else
+            this.linkParallelism = 1;
+    }
+    
+    /**
+     * @return The place where the records of the link source and destination
+     * named graphs are joined on their identifiers.
+     */
+    public JoinType getJoinType() {
+        return joinType;
+    }
+    
+    /**
+     * @param joinType The place where the records of the link source and
+     * destination named graphs are joined on their identifiers.
+     */
+    public void setJoinType(JoinType joinType) {
+        this.joinType = joinType;
+    }
+    
+    /**
+     * @return The number of records kept in memory before they are sorted and
+     * written into a temporary file during a sort-merge join.
+     */
+    public int getSortRunSize() {
+        return sortRunSize;
+    }
+    
+    /**
+     * @param sortRunSize The number of records kept in memory before they are
+     * sorted and written into a temporary file during a sort-merge join.
+     */
+    public void setSortRunSize(int sortRunSize) {
+        this.sortRunSize = sortRunSize;
+    }
+    
+    /**
+     * @return The parameters of the Bloom filter used to count the unique
+     * created links approximately, or null if they are counted exactly.
+     */
+    public BloomFilterParameterData getLinkCountBloomFilterParameterData() {
+        return linkCountBloomFilterParameterData;
+    }
+    
+    /**
+     * @param linkCountBloomFilterParameterData (Optional) The parameters of
+     * the Bloom filter used to count the unique created links approximately
+     * in a fixed amount of memory. If it is null, the links are counted
+     * exactly.
+     */
+    public void setLinkCountBloomFilterParameterData(
+            BloomFilterParameterData linkCountBloomFilterParameterData) {
+        this.linkCountBloomFilterParameterData =
+                linkCountBloomFilterParameterData;
+    }
+    
     /**
      * Closes the connection to the destination repository where the created
-     * links will be saved and source data will be retrieved from. 
+     * links will be saved and source data will be retrieved from, along with
+     * the connections of the HTTP transport unless it has been provided.
      */
     public void close() {
+        if (!httpTransportProvided)
+            httpTransport.close();
+        
         try {
             destRepositoryConn.close();        
         }
@@ -267,20 +447,6 @@ public class DataLinker {
             ToleranceData toleranceData,
             StringSimilaritySelector similaritySelector) {
         int linkCount = 0;
-        
-        if (resolveDOI) {
-            try {
-                // Creates a temporary download folder.
-                downloadPath = Files.createTempDirectory("biblc_doiresolve_");
-            }
-            catch (Exception ex){
-                logger.logMessage("Could not create temp directory," +
-                        "resolveDOI will be set to false",
-                        MessageCategory.Warning);
-                resolveDOI = false;
-            }
-        }
-        
         Identifier identifier = new Identifier();
         // An identifier name for logging.
         String identifierName = identifier.getIdentifierName(identifierType);
@@ -293,31 +459,57 @@ public class DataLinker {
             case arXivID: case DOI: case ISBN: case LCCN: case OCLC: case PMID:
                 // Creates links between the provided source and destination
                 // named graphs and saved them.
-                linkCount = insertCategoryALinks(linkSourceARepositoryName,
-                        linkSourceBRepositoryName, linkTypeURIString,
-                        resolveDOI, identifierType, toleranceData,
-                        similaritySelector);
+                if (joinType == JoinType.Hash)
+                    linkCount = insertHashJoinLinks(linkSourceARepositoryName,
+                            linkSourceBRepositoryName, linkTypeURIString,
+                            resolveDOI, identifierType, toleranceData,
+                            similaritySelector);
+                else if (joinType == JoinType.SortMerge)
+                    linkCount = insertSortMergeJoinLinks(
+                            linkSourceARepositoryName,
+                            linkSourceBRepositoryName, linkTypeURIString,
+                            resolveDOI, identifierType, toleranceData,
+                            similaritySelector);
+                else if (linkParallelism > 1)
+                    linkCount = insertCategoryALinksParallel(
+                            linkSourceARepositoryName,
+                            linkSourceBRepositoryName, linkTypeURIString,
+                            resolveDOI, identifierType, toleranceData,
+                            similaritySelector);
+                else
+                    linkCount = insertCategoryALinks(linkSourceARepositoryName,
+                            linkSourceBRepositoryName, linkTypeURIString,
+                            resolveDOI, identifierType, toleranceData,
+                            similaritySelector);
                 break;
             // Category-B identifiers.
             case ISSN: case JournalTitle:
                 // Creates links between the provided source and destination
-                // named graphs and saved them.
-                linkCount = insertCategoryBLinks(linkSourceARepositoryName,
-                        linkSourceBRepositoryName, linkTypeURIString,
-                        resolveDOI, identifierType, toleranceData,
-                        similaritySelector);                
+                // named graphs and saved them. The MinHash candidate
+                // generation needs the records of one named graph in memory.
+                if (joinType == JoinType.SortMerge)
+                    linkCount = insertSortMergeJoinLinks(
+                            linkSourceARepositoryName,
+                            linkSourceBRepositoryName, linkTypeURIString,
+                            resolveDOI, identifierType, toleranceData,
+                            similaritySelector);
+                else if (joinType == JoinType.Hash ||
+                        minHashParameterData != null)
+                    linkCount = insertHashJoinLinks(linkSourceARepositoryName,
+                            linkSourceBRepositoryName, linkTypeURIString,
+                            resolveDOI, identifierType, toleranceData,
+                            similaritySelector);
+                else
+                    linkCount = insertCategoryBLinks(linkSourceARepositoryName,
+                            linkSourceBRepositoryName, linkTypeURIString,
+                            resolveDOI, identifierType, toleranceData,
+                            similaritySelector);                
                 break;
         }
         
         logger.logMessage("\ttotal " + identifierName + " links found : " +
                 String.valueOf(linkCount), MessageCategory.Info);
         
-        if (resolveDOI) {
-            FileOperation fileOperation = new FileOperation();
-            // Deletes the temporary download folder.
-            fileOperation.deleteTempFolder(downloadPath);
-        }
-        
         return linkCount;
     }
     
@@ -454,37 +646,30 @@ public class DataLinker {
             queryResult = destRepositoryConn.prepareTupleQuery(
                     QueryLanguage.SPARQL, dataSelectionQuery).evaluate();
             StringSimilarity stringSimilarity = new StringSimilarity();
-            String subjectStringA, titleStringA, yearStringA,
-                    subjectStringB, titleStringB, yearStringB;
-            URI subjectURI, predicateURI, objectURI;
-            int yearA, yearB, yearDifference;
-            int logCount = 0;
-            double titleCoefficient;
-            boolean linkFound;
-            BindingSet bindingSet;
-            ValueFactory valueFactory = destRepositoryConn.getValueFactory();
-            // Creation of the predicate URI for the created links.
-            predicateURI = valueFactory.createURI(linkTypeURIString);
-            Set<LinkData> linkDataSet = new HashSet<>();
-            Set<LinkData> collectiveSet = new HashSet<>();
-            Identifier identifier = new Identifier();
-            // An identifier name for logging.
-            String identifierName =
-                    identifier.getIdentifierName(identifierType);
+            String subjectStringA, subjectStringB;
+            LinkCandidateData linkCandidateData;
+            // Caches of the shingle profiles of the compared titles.
+            Map<String, ShingleProfile> shingleProfileCacheA =
+                    getShingleProfileCache();
+            Map<String, ShingleProfile> shingleProfileCacheB =
+                    getShingleProfileCache();
+            // Collects the created links and sends them to the repository.
+            LinkWriter linkWriter = new LinkWriter(linkSourceARepositoryName,
+                    linkSourceBRepositoryName, linkTypeURIString,
+                    identifierType, destRepositoryConn, new URIDictionary());
             int maxAllowedConsecutiveErrors =
                     doiResolverDLParameterData.getMaxAllowedConsecutiveErrors();
             
             while (queryResult.hasNext()) {
-                linkFound = false;
-                bindingSet = queryResult.next();
-                // Reads the subject string which will be used as the subject
-                // of the created link.
-                subjectStringA = bindingSet.getBinding(
-                        "subjectA").getValue().stringValue();
-                // Reads the subject string which will be used as the object
-                // of the created link.
-                subjectStringB = bindingSet.getBinding(
-                        "subjectB").getValue().stringValue();
+                // Reads the compared records.
+                linkCandidateData =
+                        getCategoryALinkCandidate(queryResult.next());
+                // The subject string which will be used as the subject of the
+                // created link.
+                subjectStringA = linkCandidateData.getRecordA().getSubject();
+                // The subject string which will be used as the object of the
+                // created link.
+                subjectStringB = linkCandidateData.getRecordB().getSubject();
                 // If the current subject or object URI can't be used for the
                 // link creation, then they are omitted from it.
                 if (resolveDOI == false &&
@@ -495,105 +680,22 @@ public class DataLinker {
                 if (consecutiveErrorsExceedMaxAllowed(consecutiveErrors,
                         maxAllowedConsecutiveErrors))
                     return linkCount;
-                // Reads the title from source-A.
-                titleStringA = bindingSet.getBinding(
-                        "titleA").getValue().stringValue();
-                // Since the publication year variable is optional it must be
-                // checked first for existance.
-                if (bindingSet.getBinding("yearA") != null)
-                    // Reads the publication year string from source-A.
-                    yearStringA = bindingSet.getBinding(
-                            "yearA").getValue().stringValue();
-                else
-                    yearStringA = "";
-                // Reads the title from source-B.
-                titleStringB = bindingSet.getBinding(
-                        "titleB").getValue().stringValue();
-                // Since the publication year variable is optional it must be
-                // checked first for existence.
-                if (bindingSet.getBinding("yearB") != null)
-                    // Reads the publication year string from source-B.
-                    yearStringB = bindingSet.getBinding(
-                            "yearB").getValue().stringValue();
-                else
-                    yearStringB = "";
-                // If a publication year has been retrieved from both sources,
-                // then they are involved in the comparisons.
-                if (yearStringA.length() > 0 && yearStringB.length() > 0) {
-                    // Integer representation of the yearA string.
-                    yearA = Integer.parseInt(yearStringA);
-                    // Integer representation of the yearB string.
-                    yearB = Integer.parseInt(yearStringB);
-                    // Difference of the years of the two souces.
-                    yearDifference = Math.abs(yearA - yearB);
-                    // If the year difference is in the allowed range, then
-                    // the titles will be compared.
-                    if (yearDifference <=
-                            toleranceData.getYearMaxDifference()) {
-                        // Gets the string similarity coefficient for the
-                        // titles based on the selected string similarity
-                        // measure and its parameters.
-                        titleCoefficient = stringSimilarity.getCoefficient(
-                                titleStringA, titleStringB, similaritySelector);
-                        // If the string similarity coefficient of the titles 
-                        // is above the specified threshold, then a link has
-                        // been found.
-                        if (titleCoefficient >=
-                                toleranceData.getTitleThresholdA())
-                            linkFound = true;
-                    }
-                }
-                // A publication year hasn't been retrieved from either of the
-                // sources.
-                else {
-                    // Gets the string similarity coefficient for the titles
-                    // based on the selected string similarity measure and its
-                    // parameters.
-                    titleCoefficient = stringSimilarity.getCoefficient(
-                            titleStringA, titleStringB, similaritySelector);
-                    // If the string similarity coefficient of the titles is
-                    // above the specified threshold, then a link has been
-                    // found.
-                    if (titleCoefficient >= toleranceData.getTitleThresholdB())
-                        linkFound = true;
-                }
                 
-                if (linkFound) {
+                if (categoryALinkFound(linkCandidateData, stringSimilarity,
+                        shingleProfileCacheA, shingleProfileCacheB,
+                        toleranceData, similaritySelector)) {
                     // If the current subject or object URI can't be used for
                     // the link creation, then they are omitted from it.
                     if (resolveDOI && subjectURIsMustBeRejected(
                             subjectStringA, subjectStringB, resolveDOI))
                         continue;
-                    // Creation of the subject URI of the link.
-                    subjectURI = valueFactory.createURI(subjectStringA);
-                    // Creation of the object URI of the link.
-                    objectURI = valueFactory.createURI(subjectStringB);
-                    // The subject and object are added into a list.
-                    linkDataSet.add(new LinkData(subjectURI, objectURI));
-                    // The subject and object are added into a collective list.
-                    collectiveSet.add(new LinkData(subjectURI, objectURI));
-                    linkCount = collectiveSet.size();
-                    // The collected links will be sent to the repository as a
-                    // batch.
-                    if (linkDataSet.size() >= insertBatchSize) {
-                        executeTransaction(linkDataSet,
-                                linkSourceARepositoryName,
-                                linkSourceBRepositoryName, predicateURI,
-                                destRepositoryConn, identifierType);
-                        linkDataSet.clear();
-                    }
-                    
-                    logCount = logLinkMessage(logCount, linkCount,
-                            identifierName);
+                    // Adds the link into the batch sent to the repository.
+                    linkCount = linkWriter.addLink(subjectStringA,
+                            subjectStringB);
                 }
             }
             // The remaining links will be sent to the repository.
-            if (linkDataSet.size() > 0) {
-                executeTransaction(linkDataSet, linkSourceARepositoryName,
-                        linkSourceBRepositoryName, predicateURI,
-                        destRepositoryConn, identifierType);
-                linkDataSet.clear();
-            }
+            linkWriter.flush();
         }
         catch (Exception ex) {
             logger.logMessage(ex.getMessage(), MessageCategory.Error);
@@ -611,6 +713,376 @@ public class DataLinker {
         return linkCount;
     }
     
+    /**
+     * Links data based on category-A identifiers, titles and years (if exist)
+     * by using multiple threads. The current thread retrieves the data and
+     * passes them in batches to the comparing threads, whose links are
+     * collected and saved by a single writing thread. The created links are
+     * the same as those of the insertCategoryALinks method.
+     * @param linkSourceARepositoryName The repository name (alias) which will
+     * be used to form the named graph URI for the link source.
+     * @param linkSourceBRepositoryName The repository name (alias) which will
+     * be used to form the named graph URI for the link destination.
+     * @param linkTypeURIString The URI string of the predicate which will be
+     * used to link a subject URI to an object URI.
+     * @param resolveDOI Determines if doi.org URL resolving will take place.
+     * @param identifierType The type of the identifier to be used for the data
+     * retrieval from the link source and destination named graphs.
+     * @param toleranceData Data comparison tolerance parameters.
+     * @param similaritySelector The parameterized string similarity measure to
+     * be used.
+     * @return The number of the created links.
+     */
+    private int insertCategoryALinksParallel(String linkSourceARepositoryName,
+            String linkSourceBRepositoryName, String linkTypeURIString,
+            boolean resolveDOI, IdentifierType identifierType,
+            ToleranceData toleranceData,
+            StringSimilaritySelector similaritySelector) {
+        // The number of the created links, updated by the writing thread.
+        AtomicInteger linkCount = new AtomicInteger();
+        // Stops all the threads in case of an error.
+        AtomicBoolean pipelineStopped = new AtomicBoolean(false);
+        TupleQueryResult queryResult = null;
+        ExecutorService executorService = null;
+        // A separate connection used by the writing thread.
+        RepositoryConnection writerRepositoryConn = null;
+        
+        try {
+            // Gets the SPARQL query which will be used for the data retrieval.
+            String dataSelectionQuery = getDataSelectionQuery(
+                    linkSourceARepositoryName, linkSourceBRepositoryName,
+                    identifierType);
+            // Retrieves data from the destination repository.
+            queryResult = destRepositoryConn.prepareTupleQuery(
+                    QueryLanguage.SPARQL, dataSelectionQuery).evaluate();
+            writerRepositoryConn =
+                    destRepositoryConn.getRepository().getConnection();
+            // The string similarity measures are shared by the threads.
+            StringSimilarity stringSimilarity = new StringSimilarity();
+            // Collects the created links and sends them to the repository.
+            LinkWriter linkWriter = new LinkWriter(linkSourceARepositoryName,
+                    linkSourceBRepositoryName, linkTypeURIString,
+                    identifierType, writerRepositoryConn, new URIDictionary());
+            int maxAllowedConsecutiveErrors =
+                    doiResolverDLParameterData.getMaxAllowedConsecutiveErrors();
+            // The retrieved records waiting to be compared.
+            BlockingQueue<List<LinkCandidateData>> candidateQueue =
+                    new ArrayBlockingQueue<>(linkParallelism * 4);
+            // The found links waiting to be saved.
+            BlockingQueue<List<LinkCandidateData>> linkQueue =
+                    new ArrayBlockingQueue<>(linkParallelism * 4);
+            List<Future<Void>> workerFutureList = new ArrayList<>();
+            executorService = Executors.newFixedThreadPool(linkParallelism + 1);
+            
+            for (int i = 0; i < linkParallelism; i++) {
+                // A thread comparing the titles and years of the records.
+                workerFutureList.add(executorService.submit(() -> {
+                    // Each thread has its own caches of shingle profiles.
+                    Map<String, ShingleProfile> shingleProfileCacheA =
+                            getShingleProfileCache();
+                    Map<String, ShingleProfile> shingleProfileCacheB =
+                            getShingleProfileCache();
+                    List<LinkCandidateData> candidateList, foundList;
+                    
+                    try {
+                        while (true) {
+                            candidateList = takeFromQueue(candidateQueue,
+                                    pipelineStopped);
+                            
+                            if (candidateList == null ||
+                                    candidateList == END_OF_QUEUE)
+                                return null;
+                            
+                            foundList = new ArrayList<>();
+                            
+                            for (LinkCandidateData linkCandidateData :
+                                    candidateList) {
+                                // If the current subject or object URI can't be
+                                // used for the link creation, then they are
+                                // omitted from it.
+                                if (resolveDOI == false &&
+                                        subjectURIsMustBeRejected(
+                                        linkCandidateData.getRecordA().
+                                                getSubject(),
+                                        linkCandidateData.getRecordB().
+                                                getSubject(), resolveDOI))
+                                    continue;
+                                
+                                if (categoryALinkFound(linkCandidateData,
+                                        stringSimilarity, shingleProfileCacheA,
+                                        shingleProfileCacheB, toleranceData,
+                                        similaritySelector))
+                                    foundList.add(linkCandidateData);
+                            }
+                            
+                            if (!foundList.isEmpty())
+                                putIntoQueue(linkQueue, foundList,
+                                        pipelineStopped);
+                        }
+                    }
+                    catch (Exception ex) {
+                        pipelineStopped.set(true);
+                        throw ex;
+                    }
+                }));
+            }
+            // The thread saving the found links.
+            Future<Void> writerFuture = executorService.submit(() -> {
+                List<LinkCandidateData> foundList;
+                String subjectStringA, subjectStringB;
+                
+                try {
+                    while (true) {
+                        foundList = takeFromQueue(linkQueue, pipelineStopped);
+                        
+                        if (foundList == null)
+                            return null;
+                        
+                        if (foundList == END_OF_QUEUE)
+                            break;
+                        
+                        for (LinkCandidateData linkCandidateData : foundList) {
+                            if (consecutiveErrorsExceedMaxAllowed(
+                                    consecutiveErrors,
+                                    maxAllowedConsecutiveErrors)) {
+                                pipelineStopped.set(true);
+                                return null;
+                            }
+                            
+                            subjectStringA =
+                                    linkCandidateData.getRecordA().getSubject();
+                            subjectStringB =
+                                    linkCandidateData.getRecordB().getSubject();
+                            // If the current subject or object URI can't be
+                            // used for the link creation, then they are omitted
+                            // from it.
+                            if (resolveDOI && subjectURIsMustBeRejected(
+                                    subjectStringA, subjectStringB, resolveDOI))
+                                continue;
+                            // Adds the link into the batch sent to the
+                            // repository.
+                            linkCount.set(linkWriter.addLink(subjectStringA,
+                                    subjectStringB));
+                        }
+                    }
+                    // The remaining links will be sent to the repository.
+                    linkWriter.flush();
+                }
+                catch (Exception ex) {
+                    pipelineStopped.set(true);
+                    throw ex;
+                }
+                
+                return null;
+            });
+            
+            List<LinkCandidateData> candidateList =
+                    new ArrayList<>(PIPELINE_BATCH_SIZE);
+            // Passes the retrieved records in batches to the comparing
+            // threads.
+            while (!pipelineStopped.get() && queryResult.hasNext()) {
+                candidateList.add(getCategoryALinkCandidate(
+                        queryResult.next()));
+                
+                if (candidateList.size() >= PIPELINE_BATCH_SIZE) {
+                    putIntoQueue(candidateQueue, candidateList,
+                            pipelineStopped);
+                    candidateList = new ArrayList<>(PIPELINE_BATCH_SIZE);
+                }
+            }
+            
+            if (!candidateList.isEmpty())
+                putIntoQueue(candidateQueue, candidateList, pipelineStopped);
+            // Signals the end of the records to each comparing thread.
+            for (int i = 0; i < linkParallelism; i++)
+                putIntoQueue(candidateQueue, END_OF_QUEUE, pipelineStopped);
+            
+            for (Future<Void> workerFuture : workerFutureList)
+                workerFuture.get();
+            // Signals the end of the found links to the writing thread.
+            putIntoQueue(linkQueue, END_OF_QUEUE, pipelineStopped);
+            writerFuture.get();
+        }
+        catch (Exception ex) {
+            pipelineStopped.set(true);
+            logger.logMessage(ex.getMessage(), MessageCategory.Error);
+        }
+        finally {
+            if (executorService != null)
+                executorService.shutdownNow();
+            
+            if (queryResult != null) {
+                try {
+                    queryResult.close();
+                }
+                catch (Exception ex) {
+                }
+            }
+            
+            if (writerRepositoryConn != null) {
+                try {
+                    writerRepositoryConn.close();
+                }
+                catch (Exception ex) {
+                }
+            }
+        }
+        
+        return linkCount.get();
+    }
+    
+    /**
+     * Reads a pair of category-A identified records from a binding set of the
+     * data selection query.
+     * @param bindingSet The binding set.
+     * @return The pair of records.
+     */
+    private LinkCandidateData getCategoryALinkCandidate(BindingSet bindingSet) {
+        String yearStringA, yearStringB;
+        // Since the publication year variable is optional it must be checked
+        // first for existance.
+        if (bindingSet.getBinding("yearA") != null)
+            // Reads the publication year string from source-A.
+            yearStringA = bindingSet.getBinding(
+                    "yearA").getValue().stringValue();
+        else
+            yearStringA = "";
+        // Since the publication year variable is optional it must be checked
+        // first for existence.
+        if (bindingSet.getBinding("yearB") != null)
+            // Reads the publication year string from source-B.
+            yearStringB = bindingSet.getBinding(
+                    "yearB").getValue().stringValue();
+        else
+            yearStringB = "";
+        // The subject of source-A will be used as the subject of the created
+        // link.
+        ExtractedData recordA = new ExtractedData(bindingSet.getBinding(
+                "subjectA").getValue().stringValue(), "", bindingSet.getBinding(
+                "titleA").getValue().stringValue(), yearStringA);
+        // The subject of source-B will be used as the object of the created
+        // link.
+        ExtractedData recordB = new ExtractedData(bindingSet.getBinding(
+                "subjectB").getValue().stringValue(), "", bindingSet.getBinding(
+                "titleB").getValue().stringValue(), yearStringB);
+        
+        return new LinkCandidateData(recordA, recordB);
+    }
+    
+    /**
+     * Compares the titles and years (if exist) of a pair of category-A
+     * identified records.
+     * @param linkCandidateData The pair of records.
+     * @param stringSimilarity Compares the titles.
+     * @param shingleProfileCacheA A cache of the shingle profiles of the titles
+     * of source-A.
+     * @param shingleProfileCacheB A cache of the shingle profiles of the titles
+     * of source-B.
+     * @param toleranceData Data comparison tolerance parameters.
+     * @param similaritySelector The parameterized string similarity measure to
+     * be used.
+     * @return A value indicating if a link has been found.
+     */
+    private boolean categoryALinkFound(LinkCandidateData linkCandidateData,
+            StringSimilarity stringSimilarity,
+            Map<String, ShingleProfile> shingleProfileCacheA,
+            Map<String, ShingleProfile> shingleProfileCacheB,
+            ToleranceData toleranceData,
+            StringSimilaritySelector similaritySelector) {
+        boolean linkFound = false;
+        ExtractedData recordA = linkCandidateData.getRecordA();
+        ExtractedData recordB = linkCandidateData.getRecordB();
+        String yearStringA = recordA.getYear();
+        String yearStringB = recordB.getYear();
+        int yearA, yearB, yearDifference;
+        // The shingle profiles of the titles of source-A and source-B.
+        ShingleProfile shingleProfileA, shingleProfileB;
+        // If a publication year has been retrieved from both sources, then they
+        // are involved in the comparisons.
+        if (yearStringA.length() > 0 && yearStringB.length() > 0) {
+            // Integer representation of the yearA string.
+            yearA = Integer.parseInt(yearStringA);
+            // Integer representation of the yearB string.
+            yearB = Integer.parseInt(yearStringB);
+            // Difference of the years of the two souces.
+            yearDifference = Math.abs(yearA - yearB);
+            // If the year difference is in the allowed range, then the titles
+            // will be compared.
+            if (yearDifference <= toleranceData.getYearMaxDifference()) {
+                // Gets the shingle profiles of the titles.
+                shingleProfileA = getShingleProfile(recordA.getTitle(),
+                        shingleProfileCacheA, stringSimilarity,
+                        similaritySelector);
+                shingleProfileB = getShingleProfile(recordB.getTitle(),
+                        shingleProfileCacheB, stringSimilarity,
+                        similaritySelector);
+                // If the string similarity coefficient of the titles based on
+                // the selected string similarity measure and its parameters is
+                // above the specified threshold, then a link has been found.
+                if (stringSimilarity.exceedsThreshold(shingleProfileA,
+                        shingleProfileB, similaritySelector,
+                        toleranceData.getTitleThresholdA()))
+                    linkFound = true;
+            }
+        }
+        // A publication year hasn't been retrieved from either of the sources.
+        else {
+            // Gets the shingle profiles of the titles.
+            shingleProfileA = getShingleProfile(recordA.getTitle(),
+                    shingleProfileCacheA, stringSimilarity, similaritySelector);
+            shingleProfileB = getShingleProfile(recordB.getTitle(),
+                    shingleProfileCacheB, stringSimilarity, similaritySelector);
+            // If the string similarity coefficient of the titles based on the
+            // selected string similarity measure and its parameters is above
+            // the specified threshold, then a link has been found.
+            if (stringSimilarity.exceedsThreshold(shingleProfileA,
+                    shingleProfileB, similaritySelector,
+                    toleranceData.getTitleThresholdB()))
+                linkFound = true;
+        }
+        
+        return linkFound;
+    }
+    
+    /**
+     * Puts an item into a queue of the parallel link creation, waiting while
+     * the queue is full.
+     * @param queue The queue.
+     * @param item The item to be put.
+     * @param pipelineStopped A value indicating if the threads of the parallel
+     * link creation must stop.
+     * @return A value indicating if the item has been put into the queue.
+     */
+    private <T> boolean putIntoQueue(BlockingQueue<T> queue, T item,
+            AtomicBoolean pipelineStopped) throws InterruptedException {
+        while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+            if (pipelineStopped.get())
+                return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Takes an item from a queue of the parallel link creation, waiting while
+     * the queue is empty.
+     * @param queue The queue.
+     * @param pipelineStopped A value indicating if the threads of the parallel
+     * link creation must stop.
+     * @return The item, or null if the threads must stop.
+     */
+    private <T> T takeFromQueue(BlockingQueue<T> queue,
+            AtomicBoolean pipelineStopped) throws InterruptedException {
+        T item;
+        
+        while ((item = queue.poll(100, TimeUnit.MILLISECONDS)) == null) {
+            if (pipelineStopped.get())
+                return null;
+        }
+        
+        return item;
+    }
+    
     /**
      * Links data based on category-B identifiers, titles and years.
      * @param linkSourceARepositoryName The repository name (alias) which will
@@ -645,18 +1117,18 @@ public class DataLinker {
                     QueryLanguage.SPARQL, dataSelectionQuery).evaluate();
             StringSimilarity stringSimilarity = new StringSimilarity();
             String subjectStringA, titleStringA, subjectStringB, titleStringB;
-            URI subjectURI, predicateURI, objectURI;
-            int logCount = 0;
-            double titleCoefficient;
             BindingSet bindingSet;
-            ValueFactory valueFactory = destRepositoryConn.getValueFactory();
-            // Creation of the predicate URI for the created links.
-            predicateURI = valueFactory.createURI(linkTypeURIString);
-            Set<LinkData> linkDataSet = new HashSet<>();
-            Set<LinkData> collectiveSet = new HashSet<>();
-            Identifier identifier = new Identifier();
-            String identifierName =
-                    identifier.getIdentifierName(identifierType);
+            // The shingle profiles of the titles of source-A and source-B.
+            ShingleProfile shingleProfileA, shingleProfileB;
+            // Caches of the shingle profiles of the compared titles.
+            Map<String, ShingleProfile> shingleProfileCacheA =
+                    getShingleProfileCache();
+            Map<String, ShingleProfile> shingleProfileCacheB =
+                    getShingleProfileCache();
+            // Collects the created links and sends them to the repository.
+            LinkWriter linkWriter = new LinkWriter(linkSourceARepositoryName,
+                    linkSourceBRepositoryName, linkTypeURIString,
+                    identifierType, destRepositoryConn, new URIDictionary());
             int maxAllowedConsecutiveErrors =
                     doiResolverDLParameterData.getMaxAllowedConsecutiveErrors();
             
@@ -686,48 +1158,31 @@ public class DataLinker {
                 // Reads the title from source-B.
                 titleStringB = bindingSet.getBinding(
                         "titleB").getValue().stringValue();
-                // Gets the string similarity coefficient for the titles based
-                // on the selected string similarity measure and its parameters.
-                titleCoefficient = stringSimilarity.getCoefficient(
-                        titleStringA, titleStringB, similaritySelector);
-                // If the string similarity coefficient of the titles is above
-                // the specified threshold, then a link has been found.                
-                if (titleCoefficient >= toleranceData.getTitleThreshold()) {
+                // Gets the shingle profiles of the titles.
+                shingleProfileA = getShingleProfile(titleStringA,
+                        shingleProfileCacheA, stringSimilarity,
+                        similaritySelector);
+                shingleProfileB = getShingleProfile(titleStringB,
+                        shingleProfileCacheB, stringSimilarity,
+                        similaritySelector);
+                // If the string similarity coefficient of the titles based on
+                // the selected string similarity measure and its parameters is
+                // above the specified threshold, then a link has been found.
+                if (stringSimilarity.exceedsThreshold(shingleProfileA,
+                        shingleProfileB, similaritySelector,
+                        toleranceData.getTitleThreshold())) {
                     // If the current subject or object URI can't be used for
                     // the link creation, then they are omitted from it.
                     if (resolveDOI && subjectURIsMustBeRejected(subjectStringA,
                             subjectStringB, resolveDOI))
                         continue;
-                    // Creation of the subject URI of the link.
-                    subjectURI = valueFactory.createURI(subjectStringA);
-                    // Creation of the object URI of the link.
-                    objectURI = valueFactory.createURI(subjectStringB);
-                    // The subject and object are added into a list.
-                    linkDataSet.add(new LinkData(subjectURI, objectURI));
-                    // The subject and object are added into a collective list.
-                    collectiveSet.add(new LinkData(subjectURI, objectURI));
-                    linkCount = collectiveSet.size();
-                    // The collected links will be sent to the repository as a
-                    // batch.
-                    if (linkDataSet.size() >= insertBatchSize) {
-                        executeTransaction(linkDataSet,
-                                linkSourceARepositoryName,
-                                linkSourceBRepositoryName, predicateURI,
-                                destRepositoryConn, identifierType);
-                        linkDataSet.clear();
-                    }
-                    
-                    logCount = logLinkMessage(logCount, linkCount,
-                            identifierName);
+                    // Adds the link into the batch sent to the repository.
+                    linkCount = linkWriter.addLink(subjectStringA,
+                            subjectStringB);
                 }
             }
             // The remaining links will be sent to the repository.
-            if (linkDataSet.size() > 0) {
-                executeTransaction(linkDataSet, linkSourceARepositoryName,
-                        linkSourceBRepositoryName, predicateURI,
-                        destRepositoryConn, identifierType);
-                linkDataSet.clear();
-            }
+            linkWriter.flush();
         }
         catch (Exception ex) {
             logger.logMessage(ex.getMessage(), MessageCategory.Error);
@@ -745,9 +1200,466 @@ public class DataLinker {
         return linkCount;
     }
     
+    /**
+     * Links data based on category-A or category-B identifiers, titles and
+     * years by joining the records of the link source and destination on the
+     * client. The records of the smaller named graph are retrieved once and
+     * grouped by their identifier (and year for the category-B identifiers),
+     * and every record of the other named graph is compared with the records
+     * of its group. If the MinHash parameters are set, the records of a
+     * category-B group reaching the minBlockSize are only compared when they
+     * share a band of their MinHash signatures. Every candidate pair is
+     * verified by the selected string similarity measure.
+     * @param linkSourceARepositoryName The repository name (alias) which will
+     * be used to form the named graph URI for the link source.
+     * @param linkSourceBRepositoryName The repository name (alias) which will
+     * be used to form the named graph URI for the link destination.
+     * @param linkTypeURIString The URI string of the predicate which will be
+     * used to link a subject URI to an object URI.
+     * @param resolveDOI Determines if doi.org URL resolving will take place.
+     * @param identifierType The type of the identifier to be used for the data
+     * retrieval from the link source and destination named graphs.
+     * @param toleranceData Data comparison tolerance parameters.
+     * @param similaritySelector The parameterized string similarity measure to
+     * be used.
+     * @return The number of the created links.
+     */
+    private int insertHashJoinLinks(String linkSourceARepositoryName,
+            String linkSourceBRepositoryName, String linkTypeURIString,
+            boolean resolveDOI, IdentifierType identifierType,
+            ToleranceData toleranceData,
+            StringSimilaritySelector similaritySelector) {
+        TupleQueryResult queryResult = null;
+        BlockLinker blockLinker = null;
+        
+        try {
+            // Keeps the subjects of the indexed records and the URIs of the
+            // created links for the whole run.
+            URIDictionary uriDictionary = new URIDictionary();
+            // Collects the created links and sends them to the repository.
+            LinkWriter linkWriter = new LinkWriter(linkSourceARepositoryName,
+                    linkSourceBRepositoryName, linkTypeURIString,
+                    identifierType, destRepositoryConn, uriDictionary);
+            // Compares the records sharing an identifier (and a year).
+            blockLinker = new BlockLinker(linkWriter, resolveDOI,
+                    identifierType, toleranceData, similaritySelector);
+            // The smaller named graph is kept in memory.
+            boolean sourceAIndexed = getGraphRecordCount(
+                    linkSourceARepositoryName, identifierType) <=
+                    getGraphRecordCount(linkSourceBRepositoryName,
+                            identifierType);
+            // The records of the indexed source grouped by their identifier
+            // (and year).
+            Map<String, LinkBlockData> linkBlockMap = getLinkBlockMap(
+                    sourceAIndexed ? linkSourceARepositoryName :
+                            linkSourceBRepositoryName, identifierType,
+                    uriDictionary);
+            ExtractedData probeRecord;
+            LinkBlockData linkBlockData;
+            // Retrieves the records of the other source from the destination
+            // repository.
+            queryResult = destRepositoryConn.prepareTupleQuery(
+                    QueryLanguage.SPARQL, getGraphDataSelectionQuery(
+                            sourceAIndexed ? linkSourceBRepositoryName :
+                                    linkSourceARepositoryName,
+                            identifierType)).evaluate();
+            
+            while (queryResult.hasNext()) {
+                probeRecord = getGraphRecord(queryResult.next(),
+                        identifierType);
+                // The group of the indexed records sharing the identifier (and
+                // the year) of the streamed record.
+                linkBlockData = linkBlockMap.get(getLinkBlockKey(
+                        identifierType, probeRecord.getIdentifier(),
+                        probeRecord.getYear()));
+                
+                if (linkBlockData == null)
+                    continue;
+                
+                if (!blockLinker.linkRecord(linkBlockData, probeRecord,
+                        sourceAIndexed))
+                    return blockLinker.getLinkCount();
+            }
+            // The remaining links will be sent to the repository.
+            linkWriter.flush();
+        }
+        catch (Exception ex) {
+            logger.logMessage(ex.getMessage(), MessageCategory.Error);
+        }
+        finally {
+            if (queryResult != null) {
+                try {
+                    queryResult.close();
+                }
+                catch (Exception ex) {
+                }
+            }
+        }
+        
+        return (blockLinker != null) ? blockLinker.getLinkCount() : 0;
+    }
+    
+    /**
+     * Links data based on category-A or category-B identifiers, titles and
+     * years by sorting the records of the link source and destination on disk
+     * and merging them. Each named graph is retrieved once and its records are
+     * sorted by their identifier (and year for the category-B identifiers) in
+     * runs of sortRunSize records, so that only a run and a group of records
+     * sharing an identifier are kept in memory. The records of the groups are
+     * compared like in the insertHashJoinLinks method.
+     * @param linkSourceARepositoryName The repository name (alias) which will
+     * be used to form the named graph URI for the link source.
+     * @param linkSourceBRepositoryName The repository name (alias) which will
+     * be used to form the named graph URI for the link destination.
+     * @param linkTypeURIString The URI string of the predicate which will be
+     * used to link a subject URI to an object URI.
+     * @param resolveDOI Determines if doi.org URL resolving will take place.
+     * @param identifierType The type of the identifier to be used for the data
+     * retrieval from the link source and destination named graphs.
+     * @param toleranceData Data comparison tolerance parameters.
+     * @param similaritySelector The parameterized string similarity measure to
+     * be used.
+     * @return The number of the created links.
+     */
+    private int insertSortMergeJoinLinks(String linkSourceARepositoryName,
+            String linkSourceBRepositoryName, String linkTypeURIString,
+            boolean resolveDOI, IdentifierType identifierType,
+            ToleranceData toleranceData,
+            StringSimilaritySelector similaritySelector) {
+        BlockLinker blockLinker = null;
+        Path sortPath = null;
+        ExternalRecordSorter recordSorterA = null, recordSorterB = null;
+        
+        try {
+            // Creates a temporary folder for the sorted runs.
+            sortPath = Files.createTempDirectory("biblc_sortmerge_");
+            // Sorts the records of both sources by their identifier (and year).
+            recordSorterA = getSortedGraphRecords(linkSourceARepositoryName,
+                    identifierType, sortPath);
+            recordSorterB = getSortedGraphRecords(linkSourceBRepositoryName,
+                    identifierType, sortPath);
+            // Collects the created links and sends them to the repository.
+            LinkWriter linkWriter = new LinkWriter(linkSourceARepositoryName,
+                    linkSourceBRepositoryName, linkTypeURIString,
+                    identifierType, destRepositoryConn, new URIDictionary());
+            // Compares the records sharing an identifier (and a year).
+            blockLinker = new BlockLinker(linkWriter, resolveDOI,
+                    identifierType, toleranceData, similaritySelector);
+            boolean recordAExists = recordSorterA.next();
+            boolean recordBExists = recordSorterB.next();
+            String blockKey;
+            LinkBlockData linkBlockData;
+            int keyComparison;
+            
+            while (recordAExists && recordBExists) {
+                keyComparison = recordSorterA.getSortKey().compareTo(
+                        recordSorterB.getSortKey());
+                // Skips the records without a match in the other source.
+                if (keyComparison < 0) {
+                    recordAExists = recordSorterA.next();
+                    continue;
+                }
+                
+                if (keyComparison > 0) {
+                    recordBExists = recordSorterB.next();
+                    continue;
+                }
+                // The group of the source-A records sharing the current key.
+                blockKey = recordSorterA.getSortKey();
+                linkBlockData = new LinkBlockData();
+                
+                while (recordAExists &&
+                        recordSorterA.getSortKey().equals(blockKey)) {
+                    linkBlockData.addRecord(recordSorterA.getRecord());
+                    recordAExists = recordSorterA.next();
+                }
+                // Every source-B record sharing the key is compared with the
+                // group.
+                while (recordBExists &&
+                        recordSorterB.getSortKey().equals(blockKey)) {
+                    if (!blockLinker.linkRecord(linkBlockData,
+                            recordSorterB.getRecord(), true))
+                        return blockLinker.getLinkCount();
+                    
+                    recordBExists = recordSorterB.next();
+                }
+            }
+            // The remaining links will be sent to the repository.
+            linkWriter.flush();
+        }
+        catch (Exception ex) {
+            logger.logMessage(ex.getMessage(), MessageCategory.Error);
+        }
+        finally {
+            if (recordSorterA != null)
+                recordSorterA.close();
+            
+            if (recordSorterB != null)
+                recordSorterB.close();
+            
+            if (sortPath != null)
+                // Deletes the temporary folder.
+                new FileOperation().deleteTempFolder(sortPath);
+        }
+        
+        return (blockLinker != null) ? blockLinker.getLinkCount() : 0;
+    }
+    
+    /**
+     * Retrieves the records of a named graph and sorts them by their
+     * identifier (and year for the category-B identifiers) on disk.
+     * @param repositoryName The repository name (alias) which will be used to
+     * form the named graph URI.
+     * @param identifierType The type of the identifier of the records.
+     * @param sortPath The folder where the sorted runs will be written.
+     * @return The sorted records.
+     */
+    private ExternalRecordSorter getSortedGraphRecords(String repositoryName,
+            IdentifierType identifierType, Path sortPath) throws IOException,
+            RepositoryException, MalformedQueryException,
+            QueryEvaluationException {
+        ExternalRecordSorter recordSorter =
+                new ExternalRecordSorter(sortPath, sortRunSize);
+        ExtractedData record;
+        // Retrieves the records of the named graph.
+        TupleQueryResult queryResult = destRepositoryConn.prepareTupleQuery(
+                QueryLanguage.SPARQL, getGraphDataSelectionQuery(
+                        repositoryName, identifierType)).evaluate();
+        
+        try {
+            while (queryResult.hasNext()) {
+                record = getGraphRecord(queryResult.next(), identifierType);
+                recordSorter.add(getLinkBlockKey(identifierType,
+                        record.getIdentifier(), record.getYear()), record);
+            }
+            
+            recordSorter.sort();
+        }
+        catch (IOException ex) {
+            recordSorter.close();
+            throw ex;
+        }
+        finally {
+            queryResult.close();
+        }
+        
+        return recordSorter;
+    }
+    
+    /**
+     * Reads a record from a binding set of the query returned by the
+     * getGraphDataSelectionQuery method.
+     * @param bindingSet The binding set.
+     * @param identifierType The type of the identifier of the record.
+     * @return The record.
+     */
+    private ExtractedData getGraphRecord(BindingSet bindingSet,
+            IdentifierType identifierType) {
+        String varName =
+                new Identifier().getIdentifierVariableName(identifierType);
+        String yearString;
+        // Since the publication year variable is optional for the category-A
+        // identifiers it must be checked first for existence.
+        if (bindingSet.getBinding("year") != null)
+            yearString = bindingSet.getBinding("year").getValue().stringValue();
+        else
+            yearString = "";
+        
+        return new ExtractedData(
+                bindingSet.getBinding("subject").getValue().stringValue(),
+                bindingSet.getBinding(varName).getValue().stringValue(),
+                bindingSet.getBinding("title").getValue().stringValue(),
+                yearString);
+    }
+    
+    /**
+     * Retrieves the records of a named graph and groups them by their
+     * identifier (and year for the category-B identifiers).
+     * @param repositoryName The repository name (alias) which will be used to
+     * form the named graph URI.
+     * @param identifierType The type of the identifier of the records.
+     * @param uriDictionary The dictionary where the subjects of the records
+     * are kept.
+     * @return The groups of the records by their identifier (and year).
+     */
+    private Map<String, LinkBlockData> getLinkBlockMap(String repositoryName,
+            IdentifierType identifierType, URIDictionary uriDictionary)
+            throws RepositoryException, MalformedQueryException,
+            QueryEvaluationException {
+        Map<String, LinkBlockData> linkBlockMap = new HashMap<>();
+        ExtractedData record;
+        // Retrieves the records of the named graph.
+        TupleQueryResult queryResult = destRepositoryConn.prepareTupleQuery(
+                QueryLanguage.SPARQL, getGraphDataSelectionQuery(
+                        repositoryName, identifierType)).evaluate();
+        
+        try {
+            while (queryResult.hasNext()) {
+                record = getGraphRecord(queryResult.next(), identifierType);
+                // Adds the record into its group.
+                linkBlockMap.computeIfAbsent(getLinkBlockKey(identifierType,
+                        record.getIdentifier(), record.getYear()),
+                        key -> new LinkBlockData(uriDictionary)).
+                        addRecord(record);
+            }
+        }
+        finally {
+            queryResult.close();
+        }
+        
+        return linkBlockMap;
+    }
+    
+    /**
+     * Gets the number of the records of a named graph.
+     * @param repositoryName The repository name (alias) which will be used to
+     * form the named graph URI.
+     * @param identifierType The type of the identifier of the records.
+     * @return The number of the records.
+     */
+    private long getGraphRecordCount(String repositoryName,
+            IdentifierType identifierType) throws RepositoryException,
+            MalformedQueryException, QueryEvaluationException {
+        long recordCount = 0;
+        // Counts the records of the named graph.
+        TupleQueryResult queryResult = destRepositoryConn.prepareTupleQuery(
+                QueryLanguage.SPARQL, getGraphDataSelectionQuery(
+                        repositoryName, identifierType,
+                        "(COUNT(*) AS ?count)")).evaluate();
+        
+        try {
+            if (queryResult.hasNext())
+                recordCount = Long.parseLong(queryResult.next().getBinding(
+                        "count").getValue().stringValue());
+        }
+        finally {
+            queryResult.close();
+        }
+        
+        return recordCount;
+    }
+    
+    /**
+     * Creates the shingle profiles of the titles of a group of records and,
+     * if the group is large enough and the similarity measure can be banded,
+     * the MinHash index of the group.
+     * @param linkBlockData The group of records.
+     * @param stringSimilarity Creates the shingle profiles and the signatures.
+     * @param similaritySelector The parameterized string similarity measure to
+     * be used.
+     * @param signatureSize The number of the hash functions of the MinHash
+     * signatures.
+     * @param rowsPerBand The number of signature rows of each band, or 0 if the
+     * similarity measure can't be banded.
+     */
+    private void prepareLinkBlock(LinkBlockData linkBlockData,
+            StringSimilarity stringSimilarity,
+            StringSimilaritySelector similaritySelector, int signatureSize,
+            int rowsPerBand) {
+        List<ExtractedData> recordList = linkBlockData.getRecordList();
+        List<ShingleProfile> shingleProfileList =
+                new ArrayList<>(recordList.size());
+        
+        for (ExtractedData extractedData : recordList)
+            shingleProfileList.add(stringSimilarity.getShingleProfile(
+                    extractedData.getTitle(), similaritySelector));
+        
+        linkBlockData.setShingleProfileList(shingleProfileList);
+        // Small groups are compared exhaustively.
+        if (rowsPerBand == 0 ||
+                recordList.size() < minHashParameterData.getMinBlockSize())
+            return;
+        
+        MinHashIndex minHashIndex =
+                new MinHashIndex(signatureSize / rowsPerBand, rowsPerBand);
+        
+        for (int i = 0; i < shingleProfileList.size(); i++) {
+            // Titles without shingles can't reach any threshold.
+            if (shingleProfileList.get(i).getShingleCount() > 0)
+                minHashIndex.addSignature(i, stringSimilarity.
+                        getMinHashSignature(shingleProfileList.get(i),
+                                signatureSize));
+        }
+        
+        linkBlockData.setMinHashIndex(minHashIndex);
+    }
+    
+    /**
+     * Gets the key of the group of records sharing an identifier (and a year
+     * for the category-B identifiers).
+     * @param identifierType The type of the identifier of the records.
+     * @param identifierString The identifier of the records.
+     * @param yearString The year of the records.
+     * @return The key of the group.
+     */
+    private String getLinkBlockKey(IdentifierType identifierType,
+            String identifierString, String yearString) {
+        // The years of the category-A identified records are compared with
+        // a tolerance, so they don't take part in the grouping.
+        if (isCategoryBIdentifier(identifierType))
+            return identifierString + "\n" + yearString;
+        else
+            return identifierString;
+    }
+    
+    /**
+     * Checks if an identifier type belongs to the category-B identifiers.
+     * @param identifierType The identifier type.
+     * @return A value indicating if the identifier type is a category-B one.
+     */
+    private boolean isCategoryBIdentifier(IdentifierType identifierType) {
+        return identifierType == IdentifierType.ISSN ||
+                identifierType == IdentifierType.JournalTitle;
+    }
+    
+    /**
+     * Creates a cache for the shingle profiles of titles, which evicts the
+     * least recently used profile when it exceeds the value of the
+     * shingleProfileCacheSize variable.
+     * @return A cache for the shingle profiles of titles.
+     */
+    private Map<String, ShingleProfile> getShingleProfileCache() {
+        // The maximum number of cached shingle profiles.
+        final int maxCacheSize = shingleProfileCacheSize;
+        
+        return new LinkedHashMap<String, ShingleProfile>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<String, ShingleProfile> eldest) {
+                return size() > maxCacheSize;
+            }
+        };
+    }
+    
+    /**
+     * Gets the shingle profile of a title from a cache or creates it and
+     * adds it into the cache if it doesn't exist.
+     * @param title The title of the shingle profile.
+     * @param shingleProfileCache The cache of the shingle profiles.
+     * @param stringSimilarity Creates the shingle profile.
+     * @param similaritySelector The parameterized string similarity measure
+     * used for the shingle profile creation.
+     * @return The shingle profile of the title.
+     */
+    private ShingleProfile getShingleProfile(String title,
+            Map<String, ShingleProfile> shingleProfileCache,
+            StringSimilarity stringSimilarity,
+            StringSimilaritySelector similaritySelector) {
+        ShingleProfile shingleProfile = shingleProfileCache.get(title);
+        // The title has not been segmented yet.
+        if (shingleProfile == null) {
+            shingleProfile = stringSimilarity.getShingleProfile(title,
+                    similaritySelector);
+            shingleProfileCache.put(title, shingleProfile);
+        }
+        
+        return shingleProfile;
+    }
+    
     /**
      * Sends the created links batch into the destination repository.
      * @param batchInsertSet A set containing the created links batch.
+     * @param uriDictionary The dictionary of the URIs of the links.
      * @param repositoryAName The name (alias) of the source-A repository
      * providing the subjects of the links.
      * @param repositoryBName The name (alias) of the source-B repository
@@ -759,7 +1671,8 @@ public class DataLinker {
      * creation.
      */
     private void executeTransaction(Set<LinkData> batchInsertSet,
-            String repositoryAName, String repositoryBName, URI predicateURI,
+            URIDictionary uriDictionary, String repositoryAName,
+            String repositoryBName, URI predicateURI,
             RepositoryConnection destRepositoryConn,
             IdentifierType identifierType) throws RepositoryException {        
         try {
@@ -778,8 +1691,11 @@ public class DataLinker {
             
             while (insertSetIterator.hasNext()) {
                 linkData = (LinkData) insertSetIterator.next();
-                subjectURI = linkData.getSubjectURI();
-                objectURI = linkData.getObjectURI();
+                // The URIs of the link are created from their IDs.
+                subjectURI = valueFactory.createURI(
+                        uriDictionary.getURIString(linkData.getSubjectID()));
+                objectURI = valueFactory.createURI(
+                        uriDictionary.getURIString(linkData.getObjectID()));
                 // Adds the quad for the created link.
                 destRepositoryConn.add(subjectURI, predicateURI, objectURI,
                         graphURI);                
@@ -867,6 +1783,78 @@ public class DataLinker {
         return dataSelectionQuery;
     }
     
+    /**
+     * Gets the SPARQL query which will be used for the retrieval of the records
+     * of a single source (named graph). Each record contains a subject, an
+     * identifier, a title and a year (optional for the category-A
+     * identifiers).
+     * @param repositoryName The name (alias) of the repository which will be
+     * used to retrieve data from the named graph.
+     * @param identifierType The type of the identifier to be used for the data
+     * retrieval from the named graph.
+     * @return The SPARQL query.
+     */
+    private String getGraphDataSelectionQuery(String repositoryName,
+            IdentifierType identifierType) {
+        return getGraphDataSelectionQuery(repositoryName, identifierType, "*");
+    }
+    
+    /**
+     * Gets a SPARQL query over the records of a single source (named graph)
+     * with the provided projection.
+     * @param repositoryName The name (alias) of the repository which will be
+     * used to retrieve data from the named graph.
+     * @param identifierType The type of the identifier to be used for the data
+     * retrieval from the named graph.
+     * @param projection The projection of the SELECT clause.
+     * @return The SPARQL query.
+     */
+    private String getGraphDataSelectionQuery(String repositoryName,
+            IdentifierType identifierType, String projection) {
+        String dataSelectionQuery = "";
+        Identifier identifier = new Identifier();
+        // The URI string of the named graph containing the data.
+        String graphURIString = schema.getDataGraphURIString(repositoryName);
+        // The identifier variable name which will be used to retrieve data from
+        // the named graph.
+        String varName = identifier.getIdentifierVariableName(identifierType);
+        
+        switch (identifierType) {
+            // Category-A identifiers.
+            case arXivID: case DOI: case ISBN: case LCCN: case OCLC: case PMID:
+                dataSelectionQuery =
+        "PREFIX prop: <" + schema.getPropertyPath() + ">                \n" +
+        "                                                               \n" +
+        "SELECT                                                         \n" +
+        "    " + projection + "\n" +
+        "WHERE                                                          \n" +
+        "    {                                                          \n" +
+        "        GRAPH <" + graphURIString + ">                         \n" +
+        "            {?subject prop:" + varName + " ?" + varName + " .  \n" +
+        "             ?subject prop:title ?title .                      \n" +
+        "             OPTIONAL {?subject prop:year ?year .}}            \n" +
+        "    }                                                          \n";
+                break;
+            // Category-B identifiers.
+            case ISSN: case JournalTitle:
+                dataSelectionQuery =
+        "PREFIX prop: <" + schema.getPropertyPath() + ">                \n" +
+        "                                                               \n" +
+        "SELECT                                                         \n" +
+        "    " + projection + "\n" +
+        "WHERE                                                          \n" +
+        "    {                                                          \n" +
+        "        GRAPH <" + graphURIString + ">                         \n" +
+        "            {?subject prop:" + varName + " ?" + varName + " .  \n" +
+        "             ?subject prop:title ?title .                      \n" +
+        "             ?subject prop:year ?year .}                       \n" +
+        "    }                                                          \n";
+                break;
+        }
+        
+        return dataSelectionQuery;
+    }
+    
     /**
      * Saves the links retrieved by the data selection query into the specified
      * file.
@@ -1037,12 +2025,11 @@ public class DataLinker {
             String queryString = "?type=URL";
             // The URL that will be used to download the data.
             URL fileURL = new URL(doiURL, pathPart + queryString);
-            // A file where the downloaded data will be saved.
-            File file = new File(downloadPath.toString(), "doi_info.json");
             // Data download.
-            FileUtils.copyURLToFile(fileURL, file, connectTimeout, readTimeout);
-            // Gets the redirection address from the downloaded file.
-            urlString = getURLString(file);
+            byte[] content = httpTransport.getContent(fileURL, connectTimeout,
+                    readTimeout);
+            // Gets the redirection address from the downloaded content.
+            urlString = getURLString(content);
             consecutiveErrors = 0;
         }
         catch (java.io.FileNotFoundException ex) {
@@ -1058,17 +2045,17 @@ public class DataLinker {
     }
     
     /**
-     * Gets the doi.org redirection address from a downloaded json file.
-     * @param jsonFile The downloaded json file.
+     * Gets the doi.org redirection address from downloaded json content.
+     * @param jsonContent The downloaded json content.
      * @return The redirection address.
      */
-    private String getURLString(File jsonFile) {
+    private String getURLString(byte[] jsonContent) {
         String urlString = "";
-        FileOperation fileOperation = new FileOperation();
         
         try {    
-            // Reads the content of the json file.
-            String jsonString = fileOperation.getTextContent(jsonFile); 
+            // Reads the downloaded json content.
+            String jsonString = new String(jsonContent,
+                    StandardCharsets.UTF_8);
             JSONObject jsonObject = new JSONObject(jsonString);
             int responseCode = jsonObject.getInt("responseCode");
             
@@ -1188,4 +2175,289 @@ public class DataLinker {
         
         return parameterMissing;
     }
+    
+    /**
+     * Compares records with a group of records of the other source sharing
+     * their identifier (and year for the category-B identifiers) and adds the
+     * found links into a LinkWriter.
+     */
+    private class BlockLinker {
+        private final LinkWriter linkWriter;
+        // Determines if doi.org URL resolving will take place.
+        private final boolean resolveDOI;
+        // The category-A identified records are compared with their years
+        // (if exist), while the category-B ones are grouped by them.
+        private final boolean categoryAIdentifier;
+        private final ToleranceData toleranceData;
+        private final StringSimilaritySelector similaritySelector;
+        private final StringSimilarity stringSimilarity =
+                new StringSimilarity();
+        // Caches of the shingle profiles of the titles of the compared
+        // records and of the grouped records.
+        private final Map<String, ShingleProfile> probeShingleProfileCache =
+                getShingleProfileCache();
+        private final Map<String, ShingleProfile> blockShingleProfileCache =
+                getShingleProfileCache();
+        // The number of the hash functions of the MinHash signatures.
+        private int signatureSize = 0;
+        // The number of signature rows of each band. A zero value means that
+        // the groups are compared exhaustively.
+        private int rowsPerBand = 0;
+        private final int maxAllowedConsecutiveErrors =
+                doiResolverDLParameterData.getMaxAllowedConsecutiveErrors();
+        
+        /**
+         * @param linkWriter Collects the created links.
+         * @param resolveDOI Determines if doi.org URL resolving will take
+         * place.
+         * @param identifierType The type of the identifier shared by the
+         * compared records.
+         * @param toleranceData Data comparison tolerance parameters.
+         * @param similaritySelector The parameterized string similarity
+         * measure to be used.
+         */
+        public BlockLinker(LinkWriter linkWriter, boolean resolveDOI,
+                IdentifierType identifierType, ToleranceData toleranceData,
+                StringSimilaritySelector similaritySelector) {
+            this.linkWriter = linkWriter;
+            this.resolveDOI = resolveDOI;
+            this.categoryAIdentifier = !isCategoryBIdentifier(identifierType);
+            this.toleranceData = toleranceData;
+            this.similaritySelector = similaritySelector;
+            // The MinHash candidate generation is used for the category-B
+            // groups if its parameters are set.
+            if (!categoryAIdentifier && minHashParameterData != null) {
+                signatureSize = minHashParameterData.getSignatureSize();
+                rowsPerBand = stringSimilarity.getMinHashRowsPerBand(
+                        signatureSize, stringSimilarity.getMinimumJaccard(
+                                similaritySelector.getSimilarityType(),
+                                toleranceData.getTitleThreshold()),
+                        minHashParameterData.getRecall());
+                
+                if (rowsPerBand == 0)
+                    logger.logMessage("the selected similarity measure " +
+                            "can't be used for MinHash candidate generation, " +
+                            "all the pairs will be compared",
+                            MessageCategory.Warning);
+            }
+        }
+        
+        /**
+         * Compares a record with the records of a group and adds the found
+         * links.
+         * @param linkBlockData The group of records.
+         * @param probeRecord The compared record.
+         * @param blockFromSourceA A value indicating if the group contains
+         * source-A records, which provide the subjects of the links.
+         * @return A value indicating if the link creation can continue, which
+         * is false when the doi.org URL resolving errors exceed the maximum
+         * allowed.
+         */
+        public boolean linkRecord(LinkBlockData linkBlockData,
+                ExtractedData probeRecord, boolean blockFromSourceA)
+                throws RepositoryException {
+            List<ExtractedData> blockRecordList = linkBlockData.getRecordList();
+            ShingleProfile probeShingleProfile = getShingleProfile(
+                    probeRecord.getTitle(), probeShingleProfileCache,
+                    stringSimilarity, similaritySelector);
+            ShingleProfile blockShingleProfile;
+            ExtractedData blockRecord, recordA, recordB;
+            String blockSubjectString, subjectStringA, subjectStringB;
+            List<Integer> candidateList;
+            boolean linkFound;
+            // Creates the shingle profiles and the MinHash index of a
+            // category-B group the first time it is used.
+            if (!categoryAIdentifier &&
+                    linkBlockData.getShingleProfileList() == null)
+                prepareLinkBlock(linkBlockData, stringSimilarity,
+                        similaritySelector, signatureSize, rowsPerBand);
+            // Only the candidates of the MinHash index are compared, if the
+            // group has been indexed.
+            if (linkBlockData.getMinHashIndex() != null)
+                candidateList = linkBlockData.getMinHashIndex().getCandidates(
+                        stringSimilarity.getMinHashSignature(
+                                probeShingleProfile, signatureSize));
+            else
+                candidateList = null;
+            // The number of the grouped records to be compared.
+            int candidateCount = (candidateList != null) ?
+                    candidateList.size() : blockRecordList.size();
+            
+            for (int i = 0; i < candidateCount; i++) {
+                // The index of the compared record of the group.
+                int recordIndex = (candidateList != null) ?
+                        candidateList.get(i) : i;
+                blockRecord = blockRecordList.get(recordIndex);
+                // The record of source-A provides the subject and the record
+                // of source-B the object of the created link.
+                recordA = blockFromSourceA ? blockRecord : probeRecord;
+                recordB = blockFromSourceA ? probeRecord : blockRecord;
+                
+                if (consecutiveErrorsExceedMaxAllowed(consecutiveErrors,
+                        maxAllowedConsecutiveErrors))
+                    return false;
+                
+                if (categoryAIdentifier)
+                    linkFound = categoryALinkFound(new LinkCandidateData(
+                            recordA, recordB), stringSimilarity,
+                            blockFromSourceA ? blockShingleProfileCache :
+                                    probeShingleProfileCache,
+                            blockFromSourceA ? probeShingleProfileCache :
+                                    blockShingleProfileCache,
+                            toleranceData, similaritySelector);
+                else {
+                    blockShingleProfile = linkBlockData.
+                            getShingleProfileList().get(recordIndex);
+                    // If the string similarity coefficient of the titles based
+                    // on the selected string similarity measure is above the
+                    // specified threshold, then a link has been found.
+                    linkFound = stringSimilarity.exceedsThreshold(
+                            blockFromSourceA ? blockShingleProfile :
+                                    probeShingleProfile,
+                            blockFromSourceA ? probeShingleProfile :
+                                    blockShingleProfile,
+                            similaritySelector,
+                            toleranceData.getTitleThreshold());
+                }
+                
+                if (linkFound) {
+                    // The subject of the grouped record is read only for the
+                    // found links, since it may be kept in the URI dictionary.
+                    blockSubjectString = linkBlockData.getSubject(recordIndex);
+                    subjectStringA = blockFromSourceA ? blockSubjectString :
+                            probeRecord.getSubject();
+                    subjectStringB = blockFromSourceA ?
+                            probeRecord.getSubject() : blockSubjectString;
+                    // If the current subject or object URI can't be used for
+                    // the link creation, then they are omitted from it.
+                    if (subjectURIsMustBeRejected(subjectStringA,
+                            subjectStringB, resolveDOI))
+                        continue;
+                    // Adds the link into the batch sent to the repository.
+                    linkWriter.addLink(subjectStringA, subjectStringB);
+                }
+            }
+            
+            return true;
+        }
+        
+        /**
+         * @return The number of the created links.
+         */
+        public int getLinkCount() {
+            return linkWriter.getLinkCount();
+        }
+    }
+    
+    /**
+     * Collects the created links, sends them to the destination repository in
+     * batches and counts the unique ones.
+     */
+    private class LinkWriter {
+        // The name (alias) of the source-A repository.
+        private final String repositoryAName;
+        // The name (alias) of the source-B repository.
+        private final String repositoryBName;
+        // The type of the identifier used for the link creation.
+        private final IdentifierType identifierType;
+        // An identifier name for logging.
+        private final String identifierName;
+        private final ValueFactory valueFactory;
+        // The predicate URI of the created links.
+        private final URI predicateURI;
+        // A connection to the repository where the links will be saved.
+        private final RepositoryConnection repositoryConn;
+        // The links of the current batch.
+        private final Set<LinkData> linkDataSet = new HashSet<>();
+        // Assigns IDs to the subject and object URIs of the links for the
+        // whole run, so that they are never mixed with the IDs of another
+        // dictionary.
+        private final URIDictionary uriDictionary;
+        // Counts the unique created links.
+        private final LinkDeduplicator linkDeduplicator =
+                new LinkDeduplicator(linkCountBloomFilterParameterData);
+        // The number of times a message has been logged.
+        private int logCount = 0;
+        
+        /**
+         * @param repositoryAName The name (alias) of the source-A repository
+         * providing the subjects of the links.
+         * @param repositoryBName The name (alias) of the source-B repository
+         * providing the objects of the links.
+         * @param linkTypeURIString The URI string of the predicate which will
+         * be used to link a subject URI to an object URI.
+         * @param identifierType The type of the identifier used for the link
+         * creation.
+         * @param repositoryConn A connection to the repository where the links
+         * will be saved.
+         * @param uriDictionary The URI dictionary of the run, which may be
+         * shared with the indexed records of the link creation.
+         */
+        public LinkWriter(String repositoryAName, String repositoryBName,
+                String linkTypeURIString, IdentifierType identifierType,
+                RepositoryConnection repositoryConn,
+                URIDictionary uriDictionary) {
+            this.repositoryAName = repositoryAName;
+            this.uriDictionary = uriDictionary;
+            this.repositoryBName = repositoryBName;
+            this.identifierType = identifierType;
+            this.identifierName =
+                    new Identifier().getIdentifierName(identifierType);
+            this.repositoryConn = repositoryConn;
+            this.valueFactory = repositoryConn.getValueFactory();
+            // Creation of the predicate URI for the created links.
+            this.predicateURI = valueFactory.createURI(linkTypeURIString);
+        }
+        
+        /**
+         * Adds a created link and sends the collected links to the repository
+         * if they form a complete batch.
+         * @param subjectStringA The subject string of the link.
+         * @param subjectStringB The object string of the link.
+         * @return The number of the unique links created so far.
+         */
+        public int addLink(String subjectStringA, String subjectStringB)
+                throws RepositoryException {
+            // A link which has certainly been sent before is omitted. In the
+            // approximate mode every link is sent, since the Bloom filter may
+            // mistake a new link for an old one.
+            if (!linkDeduplicator.add(subjectStringA, subjectStringB) &&
+                    linkDeduplicator.isExact())
+                return getLinkCount();
+            // The subject and object are added into a list by their IDs.
+            linkDataSet.add(new LinkData(uriDictionary.getID(subjectStringA),
+                    uriDictionary.getID(subjectStringB)));
+            // The collected links will be sent to the repository as a batch.
+            if (linkDataSet.size() >= insertBatchSize) {
+                executeTransaction(linkDataSet, uriDictionary,
+                        repositoryAName, repositoryBName, predicateURI,
+                        repositoryConn, identifierType);
+                linkDataSet.clear();
+            }
+            
+            logCount = logLinkMessage(logCount, getLinkCount(),
+                    identifierName);
+            
+            return getLinkCount();
+        }
+        
+        /**
+         * Sends the remaining collected links to the repository.
+         */
+        public void flush() throws RepositoryException {
+            if (linkDataSet.size() > 0) {
+                executeTransaction(linkDataSet, uriDictionary,
+                        repositoryAName, repositoryBName, predicateURI,
+                        repositoryConn, identifierType);
+                linkDataSet.clear();
+            }
+        }
+        
+        /**
+         * @return The number of the unique links created so far.
+         */
+        public int getLinkCount() {
+            return (int) linkDeduplicator.getLinkCount();
+        }
+    }
 }
\ No newline at end of file
@@ -24,8 +24,6 @@ import java.io.File;
 import java.net.URL;
 import java.util.*;
 import java.util.concurrent.Callable;
-import org.apache.commons.io.FileUtils;
-import org.openrdf.model.URI;
 
 /**
  * A class containing the static classes of the project.
@@ -348,47 +346,49 @@ public class DataStructure {
     }
     
     /**
-     * A static class which can be used for created links.
+     * A static class which can be used for created links. The subject and
+     * object URIs are represented by their IDs in the URI dictionary of the
+     * link creation.
      */
     public static class LinkData {
-        private URI subjectURI = null;
-        private URI objectURI = null;
+        private int subjectID;
+        private int objectID;
         
         /**
-         * @param subjectURI The subject URI of a link.
-         * @param objectURI The object URI of a link.
+         * @param subjectID The ID of the subject URI of a link.
+         * @param objectID The ID of the object URI of a link.
          */
-        public LinkData(URI subjectURI, URI objectURI) {
-            this.subjectURI = subjectURI;
-            this.objectURI = objectURI;
+        public LinkData(int subjectID, int objectID) {
+            this.subjectID = subjectID;
+            this.objectID = objectID;
         }
         
         /**
-         * @return The subject URI of a link.
+         * @return The ID of the subject URI of a link.
          */
-        public URI getSubjectURI() {
-            return subjectURI;
+        public int getSubjectID() {
+            return subjectID;
         }
         
         /**
-         * @param subjectURI The subject URI of a link.
+         * @param subjectID The ID of the subject URI of a link.
          */
-        public void setSubjectURI(URI subjectURI) {
-            this.subjectURI = subjectURI;
+        public void setSubjectID(int subjectID) {
+            this.subjectID = subjectID;
         }
         
         /**
-         * @return The object URI of a link.
+         * @return The ID of the object URI of a link.
          */
-        public URI getObjectURI() {
-            return objectURI;
+        public int getObjectID() {
+            return objectID;
         }
         
         /**
-         * @param objectURI The object URI of a link.
+         * @param objectID The ID of the object URI of a link.
          */
-        public void setObjectURI(URI objectURI) {
-            this.objectURI = objectURI;
+        public void setObjectID(int objectID) {
+            this.objectID = objectID;
         }
         
         /**
@@ -397,9 +397,7 @@ public class DataStructure {
          */
         @Override
         public int hashCode() {
-            String combinedString = subjectURI.toString() + "_" +
-                    objectURI.toString();
-            return combinedString.hashCode();
+            return 31 * subjectID + objectID;
         }
         
         /**
@@ -415,11 +413,44 @@ public class DataStructure {
             
             LinkData linkData = (LinkData) obj;
             
-            return linkData.subjectURI.toString().equals(subjectURI.toString())
-                && linkData.objectURI.toString().equals(objectURI.toString());
+            return linkData.subjectID == subjectID &&
+                    linkData.objectID == objectID;
         }
     }
 
+    /**
+     * A static class which can be used for a pair of records retrieved from
+     * the link source and destination, whose titles and years will be compared.
+     */
+    public static class LinkCandidateData {
+        private ExtractedData recordA;
+        private ExtractedData recordB;
+        
+        /**
+         * @param recordA The record of the link source.
+         * @param recordB The record of the link destination.
+         */
+        public LinkCandidateData(ExtractedData recordA,
+                ExtractedData recordB) {
+            this.recordA = recordA;
+            this.recordB = recordB;
+        }
+        
+        /**
+         * @return The record of the link source.
+         */
+        public ExtractedData getRecordA() {
+            return recordA;
+        }
+        
+        /**
+         * @return The record of the link destination.
+         */
+        public ExtractedData getRecordB() {
+            return recordB;
+        }
+    }
+    
     /**
      * A static class which can be used to select a string similarity measure
      * and provide its parameters.
@@ -491,6 +522,36 @@ public class DataStructure {
         }
     }
     
+    /**
+     * A static class which can be used for the precomputed shingles of a
+     * string, so that they can be reused in multiple comparisons. The shingles
+     * are represented by sorted distinct numeric keys.
+     */
+    public static class ShingleProfile {
+        private long[] shingleKeys;
+        
+        /**
+         * @param shingleKeys The sorted distinct shingle keys of the string.
+         */
+        public ShingleProfile(long[] shingleKeys) {
+            this.shingleKeys = shingleKeys;
+        }
+        
+        /**
+         * @return The sorted distinct shingle keys of the string.
+         */
+        public long[] getShingleKeys() {
+            return shingleKeys;
+        }
+        
+        /**
+         * @return The number of distinct shingles of the string.
+         */
+        public int getShingleCount() {
+            return shingleKeys.length;
+        }
+    }
+    
     /**
      * A static class which can be used for the identifier chain data of the 
      * download APIs.
@@ -762,6 +823,252 @@ public class DataStructure {
         }
     }
 
+    /**
+     * A static class which can be used to provide the parameters of the
+     * MinHash candidate generation of the category-B identified data.
+     */
+    public static class MinHashParameterData {
+        private int signatureSize = 128;
+        private double recall = 0.95;
+        private int minBlockSize = 100;
+        
+        /**
+         * @param signatureSize The number of the hash functions of each MinHash
+         * signature.
+         * @param recall The probability of a pair of titles with a similarity
+         * equal to the title threshold becoming a candidate.
+         * @param minBlockSize The minimum number of records sharing an
+         * identifier and a year for the MinHash candidate generation to be
+         * used. Smaller groups are compared exhaustively.
+         */
+        public MinHashParameterData(int signatureSize, double recall,
+                int minBlockSize) {
+            if (signatureSize > 0)
+                this.signatureSize = signatureSize;
+            
+            if (recall > 0 && recall < 1)
+                this.recall = recall;
+            
+            if (minBlockSize >= 0)
+                this.minBlockSize = minBlockSize;
+        }
+        
+        /**
+         * @return The number of the hash functions of each MinHash signature.
+         */
+        public int getSignatureSize() {
+            return signatureSize;
+        }
+        
+        /**
+         * @param signatureSize The number of the hash functions of each MinHash
+         * signature.
+         */
+        public void setSignatureSize(int signatureSize) {
+            if (signatureSize > 0)
+                this.signatureSize = signatureSize;
+        }
+        
+        /**
+         * @return The probability of a pair of titles with a similarity equal
+         * to the title threshold becoming a candidate.
+         */
+        public double getRecall() {
+            return recall;
+        }
+        
+        /**
+         * @param recall The probability of a pair of titles with a similarity
+         * equal to the title threshold becoming a candidate.
+         */
+        public void setRecall(double recall) {
+            if (recall > 0 && recall < 1)
+                this.recall = recall;
+        }
+        
+        /**
+         * @return The minimum number of records sharing an identifier and a
+         * year for the MinHash candidate generation to be used.
+         */
+        public int getMinBlockSize() {
+            return minBlockSize;
+        }
+        
+        /**
+         * @param minBlockSize The minimum number of records sharing an
+         * identifier and a year for the MinHash candidate generation to be
+         * used.
+         */
+        public void setMinBlockSize(int minBlockSize) {
+            if (minBlockSize >= 0)
+                this.minBlockSize = minBlockSize;
+        }
+    }
+    
+    /**
+     * A static class which can be used to provide the parameters of a Bloom
+     * filter.
+     */
+    public static class BloomFilterParameterData {
+        private long expectedItemCount = 10000000;
+        private double falsePositiveRate = 0.001;
+        
+        /**
+         * @param expectedItemCount The expected number of the items added into
+         * the filter.
+         * @param falsePositiveRate The probability of an item which hasn't been
+         * added being reported as added, when the filter contains the expected
+         * number of items.
+         */
+        public BloomFilterParameterData(long expectedItemCount,
+                double falsePositiveRate) {
+            if (expectedItemCount > 0)
+                this.expectedItemCount = expectedItemCount;
+            
+            if (falsePositiveRate > 0 && falsePositiveRate < 1)
+                this.falsePositiveRate = falsePositiveRate;
+        }
+        
+        /**
+         * @return The expected number of the items added into the filter.
+         */
+        public long getExpectedItemCount() {
+            return expectedItemCount;
+        }
+        
+        /**
+         * @param expectedItemCount The expected number of the items added into
+         * the filter.
+         */
+        public void setExpectedItemCount(long expectedItemCount) {
+            if (expectedItemCount > 0)
+                this.expectedItemCount = expectedItemCount;
+        }
+        
+        /**
+         * @return The probability of an item which hasn't been added being
+         * reported as added.
+         */
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+        
+        /**
+         * @param falsePositiveRate The probability of an item which hasn't been
+         * added being reported as added, when the filter contains the expected
+         * number of items.
+         */
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            if (falsePositiveRate > 0 && falsePositiveRate < 1)
+                this.falsePositiveRate = falsePositiveRate;
+        }
+    }
+    
+    /**
+     * A static class which can be used for a group of records sharing the same
+     * join key during the link creation, accompanied by the shingle profiles
+     * of their titles and an optional MinHash index. The subjects of the
+     * records can be kept as IDs of a URI dictionary, when the group is kept
+     * in memory for the whole link creation.
+     */
+    public static class LinkBlockData {
+        private final List<ExtractedData> recordList = new ArrayList<>();
+        // (Optional) The dictionary of the subjects of the records.
+        private final URIDictionary uriDictionary;
+        // The IDs of the subjects of the records, if a dictionary is used.
+        private int[] subjectIDs = null;
+        private List<ShingleProfile> shingleProfileList = null;
+        private MinHashIndex minHashIndex = null;
+        
+        public LinkBlockData() {
+            this(null);
+        }
+        
+        /**
+         * @param uriDictionary (Optional) The dictionary where the subjects
+         * of the records are kept instead of the records.
+         */
+        public LinkBlockData(URIDictionary uriDictionary) {
+            this.uriDictionary = uriDictionary;
+        }
+        
+        /**
+         * Adds a record into the group. If a dictionary is used, the subject
+         * of the record is replaced by its ID.
+         * @param record The record.
+         */
+        public void addRecord(ExtractedData record) {
+            if (uriDictionary != null) {
+                if (subjectIDs == null)
+                    subjectIDs = new int[1];
+                else if (recordList.size() == subjectIDs.length)
+                    subjectIDs = Arrays.copyOf(subjectIDs,
+                            subjectIDs.length * 2);
+                
+                subjectIDs[recordList.size()] =
+                        uriDictionary.getID(record.getSubject());
+                // The subject is read from the dictionary by the getSubject
+                // method.
+                record.setSubject(null);
+            }
+            
+            recordList.add(record);
+        }
+        
+        /**
+         * @return The records of the group. Their subjects must be read by the
+         * getSubject method, and new records must be added by the addRecord
+         * method.
+         */
+        public List<ExtractedData> getRecordList() {
+            return recordList;
+        }
+        
+        /**
+         * Gets the subject of a record of the group.
+         * @param index The index of the record.
+         * @return The subject.
+         */
+        public String getSubject(int index) {
+            if (uriDictionary != null)
+                return uriDictionary.getURIString(subjectIDs[index]);
+            
+            return recordList.get(index).getSubject();
+        }
+        
+        /**
+         * @return The shingle profiles of the titles of the records, or null if
+         * they haven't been created yet.
+         */
+        public List<ShingleProfile> getShingleProfileList() {
+            return shingleProfileList;
+        }
+        
+        /**
+         * @param shingleProfileList The shingle profiles of the titles of the
+         * records.
+         */
+        public void setShingleProfileList(
+                List<ShingleProfile> shingleProfileList) {
+            this.shingleProfileList = shingleProfileList;
+        }
+        
+        /**
+         * @return The MinHash index of the titles of the records, or null if it
+         * hasn't been created.
+         */
+        public MinHashIndex getMinHashIndex() {
+            return minHashIndex;
+        }
+        
+        /**
+         * @param minHashIndex The MinHash index of the titles of the records.
+         */
+        public void setMinHashIndex(MinHashIndex minHashIndex) {
+            this.minHashIndex = minHashIndex;
+        }
+    }
+    
     /**
      * A static class which can be used to for the user-defined string
      * replacements.
@@ -1167,6 +1474,12 @@ public class DataStructure {
         private int downloadBatchSize;
         private int downloadDelay;
         private int insertBatchSize;
+        // The number of download batches that can be sent at once after an
+        // idle period, instead of one batch per download delay.
+        private int burstSize = 1;
+        // The number of times a download throttled by the API host (HTTP 429
+        // or 503) is repeated.
+        private int throttlingRetryCount = 5;
         
         /**
          * @param connectTimeout The connection timeout in milliseconds.
@@ -1236,6 +1549,39 @@ public class DataStructure {
         public void setDownloadDelay(int downloadDelay) {
             this.downloadDelay = downloadDelay;
         }
+        
+        /**
+         * @return The number of download batches that can be sent at once
+         * after an idle period.
+         */
+        public int getBurstSize() {
+            return burstSize;
+        }
+        
+        /**
+         * @param burstSize The number of download batches that can be sent at
+         * once after an idle period, instead of one batch per download delay.
+         */
+        public void setBurstSize(int burstSize) {
+            this.burstSize = Math.max(burstSize, 1);
+        }
+        
+        /**
+         * @return The number of times a download throttled by the API host is
+         * repeated.
+         */
+        public int getThrottlingRetryCount() {
+            return throttlingRetryCount;
+        }
+        
+        /**
+         * @param throttlingRetryCount The number of times a download throttled
+         * by the API host (HTTP 429 or 503) is repeated, after the pause
+         * requested by the host or an increasing pause.
+         */
+        public void setThrottlingRetryCount(int throttlingRetryCount) {
+            this.throttlingRetryCount = Math.max(throttlingRetryCount, 0);
+        }
     }
     
     /**
@@ -1377,7 +1723,9 @@ public class DataStructure {
     /**
      * A static class which can be used for parallel downloads from WorldCat.
      */
-    public static class WorldCatCallable implements Callable {
+    public static class WorldCatCallable implements Callable<Integer> {
+        private final HTTPTransport httpTransport;
+        private final RateLimiter rateLimiter;
         private final URL fileURL;
         private final File file;
         private final int connectTimeout;
@@ -1386,16 +1734,23 @@ public class DataStructure {
         private final int delayBetweenAttempts;
         
         /**
+         * @param httpTransport The HTTP transport used by the download.
+         * @param rateLimiter The rate limiter of the API host.
          * @param fileURL The URL of the file to be downloaded.
          * @param file The file for the downloaded content.
          * @param connectTimeout The connection timeout in milliseconds.
          * @param readTimeout The read timeout in milliseconds.
          * @param attemptCount The number of retries after a failed download.
-         * @param delayBetweenAttempts The delay in milliseconds between retries
-         * after a failed download.
-         */
-        public WorldCatCallable(URL fileURL, File file, int connectTimeout
-                ,int readTimeout, int attemptCount, int delayBetweenAttempts) {
+         * @param delayBetweenAttempts The delay in milliseconds before the
+         * first retry after a failed download, which is doubled for each
+         * further retry.
+         */
+        public WorldCatCallable(HTTPTransport httpTransport,
+                RateLimiter rateLimiter, URL fileURL, File file,
+                int connectTimeout, int readTimeout, int attemptCount,
+                int delayBetweenAttempts) {
+            this.httpTransport = httpTransport;
+            this.rateLimiter = rateLimiter;
             this.fileURL = fileURL;
             this.file = file;
             this.connectTimeout = connectTimeout;
@@ -1413,28 +1768,57 @@ public class DataStructure {
             int consecutiveErrors = 0;
             // Retries after a failed download.
             for (int i = 1; i <= attemptCount; i++) {
+                // Waits for the rate limiter of the API host.
+                rateLimiter.acquire();
+                // The download has been cancelled.
+                if (Thread.currentThread().isInterrupted())
+                    break;
+                
                 try {
                     // File download.
-                    FileUtils.copyURLToFile(fileURL, file, connectTimeout,
+                    httpTransport.copyToFile(fileURL, file, connectTimeout,
                             readTimeout);
+                    rateLimiter.reportSuccess();
                     consecutiveErrors = 0;
                     // In case of a successful download the loop will end.
                     break;
                 }
+                catch (HTTPTransport.HTTPStatusException ex1) {
+                    if (ex1.getThrottled())
+                        // Pauses all the downloads from the host instead of
+                        // this one only.
+                        rateLimiter.reportThrottling(ex1.getRetryAfter());
+                    else
+                        delayAttempt(i);
+                }
                 catch (Exception ex1) {
-                    try {
-                        // A delay between retries.
-                        Thread.sleep(delayBetweenAttempts);
-                    }
-                    catch (Exception ex2) {
-                    }
-                    
-                    if (i == attemptCount)
-                        consecutiveErrors++;  
+                    delayAttempt(i);
                 }
+                
+                if (i == attemptCount)
+                    consecutiveErrors++;
             }
             
             return consecutiveErrors;
-        } 
+        }
+        
+        /**
+         * Delays a retry after a failed download, doubling the delay after
+         * each failed attempt.
+         * @param attempt The number of the failed attempts.
+         */
+        private void delayAttempt(int attempt) {
+            if (attempt == attemptCount)
+                return;
+            
+            try {
+                // A delay between retries.
+                Thread.sleep(RateLimiter.getBackoffDelay(delayBetweenAttempts,
+                        attempt));
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 }
\ No newline at end of file
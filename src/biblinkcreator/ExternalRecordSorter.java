@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2017 David Nazarian
+ *
+ * This file is part of BibLinkCreator.
+ *
+ * BibLinkCreator is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BibLinkCreator is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with BibLinkCreator.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biblinkcreator;
+
+import biblinkcreator.DataStructure.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Sorts records by a key without keeping all of them in memory. The added
+ * records are sorted in runs of a fixed size which are written into temporary
+ * files, and the runs are merged while the sorted records are read.
+ * <br><br>
+ * Author: David Nazarian
+ * @author David Nazarian
+ */
+public class ExternalRecordSorter implements Closeable {
+    // The folder of the run files.
+    private final Path tempPath;
+    // The maximum number of records kept in memory before a run is written.
+    private final int runRecordCount;
+    // The records of the current run.
+    private List<SortEntry> entryList = new ArrayList<>();
+    // The files of the written runs.
+    private final List<File> runFileList = new ArrayList<>();
+    // The runs being merged, ordered by their current key.
+    private PriorityQueue<RunReader> runReaderQueue = null;
+    // The position of the current record when no run has been written.
+    private int entryIndex = -1;
+    // The current record of the sorted records.
+    private SortEntry currentEntry = null;
+    
+    /**
+     * @param tempPath The folder where the run files will be written.
+     * @param runRecordCount The maximum number of records kept in memory
+     * before a run is written.
+     */
+    public ExternalRecordSorter(Path tempPath, int runRecordCount) {
+        this.tempPath = tempPath;
+        this.runRecordCount = Math.max(runRecordCount, 1);
+    }
+    
+    /**
+     * Adds a record to be sorted.
+     * @param sortKey The key the record will be sorted by.
+     * @param record The record.
+     */
+    public void add(String sortKey, ExtractedData record) throws IOException {
+        entryList.add(new SortEntry(sortKey, record));
+        
+        if (entryList.size() >= runRecordCount)
+            writeRun();
+    }
+    
+    /**
+     * Finishes the addition of the records, so that they can be read in the
+     * order of their keys.
+     */
+    public void sort() throws IOException {
+        // All the records fit into a single run, so they are read from memory.
+        if (runFileList.isEmpty()) {
+            Collections.sort(entryList);
+            entryIndex = -1;
+            return;
+        }
+        
+        if (!entryList.isEmpty())
+            writeRun();
+        
+        runReaderQueue = new PriorityQueue<>(runFileList.size());
+        RunReader runReader;
+        
+        for (File runFile : runFileList) {
+            runReader = new RunReader(runFile);
+            // Empty runs are closed immediately.
+            if (runReader.next())
+                runReaderQueue.add(runReader);
+            else
+                runReader.close();
+        }
+    }
+    
+    /**
+     * Moves to the next record in the order of the keys.
+     * @return A value indicating if a next record exists.
+     */
+    public boolean next() throws IOException {
+        if (runReaderQueue == null) {
+            entryIndex++;
+            currentEntry = (entryIndex < entryList.size()) ?
+                    entryList.get(entryIndex) : null;
+        }
+        else {
+            RunReader runReader = runReaderQueue.poll();
+            
+            if (runReader == null)
+                currentEntry = null;
+            else {
+                currentEntry = runReader.getEntry();
+                // The run is put back in the queue with its next record.
+                if (runReader.next())
+                    runReaderQueue.add(runReader);
+                else
+                    runReader.close();
+            }
+        }
+        
+        return currentEntry != null;
+    }
+    
+    /**
+     * @return The key of the current record.
+     */
+    public String getSortKey() {
+        return currentEntry.sortKey;
+    }
+    
+    /**
+     * @return The current record.
+     */
+    public ExtractedData getRecord() {
+        return currentEntry.record;
+    }
+    
+    /**
+     * Closes the runs being merged and deletes their files.
+     */
+    @Override
+    public void close() {
+        if (runReaderQueue != null) {
+            for (RunReader runReader : runReaderQueue)
+                runReader.close();
+            
+            runReaderQueue.clear();
+        }
+        
+        for (File runFile : runFileList)
+            runFile.delete();
+        
+        runFileList.clear();
+        entryList = new ArrayList<>();
+    }
+    
+    /**
+     * Sorts the records of the current run and writes them into a new file.
+     */
+    private void writeRun() throws IOException {
+        Collections.sort(entryList);
+        File runFile = Files.createTempFile(tempPath, "run_", ".bin").toFile();
+        runFileList.add(runFile);
+        
+        try (DataOutputStream outputStream = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(runFile)))) {
+            outputStream.writeInt(entryList.size());
+            
+            for (SortEntry sortEntry : entryList) {
+                writeString(outputStream, sortEntry.sortKey);
+                writeString(outputStream, sortEntry.record.getSubject());
+                writeString(outputStream, sortEntry.record.getIdentifier());
+                writeString(outputStream, sortEntry.record.getTitle());
+                writeString(outputStream, sortEntry.record.getYear());
+            }
+        }
+        // The memory of the run is released.
+        entryList = new ArrayList<>();
+    }
+    
+    /**
+     * Writes a string of any length as UTF-8 bytes preceded by their number.
+     * @param outputStream The stream of the run file.
+     * @param string The string to be written.
+     */
+    static void writeString(DataOutputStream outputStream,
+            String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        outputStream.writeInt(bytes.length);
+        outputStream.write(bytes);
+    }
+    
+    /**
+     * Reads a string written by the writeString method.
+     * @param inputStream The stream of the run file.
+     * @return The read string.
+     */
+    static String readString(DataInputStream inputStream)
+            throws IOException {
+        byte[] bytes = new byte[inputStream.readInt()];
+        inputStream.readFully(bytes);
+        
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * A record and the key it is sorted by.
+     */
+    private static class SortEntry implements Comparable<SortEntry> {
+        private final String sortKey;
+        private final ExtractedData record;
+        
+        public SortEntry(String sortKey, ExtractedData record) {
+            this.sortKey = sortKey;
+            this.record = record;
+        }
+        
+        @Override
+        public int compareTo(SortEntry sortEntry) {
+            return sortKey.compareTo(sortEntry.sortKey);
+        }
+    }
+    
+    /**
+     * Reads the records of a run file in order.
+     */
+    private static class RunReader implements Comparable<RunReader> {
+        private final DataInputStream inputStream;
+        // The number of the records which haven't been read yet.
+        private int remainingCount;
+        private SortEntry entry = null;
+        
+        public RunReader(File runFile) throws IOException {
+            inputStream = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(runFile)));
+            remainingCount = inputStream.readInt();
+        }
+        
+        /**
+         * Reads the next record of the run.
+         * @return A value indicating if a next record exists.
+         */
+        public boolean next() throws IOException {
+            if (remainingCount == 0) {
+                entry = null;
+                return false;
+            }
+            
+            remainingCount--;
+            String sortKey = readString(inputStream);
+            entry = new SortEntry(sortKey, new ExtractedData(
+                    readString(inputStream), readString(inputStream),
+                    readString(inputStream), readString(inputStream)));
+            
+            return true;
+        }
+        
+        public SortEntry getEntry() {
+            return entry;
+        }
+        
+        public void close() {
+            try {
+                inputStream.close();
+            }
+            catch (Exception ex) {
+            }
+        }
+        
+        @Override
+        public int compareTo(RunReader runReader) {
+            return entry.compareTo(runReader.entry);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2017 David Nazarian
+ *
+ * This file is part of BibLinkCreator.
+ *
+ * BibLinkCreator is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BibLinkCreator is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with BibLinkCreator.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biblinkcreator;
+
+import biblinkcreator.DataStructure.*;
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Keeps the records retrieved from a source repository in a temporary file,
+ * so that they can be read again without querying the repository twice. The
+ * records are first written in the order of their retrieval and then read in
+ * the same order.
+ * <br><br>
+ * Author: David Nazarian
+ * @author David Nazarian
+ */
+public class ExtractionSpool implements Closeable {
+    // The temporary file of the records.
+    private final File spoolFile;
+    private DataOutputStream outputStream;
+    private DataInputStream inputStream = null;
+    // The number of the written records.
+    private int recordCount = 0;
+    // The number of the records which haven't been read yet.
+    private int remainingCount = 0;
+    
+    public ExtractionSpool() throws IOException {
+        spoolFile = Files.createTempFile("biblc_spool_", ".bin").toFile();
+        outputStream = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(spoolFile)));
+    }
+    
+    /**
+     * Writes a record.
+     * @param record The record, containing the formatted identifier and the
+     * title and the publication year as retrieved from the repository.
+     */
+    public void add(ExtractedData record) throws IOException {
+        ExternalRecordSorter.writeString(outputStream, record.getSubject());
+        ExternalRecordSorter.writeString(outputStream, record.getIdentifier());
+        ExternalRecordSorter.writeString(outputStream, record.getTitle());
+        ExternalRecordSorter.writeString(outputStream, record.getYear());
+        recordCount++;
+    }
+    
+    /**
+     * @return The number of the written records.
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+    
+    /**
+     * Finishes the writing of the records, so that they can be read from the
+     * first one.
+     */
+    public void rewind() throws IOException {
+        if (outputStream != null) {
+            outputStream.close();
+            outputStream = null;
+        }
+        
+        if (inputStream != null)
+            inputStream.close();
+        
+        inputStream = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(spoolFile)));
+        remainingCount = recordCount;
+    }
+    
+    /**
+     * Reads the next record.
+     * @return The next record, or null if all the records have been read.
+     */
+    public ExtractedData next() throws IOException {
+        if (remainingCount == 0)
+            return null;
+        
+        remainingCount--;
+        
+        return new ExtractedData(ExternalRecordSorter.readString(inputStream),
+                ExternalRecordSorter.readString(inputStream),
+                ExternalRecordSorter.readString(inputStream),
+                ExternalRecordSorter.readString(inputStream));
+    }
+    
+    /**
+     * Closes the file and deletes it.
+     */
+    @Override
+    public void close() {
+        try {
+            if (outputStream != null)
+                outputStream.close();
+            
+            if (inputStream != null)
+                inputStream.close();
+        }
+        catch (Exception ex) {
+        }
+        
+        spoolFile.delete();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,365 @@
+/*
+ * Copyright (C) 2017 David Nazarian
+ *
+ * This file is part of BibLinkCreator.
+ *
+ * BibLinkCreator is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BibLinkCreator is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with BibLinkCreator.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biblinkcreator;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import org.apache.commons.io.FileUtils;
+import org.apache.http.*;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.impl.client.*;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * Downloads content over HTTP through a pool of persistent connections, so
+ * that consecutive requests to the same host reuse the connections and their
+ * TLS sessions instead of opening new ones. The responses are requested
+ * compressed, and the number of connections per host is limited. A transport
+ * can be shared by several downloaders and threads.
+ * <br><br>
+ * Author: David Nazarian
+ * @author David Nazarian
+ */
+public class HTTPTransport implements Closeable {
+    // The characters other than letters and digits that are allowed in a
+    // URI, including the percent sign of the escaped characters.
+    private static final String ALLOWED_CHARACTERS =
+            "-._~:/?#[]@!$&'()*+,;=%";
+    // The maximum number of open connections.
+    private int maxConnections = 100;
+    // The maximum number of open connections to a single host.
+    private int maxConnectionsPerHost = 50;
+    // The maximum time (in milliseconds) an idle connection is kept open.
+    private volatile int keepAliveTime = 30000;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    // The client is created at the first request.
+    private CloseableHttpClient httpClient = null;
+    
+    public HTTPTransport() {
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+    }
+    
+    /**
+     * @return The maximum number of open connections.
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+    
+    /**
+     * @param maxConnections The maximum number of open connections.
+     */
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = Math.max(maxConnections, 1);
+        connectionManager.setMaxTotal(this.maxConnections);
+    }
+    
+    /**
+     * @return The maximum number of open connections to a single host.
+     */
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+    
+    /**
+     * @param maxConnectionsPerHost The maximum number of open connections to
+     * a single host. Further requests to the host wait for a free connection.
+     */
+    public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        this.maxConnectionsPerHost = Math.max(maxConnectionsPerHost, 1);
+        connectionManager.setDefaultMaxPerRoute(this.maxConnectionsPerHost);
+    }
+    
+    /**
+     * @return The maximum time (in milliseconds) an idle connection is kept
+     * open.
+     */
+    public int getKeepAliveTime() {
+        return keepAliveTime;
+    }
+    
+    /**
+     * @param keepAliveTime The maximum time (in milliseconds) an idle
+     * connection is kept open. A shorter time is used when the server
+     * requests it.
+     */
+    public void setKeepAliveTime(int keepAliveTime) {
+        this.keepAliveTime = Math.max(keepAliveTime, 0);
+    }
+    
+    /**
+     * Downloads the content of a URL into memory.
+     * @param url The URL of the content.
+     * @param connectTimeout The connection timeout (in milliseconds).
+     * @param readTimeout The read timeout (in milliseconds).
+     * @return The downloaded content.
+     */
+    public byte[] getContent(URL url, int connectTimeout, int readTimeout)
+            throws IOException {
+        return execute(url, connectTimeout, readTimeout,
+                entity -> EntityUtils.toByteArray(entity));
+    }
+    
+    /**
+     * Downloads the content of a URL into a file.
+     * @param url The URL of the content.
+     * @param file The file for the downloaded content.
+     * @param connectTimeout The connection timeout (in milliseconds).
+     * @param readTimeout The read timeout (in milliseconds).
+     */
+    public void copyToFile(URL url, File file, int connectTimeout,
+            int readTimeout) throws IOException {
+        execute(url, connectTimeout, readTimeout, entity -> {
+            try (InputStream inputStream = entity.getContent()) {
+                FileUtils.copyInputStreamToFile(inputStream, file);
+            }
+            
+            return null;
+        });
+    }
+    
+    /**
+     * Closes the open connections.
+     */
+    @Override
+    public synchronized void close() {
+        if (httpClient == null) {
+            connectionManager.shutdown();
+            return;
+        }
+        
+        try {
+            httpClient.close();
+        }
+        catch (IOException ex) {
+        }
+    }
+    
+    /**
+     * Creates the client at the first request, so that an unused transport
+     * doesn't start the thread that closes the expired connections.
+     * @return The HTTP client.
+     */
+    private synchronized CloseableHttpClient getHttpClient() {
+        if (httpClient == null)
+            // The content compression is enabled by default, and the proxy
+            // settings of the system are used like in URL connections.
+            httpClient = HttpClients.custom().
+                    setConnectionManager(connectionManager).
+                    setKeepAliveStrategy(this::getKeepAliveDuration).
+                    evictExpiredConnections().
+                    useSystemProperties().
+                    build();
+        
+        return httpClient;
+    }
+    
+    /**
+     * Sends a GET request and reads the content of its response. The
+     * connection is returned to the pool after the content has been read.
+     * @param url The requested URL.
+     * @param connectTimeout The connection timeout (in milliseconds).
+     * @param readTimeout The read timeout (in milliseconds).
+     * @param contentReader Reads the content of a successful response.
+     * @return The result of the content reader.
+     */
+    private <T> T execute(URL url, int connectTimeout, int readTimeout,
+            ContentReader<T> contentReader) throws IOException {
+        HttpGet request;
+        
+        try {
+            request = new HttpGet(getURI(url));
+        }
+        catch (URISyntaxException ex) {
+            throw new IOException(ex.getMessage(), ex);
+        }
+        
+        request.setConfig(RequestConfig.custom().
+                setConnectTimeout(connectTimeout).
+                setSocketTimeout(readTimeout).
+                build());
+        
+        ResponseHandler<T> responseHandler = response -> {
+            int statusCode = response.getStatusLine().getStatusCode();
+            // The errors are reported like in URL connections.
+            if (statusCode == HttpStatus.SC_NOT_FOUND ||
+                    statusCode == HttpStatus.SC_GONE)
+                throw new FileNotFoundException(url.toString());
+            
+            if (statusCode >= 400)
+                throw new HTTPStatusException(statusCode,
+                        getRetryAfter(response), url);
+            
+            HttpEntity entity = response.getEntity();
+            
+            if (entity == null)
+                throw new IOException("No content returned for URL: " +
+                        url.toString());
+            
+            return contentReader.read(entity);
+        };
+        
+        return getHttpClient().execute(request, responseHandler);
+    }
+    
+    /**
+     * Converts a URL into a URI, escaping the characters that are not allowed
+     * in a URI, like the delimiters of some identifier chains. The escaped
+     * characters of the URL are kept as they are.
+     * @param url The URL.
+     * @return The URI.
+     */
+    private static URI getURI(URL url) throws URISyntaxException {
+        String urlString = url.toString();
+        StringBuilder uriBuilder = new StringBuilder(urlString.length());
+        char c;
+        
+        for (int i = 0; i < urlString.length(); i++) {
+            c = urlString.charAt(i);
+            
+            if (c < 0x80 && (Character.isLetterOrDigit(c) ||
+                    ALLOWED_CHARACTERS.indexOf(c) >= 0))
+                uriBuilder.append(c);
+            else {
+                // Escapes the UTF-8 bytes of the character, along with its
+                // low surrogate.
+                int end = (Character.isHighSurrogate(c) &&
+                        i + 1 < urlString.length()) ? i + 2 : i + 1;
+                
+                for (byte b : urlString.substring(i, end).getBytes(
+                        StandardCharsets.UTF_8))
+                    uriBuilder.append('%').append(String.format("%02X",
+                            b & 0xFF));
+                
+                i = end - 1;
+            }
+        }
+        
+        return new URI(uriBuilder.toString());
+    }
+    
+    /**
+     * Gets the time a connection can be kept open after a response, which is
+     * limited by the keepAliveTime value.
+     * @param response The response.
+     * @param context The context of the request.
+     * @return The time (in milliseconds).
+     */
+    private long getKeepAliveDuration(HttpResponse response,
+            HttpContext context) {
+        long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.
+                getKeepAliveDuration(response, context);
+        // The server hasn't specified a keep-alive time.
+        if (duration < 0)
+            return keepAliveTime;
+        
+        return Math.min(duration, keepAliveTime);
+    }
+    
+    /**
+     * Reads the pause requested by the server in the Retry-After header of a
+     * response, which is written in seconds or as an HTTP date.
+     * @param response The response.
+     * @return The pause (in milliseconds), or -1 if it hasn't been specified.
+     */
+    private static long getRetryAfter(HttpResponse response) {
+        Header header = response.getFirstHeader("Retry-After");
+        
+        if (header == null)
+            return -1;
+        
+        String value = header.getValue().trim();
+        
+        try {
+            return Math.max(Long.parseLong(value) * 1000, 0);
+        }
+        catch (NumberFormatException ex) {
+        }
+        
+        Date date = DateUtils.parseDate(value);
+        
+        if (date == null)
+            return -1;
+        
+        return Math.max(date.getTime() - System.currentTimeMillis(), 0);
+    }
+    
+    /**
+     * An error status returned by a server, which is reported like in URL
+     * connections.
+     */
+    public static class HTTPStatusException extends IOException {
+        private static final long serialVersionUID = 1L;
+        private final int statusCode;
+        private final long retryAfter;
+        
+        /**
+         * @param statusCode The status code of the response.
+         * @param retryAfter The pause (in milliseconds) requested by the
+         * server, or -1 if it hasn't been specified.
+         * @param url The requested URL.
+         */
+        public HTTPStatusException(int statusCode, long retryAfter, URL url) {
+            super("Server returned HTTP response code: " + statusCode +
+                    " for URL: " + url.toString());
+            this.statusCode = statusCode;
+            this.retryAfter = retryAfter;
+        }
+        
+        /**
+         * @return The status code of the response.
+         */
+        public int getStatusCode() {
+            return statusCode;
+        }
+        
+        /**
+         * @return The pause (in milliseconds) requested by the server, or -1
+         * if it hasn't been specified.
+         */
+        public long getRetryAfter() {
+            return retryAfter;
+        }
+        
+        /**
+         * @return A value indicating if the request has been throttled by the
+         * server (HTTP 429 or 503), so that it can be repeated later.
+         */
+        public boolean getThrottled() {
+            return statusCode == 429 ||
+                    statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE;
+        }
+    }
+    
+    /**
+     * Reads the content of a successful response.
+     */
+    private interface ContentReader<T> {
+        public T read(HttpEntity entity) throws IOException;
+    }
+}
\ No newline at end of file
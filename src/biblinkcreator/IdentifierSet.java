@@ -0,0 +1,338 @@
+/*
+ * Copyright (C) 2017 David Nazarian
+ *
+ * This file is part of BibLinkCreator.
+ *
+ * BibLinkCreator is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BibLinkCreator is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with BibLinkCreator.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biblinkcreator;
+
+import biblinkcreator.Identifier.*;
+import java.util.*;
+
+/**
+ * A compact set of identifier strings. The numeric identifiers (ISBN, ISSN,
+ * OCLC and PMID) are stored as primitive long values and the rest of them as
+ * UTF-8 bytes in a single array, instead of a String object and a hash map
+ * entry for each identifier. Identifiers can only be added, and the set can be
+ * read by more than one thread while none are added.
+ * <br><br>
+ * Author: David Nazarian
+ * @author David Nazarian
+ */
+public abstract class IdentifierSet extends AbstractSet<String> {
+    /**
+     * Creates an empty identifier set suitable for an identifier type.
+     * @param identifierType The type of the identifiers.
+     * @return The identifier set.
+     */
+    public static IdentifierSet create(IdentifierType identifierType) {
+        switch (identifierType) {
+            case ISBN:
+            case ISSN:
+            case OCLC:
+            case PMID:
+                return new NumericIdentifierSet();
+            default:
+                return new ArenaIdentifierSet();
+        }
+    }
+    
+    @Override
+    public boolean contains(Object o) {
+        return (o instanceof String) && containsIdentifier((String) o);
+    }
+    
+    /**
+     * @param identifier The identifier string.
+     * @return A value indicating if the set contains the identifier.
+     */
+    protected abstract boolean containsIdentifier(String identifier);
+    
+    /**
+     * A set of identifier strings stored as UTF-8 bytes in a single array.
+     * The strings containing unpaired surrogates, which can't be converted to
+     * UTF-8 and back, are stored in a hash set.
+     */
+    private static class ArenaIdentifierSet extends IdentifierSet {
+        // Stores each distinct string once.
+        private final URIDictionary dictionary = new URIDictionary();
+        // The strings which can't be stored as UTF-8 bytes.
+        private Set<String> otherSet = null;
+        
+        @Override
+        public boolean add(String identifier) {
+            if (!isUTF8Convertible(identifier)) {
+                if (otherSet == null)
+                    otherSet = new HashSet<>();
+                
+                return otherSet.add(identifier);
+            }
+            
+            int size = dictionary.size();
+            dictionary.getID(identifier);
+            
+            return dictionary.size() > size;
+        }
+        
+        @Override
+        protected boolean containsIdentifier(String identifier) {
+            if (!isUTF8Convertible(identifier))
+                return otherSet != null && otherSet.contains(identifier);
+            
+            return dictionary.findID(identifier) > -1;
+        }
+        
+        @Override
+        public int size() {
+            return dictionary.size() +
+                    ((otherSet != null) ? otherSet.size() : 0);
+        }
+        
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int id = 0;
+                private Iterator<String> otherIterator = null;
+                
+                @Override
+                public boolean hasNext() {
+                    if (id < dictionary.size())
+                        return true;
+                    // The stored strings are followed by the other strings.
+                    if (otherIterator == null)
+                        otherIterator = (otherSet != null) ?
+                                otherSet.iterator() :
+                                Collections.<String>emptyIterator();
+                    
+                    return otherIterator.hasNext();
+                }
+                
+                @Override
+                public String next() {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    
+                    if (id < dictionary.size())
+                        return dictionary.getURIString(id++);
+                    
+                    return otherIterator.next();
+                }
+            };
+        }
+        
+        /**
+         * Determines if a string can be converted to UTF-8 bytes and back
+         * without changes, i.e. it doesn't contain unpaired surrogates.
+         * @param identifier The identifier string.
+         * @return A value indicating if the string is convertible.
+         */
+        private static boolean isUTF8Convertible(String identifier) {
+            char c;
+            
+            for (int i = 0; i < identifier.length(); i++) {
+                c = identifier.charAt(i);
+                
+                if (Character.isHighSurrogate(c)) {
+                    if (i + 1 == identifier.length() ||
+                            !Character.isLowSurrogate(identifier.charAt(i + 1)))
+                        return false;
+                    
+                    i++;
+                }
+                else if (Character.isLowSurrogate(c))
+                    return false;
+            }
+            
+            return true;
+        }
+    }
+    
+    /**
+     * A set of identifier strings stored as long values. A string of up to 17
+     * digits is stored as its value together with its length, so that its
+     * leading zeros are kept. Any other string is stored in an arena set.
+     */
+    private static class NumericIdentifierSet extends IdentifierSet {
+        // The maximum number of digits of a string stored as a long value.
+        private static final int MAX_DIGIT_COUNT = 17;
+        // The position of the length of the string in a long value.
+        private static final int LENGTH_SHIFT = 57;
+        private static final long VALUE_MASK = (1L << LENGTH_SHIFT) - 1;
+        // The open-addressing table of the values, where 0 marks an empty
+        // slot. A value is never 0, since it contains the length of its
+        // string.
+        private long[] table = new long[1024];
+        // The number of the stored values.
+        private int valueCount = 0;
+        // The strings which can't be stored as values.
+        private ArenaIdentifierSet otherSet = null;
+        
+        @Override
+        public boolean add(String identifier) {
+            long value = encode(identifier);
+            
+            if (value == 0) {
+                if (otherSet == null)
+                    otherSet = new ArenaIdentifierSet();
+                
+                return otherSet.add(identifier);
+            }
+            
+            int slot = findSlot(table, value);
+            
+            if (table[slot] == value)
+                return false;
+            
+            table[slot] = value;
+            valueCount++;
+            // The table grows when it becomes more than 3/4 full.
+            if (valueCount > table.length / 4 * 3)
+                resizeTable();
+            
+            return true;
+        }
+        
+        @Override
+        protected boolean containsIdentifier(String identifier) {
+            long value = encode(identifier);
+            
+            if (value == 0)
+                return otherSet != null && otherSet.containsIdentifier(
+                        identifier);
+            
+            return table[findSlot(table, value)] == value;
+        }
+        
+        @Override
+        public int size() {
+            return valueCount + ((otherSet != null) ? otherSet.size() : 0);
+        }
+        
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                // The next slot of the table to be checked.
+                private int slot = 0;
+                private Iterator<String> otherIterator = null;
+                
+                @Override
+                public boolean hasNext() {
+                    while (slot < table.length && table[slot] == 0)
+                        slot++;
+                    
+                    if (slot < table.length)
+                        return true;
+                    // The values are followed by the other strings.
+                    if (otherIterator == null)
+                        otherIterator = (otherSet != null) ?
+                                otherSet.iterator() :
+                                Collections.<String>emptyIterator();
+                    
+                    return otherIterator.hasNext();
+                }
+                
+                @Override
+                public String next() {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    
+                    if (slot < table.length)
+                        return decode(table[slot++]);
+                    
+                    return otherIterator.next();
+                }
+            };
+        }
+        
+        /**
+         * Converts a string of digits to a long value.
+         * @param identifier The identifier string.
+         * @return The value, or 0 if the string can't be stored as a value.
+         */
+        private static long encode(String identifier) {
+            int length = identifier.length();
+            
+            if (length == 0 || length > MAX_DIGIT_COUNT)
+                return 0;
+            
+            long value = 0;
+            char c;
+            
+            for (int i = 0; i < length; i++) {
+                c = identifier.charAt(i);
+                
+                if (c < '0' || c > '9')
+                    return 0;
+                
+                value = value * 10 + (c - '0');
+            }
+            
+            return ((long) length << LENGTH_SHIFT) | value;
+        }
+        
+        /**
+         * Converts a long value back to its string of digits.
+         * @param value The value.
+         * @return The identifier string.
+         */
+        private static String decode(long value) {
+            char[] digits = new char[(int) (value >>> LENGTH_SHIFT)];
+            long number = value & VALUE_MASK;
+            // The digits are written from the end, so that the leading zeros
+            // are kept.
+            for (int i = digits.length - 1; i >= 0; i--) {
+                digits[i] = (char) ('0' + number % 10);
+                number /= 10;
+            }
+            
+            return new String(digits);
+        }
+        
+        /**
+         * Finds the slot of a value, or the empty slot where it can be added.
+         * @param table The table of the values.
+         * @param value The value.
+         * @return The slot.
+         */
+        private static int findSlot(long[] table, long value) {
+            int slotMask = table.length - 1;
+            // Spreads the bits of the value (MurmurHash3 finalizer).
+            long hash = value;
+            hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+            hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+            hash ^= hash >>> 33;
+            int slot = (int) hash & slotMask;
+            
+            while (table[slot] != 0 && table[slot] != value)
+                slot = (slot + 1) & slotMask;
+            
+            return slot;
+        }
+        
+        /**
+         * Doubles the size of the table of the values.
+         */
+        private void resizeTable() {
+            long[] resizedTable = new long[table.length * 2];
+            
+            for (long value : table) {
+                if (value != 0)
+                    resizedTable[findSlot(resizedTable, value)] = value;
+            }
+            
+            table = resizedTable;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2017 David Nazarian
+ *
+ * This file is part of BibLinkCreator.
+ *
+ * BibLinkCreator is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BibLinkCreator is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with BibLinkCreator.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biblinkcreator;
+
+import biblinkcreator.Identifier.*;
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Keeps the identifiers saved in a named graph of the destination repository
+ * in a local file, so that they don't have to be retrieved from the
+ * repository before each extraction. The identifiers of the inserted records
+ * are appended to the file after each transaction, and the file is read
+ * through a memory mapping. A record cut by an interrupted append is
+ * discarded, so that the file may miss some saved identifiers but never
+ * contains unsaved ones.
+ * <br><br>
+ * Author: David Nazarian
+ * @author David Nazarian
+ */
+public class IdentifierSnapshot {
+    // Identifies the format of the snapshot files.
+    private static final String FORMAT_NAME = "biblc_identifier_snapshot_1";
+    // The maximum size of the file region mapped at a time.
+    private static final int MAPPING_SIZE = 64 * 1024 * 1024;
+    // The snapshot file.
+    private final Path snapshotPath;
+    // The named graph of the identifiers.
+    private final String graphURIString;
+    private final IdentifierType identifierType;
+    private final String identifierVariableName;
+    // The length of the complete records of the file, or -1 if the file
+    // hasn't been read or written yet.
+    private long validLength = -1;
+    
+    /**
+     * @param folderPath The folder of the snapshot files.
+     * @param graphURIString The named graph of the destination repository
+     * where the identifiers are saved.
+     * @param identifierType The type of the identifiers.
+     */
+    public IdentifierSnapshot(Path folderPath, String graphURIString,
+            IdentifierType identifierType) {
+        this.graphURIString = graphURIString;
+        this.identifierType = identifierType;
+        identifierVariableName =
+                new Identifier().getIdentifierVariableName(identifierType);
+        // The file name is derived from the named graph and the identifier
+        // type, since the graph URI may contain any character.
+        snapshotPath = folderPath.resolve("biblc_" + UUID.nameUUIDFromBytes(
+                graphURIString.getBytes(StandardCharsets.UTF_8)) + "_" +
+                identifierVariableName + ".ids");
+    }
+    
+    /**
+     * @return The snapshot file.
+     */
+    public Path getSnapshotPath() {
+        return snapshotPath;
+    }
+    
+    /**
+     * Reads the identifiers of the snapshot file.
+     * @return The identifiers, or null if the file doesn't exist or it
+     * belongs to another named graph or identifier type.
+     */
+    public Set<String> load() throws IOException {
+        if (!Files.isRegularFile(snapshotPath))
+            return null;
+        
+        try (FileChannel channel = FileChannel.open(snapshotPath,
+                StandardOpenOption.READ)) {
+            SnapshotReader reader = new SnapshotReader(channel);
+            // The header must match the named graph and the identifier type.
+            if (!FORMAT_NAME.equals(reader.readString()) ||
+                    !graphURIString.equals(reader.readString()) ||
+                    !identifierVariableName.equals(reader.readString()))
+                return null;
+            
+            Set<String> identifierSet = IdentifierSet.create(identifierType);
+            String identifierString;
+            long length = reader.getPosition();
+            
+            while ((identifierString = reader.readString()) != null) {
+                identifierSet.add(identifierString);
+                length = reader.getPosition();
+            }
+            
+            validLength = length;
+            
+            return identifierSet;
+        }
+    }
+    
+    /**
+     * Replaces the snapshot file with a file containing the provided
+     * identifiers.
+     * @param identifierSet The identifiers saved in the named graph.
+     */
+    public void write(Set<String> identifierSet) throws IOException {
+        Files.createDirectories(snapshotPath.getParent());
+        // The new file is written next to the old one, which is replaced only
+        // if the writing succeeds.
+        Path tempPath = Files.createTempFile(snapshotPath.getParent(),
+                "biblc_snapshot_", ".tmp");
+        
+        try {
+            try (DataOutputStream outputStream = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(
+                    tempPath)))) {
+                writeHeader(outputStream);
+                
+                for (String identifierString : identifierSet)
+                    ExternalRecordSorter.writeString(outputStream,
+                            identifierString);
+            }
+            
+            Files.move(tempPath, snapshotPath,
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally {
+            Files.deleteIfExists(tempPath);
+        }
+        
+        validLength = Files.size(snapshotPath);
+    }
+    
+    /**
+     * Appends the identifiers of inserted records to the snapshot file. The
+     * file must have been read or written first.
+     * @param identifierCollection The identifiers of the inserted records.
+     */
+    public void append(Collection<String> identifierCollection)
+            throws IOException {
+        if (validLength < 0)
+            throw new IllegalStateException(
+                    "The identifier snapshot has not been read or written");
+        
+        try (FileChannel channel = FileChannel.open(snapshotPath,
+                StandardOpenOption.WRITE)) {
+            // Removes a record cut by an interrupted append.
+            if (channel.size() > validLength)
+                channel.truncate(validLength);
+            
+            channel.position(validLength);
+            DataOutputStream outputStream = new DataOutputStream(
+                    new BufferedOutputStream(
+                    Channels.newOutputStream(channel)));
+            
+            for (String identifierString : identifierCollection)
+                ExternalRecordSorter.writeString(outputStream,
+                        identifierString);
+            
+            outputStream.flush();
+            validLength = channel.position();
+        }
+    }
+    
+    /**
+     * Writes the header of a snapshot file.
+     * @param outputStream The stream of the snapshot file.
+     */
+    private void writeHeader(DataOutputStream outputStream)
+            throws IOException {
+        ExternalRecordSorter.writeString(outputStream, FORMAT_NAME);
+        ExternalRecordSorter.writeString(outputStream, graphURIString);
+        ExternalRecordSorter.writeString(outputStream, identifierVariableName);
+    }
+    
+    /**
+     * Reads the strings of a snapshot file through memory mappings of its
+     * consecutive regions.
+     */
+    private static class SnapshotReader {
+        private final FileChannel channel;
+        private final long size;
+        // The position of the current mapping in the file.
+        private long mappingPosition = 0;
+        private MappedByteBuffer buffer = null;
+        
+        public SnapshotReader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            size = channel.size();
+        }
+        
+        /**
+         * @return The position of the next string in the file.
+         */
+        public long getPosition() {
+            return (buffer == null) ? 0 : mappingPosition + buffer.position();
+        }
+        
+        /**
+         * Reads a string written by the writeString method of the
+         * ExternalRecordSorter class.
+         * @return The string, or null if the end of the file or a cut string
+         * has been reached.
+         */
+        public String readString() throws IOException {
+            if (!ensureRemaining(4))
+                return null;
+            
+            int length = buffer.getInt();
+            
+            if (length < 0 || !ensureRemaining(length))
+                return null;
+            
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        
+        /**
+         * Maps the next region of the file if the current mapping doesn't
+         * contain the requested number of bytes.
+         * @param count The number of bytes.
+         * @return False if the file doesn't contain the requested number of
+         * bytes, otherwise true.
+         */
+        private boolean ensureRemaining(int count) throws IOException {
+            if (buffer != null && buffer.remaining() >= count)
+                return true;
+            
+            long position = getPosition();
+            
+            if (size - position < count)
+                return false;
+            // The new mapping starts at the current position and contains at
+            // least the requested bytes.
+            mappingPosition = position;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(size - position, Math.max(MAPPING_SIZE, count)));
+            
+            return true;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2017 David Nazarian
+ *
+ * This file is part of BibLinkCreator.
+ *
+ * BibLinkCreator is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BibLinkCreator is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with BibLinkCreator.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biblinkcreator;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import org.openrdf.model.*;
+import org.openrdf.rio.ntriples.NTriplesUtil;
+
+/**
+ * Keeps the identifiers retrieved from a source repository, as SPARQL terms,
+ * along with their formatted values, so that the records of a set of
+ * formatted identifiers can be retrieved by queries restricted with VALUES
+ * blocks instead of a query retrieving all the records. The identifiers are
+ * written in a temporary file, since the matched ones are known only after
+ * all the sources have been read, and only the terms of the matched ones are
+ * kept in memory.
+ * <br><br>
+ * Author: David Nazarian
+ * @author David Nazarian
+ */
+public class IdentifierTermIndex implements Closeable {
+    // The temporary file of the SPARQL terms of the retrieved values and
+    // their formatted identifiers.
+    private final File termFile;
+    private DataOutputStream outputStream;
+    // The number of the records retrieved from the source repository.
+    private int recordCount = 0;
+    // Indicates if all the added identifiers can be written as SPARQL terms.
+    private boolean expressible = true;
+    // The number of the terms written in the file.
+    private int termCount = 0;
+    
+    public IdentifierTermIndex() throws IOException {
+        termFile = Files.createTempFile("biblc_terms_", ".bin").toFile();
+        outputStream = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(termFile)));
+    }
+    
+    /**
+     * Adds the identifier of the next retrieved record.
+     * @param identifierValue The identifier as retrieved from the source
+     * repository, or null if the record will not be inserted.
+     * @param identifierString The formatted identifier, or null if the record
+     * will not be inserted.
+     */
+    public void add(Value identifierValue, String identifierString)
+            throws IOException {
+        recordCount++;
+        
+        if (identifierValue == null || identifierString == null)
+            return;
+        
+        String term = getTerm(identifierValue);
+        // The records of a blank node or an invalid IRI cannot be matched by
+        // a VALUES block.
+        if (term == null)
+            expressible = false;
+        else {
+            ExternalRecordSorter.writeString(outputStream, term);
+            ExternalRecordSorter.writeString(outputStream, identifierString);
+            termCount++;
+        }
+    }
+    
+    /**
+     * @return The number of the records retrieved from the source repository.
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+    
+    /**
+     * @return A value indicating if all the added identifiers can be written
+     * as SPARQL terms.
+     */
+    public boolean getExpressible() {
+        return expressible;
+    }
+    
+    /**
+     * Gets the SPARQL terms of the retrieved identifiers whose formatted
+     * values are contained in a provided identifier set. No more identifiers
+     * can be added afterwards.
+     * @param identifierSet The formatted identifiers.
+     * @return The unique SPARQL terms.
+     */
+    public List<String> getTermList(Set<String> identifierSet)
+            throws IOException {
+        if (outputStream != null) {
+            outputStream.close();
+            outputStream = null;
+        }
+        // A term retrieved by more than one record is kept once.
+        Set<String> termSet = new LinkedHashSet<>();
+        String term;
+        
+        try (DataInputStream inputStream = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(termFile)))) {
+            for (int i = 0; i < termCount; i++) {
+                term = ExternalRecordSorter.readString(inputStream);
+                
+                if (identifierSet.contains(
+                        ExternalRecordSorter.readString(inputStream)))
+                    termSet.add(term);
+            }
+        }
+        
+        return new ArrayList<>(termSet);
+    }
+    
+    /**
+     * Closes the file and deletes it.
+     */
+    @Override
+    public void close() {
+        try {
+            if (outputStream != null)
+                outputStream.close();
+        }
+        catch (Exception ex) {
+        }
+        
+        termFile.delete();
+    }
+    
+    /**
+     * Restricts a SPARQL query to a list of values of a variable, by adding a
+     * VALUES block at the beginning of its outermost group graph pattern.
+     * @param query The SPARQL query.
+     * @param variableName The name of the variable.
+     * @param termList The SPARQL terms of the values.
+     * @return The restricted query, or null if no group graph pattern has
+     * been found.
+     */
+    public static String getValuesQuery(String query, String variableName,
+            List<String> termList) {
+        int groupIndex = getGroupIndex(query);
+        
+        if (groupIndex < 0)
+            return null;
+        
+        StringBuilder queryBuilder = new StringBuilder(query.length() +
+                termList.size() * 24 + 32);
+        queryBuilder.append(query, 0, groupIndex + 1);
+        queryBuilder.append("\n    VALUES ?").append(variableName).
+                append(" {");
+        
+        for (String term : termList)
+            queryBuilder.append(' ').append(term);
+        
+        queryBuilder.append(" }\n");
+        queryBuilder.append(query, groupIndex + 1, query.length());
+        
+        return queryBuilder.toString();
+    }
+    
+    /**
+     * Finds the opening brace of the outermost group graph pattern of a
+     * SPARQL query, skipping the IRIs, the strings and the comments of its
+     * prologue and select clause.
+     * @param query The SPARQL query.
+     * @return The position of the brace, or -1 if it isn't found.
+     */
+    private static int getGroupIndex(String query) {
+        int i = 0;
+        char c;
+        
+        while (i < query.length()) {
+            c = query.charAt(i);
+            
+            if (c == '{')
+                return i;
+            
+            if (c == '#') {
+                // Skips a comment.
+                while (i < query.length() && query.charAt(i) != '\n')
+                    i++;
+            }
+            else if (c == '"' || c == '\'') {
+                // Skips a string, along with its escaped characters.
+                i++;
+                
+                while (i < query.length() && query.charAt(i) != c)
+                    i += (query.charAt(i) == '\\') ? 2 : 1;
+                
+                i++;
+            }
+            else if (c == '<' && getIRIEnd(query, i) > 0)
+                // Skips an IRI.
+                i = getIRIEnd(query, i) + 1;
+            else
+                i++;
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Finds the end of an IRI, which cannot contain white space.
+     * @param query The SPARQL query.
+     * @param start The position of the opening angle bracket.
+     * @return The position of the closing angle bracket, or -1 if the angle
+     * bracket doesn't open an IRI.
+     */
+    private static int getIRIEnd(String query, int start) {
+        char c;
+        
+        for (int i = start + 1; i < query.length(); i++) {
+            c = query.charAt(i);
+            
+            if (c == '>')
+                return i;
+            
+            if (c <= ' ' || c == '<' || c == '{' || c == '}')
+                return -1;
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Writes a value as a SPARQL term.
+     * @param value The value.
+     * @return The SPARQL term, or null if the value is a blank node or an IRI
+     * containing characters not allowed in SPARQL.
+     */
+    private static String getTerm(Value value) {
+        if (value instanceof Literal)
+            return NTriplesUtil.toNTriplesString(value);
+        
+        if (!(value instanceof URI))
+            return null;
+        
+        String uriString = value.stringValue();
+        char c;
+        
+        for (int i = 0; i < uriString.length(); i++) {
+            c = uriString.charAt(i);
+            
+            if (c <= ' ' || "<>\"{}|^`\\".indexOf(c) >= 0)
+                return null;
+        }
+        
+        return "<" + uriString + ">";
+    }
+}
\ No newline at end of file
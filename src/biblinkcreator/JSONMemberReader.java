@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2017 David Nazarian
+ *
+ * This file is part of BibLinkCreator.
+ *
+ * BibLinkCreator is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BibLinkCreator is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with BibLinkCreator.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biblinkcreator;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import org.json.*;
+
+/**
+ * Reads the members of a JSON object one at a time from a stream, so that
+ * only the value of the current member is kept in memory instead of the
+ * whole object.
+ * <br><br>
+ * Author: David Nazarian
+ * @author David Nazarian
+ */
+public class JSONMemberReader {
+    private final JSONTokener tokener;
+    // Indicates if the closing brace of the object has been read.
+    private boolean finished = false;
+    // Indicates if the opening brace of the object has been read.
+    private boolean started = false;
+    private String key = null;
+    private Object value = null;
+    
+    /**
+     * @param inputStream The stream of a UTF-8 encoded JSON object.
+     */
+    public JSONMemberReader(InputStream inputStream) {
+        tokener = new JSONTokener(new BufferedReader(new InputStreamReader(
+                inputStream, StandardCharsets.UTF_8)));
+    }
+    
+    /**
+     * Reads the next member of the object.
+     * @return A value indicating if a next member exists.
+     */
+    public boolean next() throws JSONException {
+        key = null;
+        value = null;
+        
+        if (finished)
+            return false;
+        
+        if (!started) {
+            started = true;
+            
+            if (tokener.nextClean() != '{')
+                throw tokener.syntaxError(
+                        "A JSONObject text must begin with '{'");
+        }
+        else {
+            // The members are separated by commas.
+            switch (tokener.nextClean()) {
+                case ',':
+                    break;
+                case '}':
+                    finished = true;
+                    return false;
+                default:
+                    throw tokener.syntaxError("Expected a ',' or '}'");
+            }
+        }
+        // An empty object or a trailing comma.
+        if (tokener.nextClean() == '}') {
+            finished = true;
+            return false;
+        }
+        
+        tokener.back();
+        key = tokener.nextValue().toString();
+        
+        if (tokener.nextClean() != ':')
+            throw tokener.syntaxError("Expected a ':' after a key");
+        // Only the value of the current member is parsed into memory.
+        value = tokener.nextValue();
+        
+        return true;
+    }
+    
+    /**
+     * @return The key of the current member.
+     */
+    public String getKey() {
+        return key;
+    }
+    
+    /**
+     * @return The value of the current member.
+     */
+    public Object getValue() {
+        return value;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2017 David Nazarian
+ *
+ * This file is part of BibLinkCreator.
+ *
+ * BibLinkCreator is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BibLinkCreator is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with BibLinkCreator.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biblinkcreator;
+
+import biblinkcreator.DataStructure.*;
+import java.nio.ByteBuffer;
+
+/**
+ * Counts the unique links created during a link creation without keeping
+ * their URIs. Each link is reduced to a 128-bit fingerprint of its subject and
+ * object, which is stored in open-addressing tables outside of the Java heap.
+ * Alternatively, the fingerprints can be added into a Bloom filter, which
+ * uses a fixed amount of memory but may count a few unique links as
+ * duplicates.
+ * <br><br>
+ * Author: David Nazarian
+ * @author David Nazarian
+ */
+public class LinkDeduplicator {
+    // The number of bytes of a fingerprint.
+    private static final int FINGERPRINT_SIZE = 16;
+    // The number of the tables the fingerprints are distributed into, so that
+    // each of them stays within the capacity of a direct buffer.
+    private static final int SEGMENT_COUNT = 64;
+    // The initial number of slots of each table.
+    private static final int INITIAL_SLOT_COUNT = 1024;
+    // The maximum number of slots of each table.
+    private static final int MAX_SLOT_COUNT = 1 << 26;
+    // The tables of the fingerprints, or null in the approximate mode.
+    private final ByteBuffer[] segmentBuffers;
+    // The number of the fingerprints of each table.
+    private final int[] segmentItemCounts;
+    // The Bloom filter of the fingerprints, or null in the exact mode.
+    private final BloomFilter bloomFilter;
+    // The number of the unique links.
+    private long linkCount = 0;
+    
+    /**
+     * @param bloomFilterParameterData (Optional) The parameters of the Bloom
+     * filter used in the approximate mode. If it is null, the links are
+     * counted exactly.
+     */
+    public LinkDeduplicator(BloomFilterParameterData bloomFilterParameterData) {
+        if (bloomFilterParameterData != null) {
+            bloomFilter = new BloomFilter(bloomFilterParameterData);
+            segmentBuffers = null;
+            segmentItemCounts = null;
+        }
+        else {
+            bloomFilter = null;
+            segmentBuffers = new ByteBuffer[SEGMENT_COUNT];
+            segmentItemCounts = new int[SEGMENT_COUNT];
+            
+            for (int i = 0; i < SEGMENT_COUNT; i++)
+                segmentBuffers[i] = ByteBuffer.allocateDirect(
+                        INITIAL_SLOT_COUNT * FINGERPRINT_SIZE);
+        }
+    }
+    
+    /**
+     * Adds a link.
+     * @param subjectString The subject string of the link.
+     * @param objectString The object string of the link.
+     * @return A value indicating if the link hasn't been added before. In the
+     * approximate mode, a few unique links may be reported as added.
+     */
+    public boolean add(String subjectString, String objectString) {
+        // The two halves of the fingerprint are calculated independently.
+        long hash1 = getMixedHash(getLinkHash(subjectString, objectString,
+                0xCBF29CE484222325L, 0x100000001B3L));
+        long hash2 = getMixedHash(getLinkHash(subjectString, objectString,
+                0x84222325CBF29CE4L, 0xC6A4A7935BD1E995L));
+        boolean linkAdded;
+        
+        if (bloomFilter != null)
+            linkAdded = bloomFilter.put(hash1, hash2);
+        else
+            linkAdded = addFingerprint(hash1, hash2);
+        
+        if (linkAdded)
+            linkCount++;
+        
+        return linkAdded;
+    }
+    
+    /**
+     * @return The number of the unique links added.
+     */
+    public long getLinkCount() {
+        return linkCount;
+    }
+    
+    /**
+     * @return A value indicating if the links are counted exactly.
+     */
+    public boolean isExact() {
+        return bloomFilter == null;
+    }
+    
+    /**
+     * Adds a fingerprint into its table, if it doesn't exist.
+     * @param hash1 The first half of the fingerprint.
+     * @param hash2 The second half of the fingerprint.
+     * @return A value indicating if the fingerprint has been added.
+     */
+    private boolean addFingerprint(long hash1, long hash2) {
+        // An empty slot is marked by a zero fingerprint.
+        if (hash1 == 0 && hash2 == 0)
+            hash2 = 1;
+        // The table is selected by the highest bits of the first half and the
+        // slot by the lowest bits of the second half.
+        int segment = (int) (hash1 >>> 58);
+        ByteBuffer segmentBuffer = segmentBuffers[segment];
+        
+        if (!insertFingerprint(segmentBuffer, hash1, hash2))
+            return false;
+        
+        segmentItemCounts[segment]++;
+        int slotCount = segmentBuffer.capacity() / FINGERPRINT_SIZE;
+        // The table grows when it becomes more than half full.
+        if (segmentItemCounts[segment] > slotCount / 2) {
+            if (slotCount < MAX_SLOT_COUNT)
+                segmentBuffers[segment] = getResizedBuffer(segmentBuffer,
+                        slotCount * 2);
+            else if (segmentItemCounts[segment] > slotCount / 10 * 9)
+                throw new IllegalStateException("The link de-duplication " +
+                        "table is full.");
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Inserts a fingerprint into a table by linear probing.
+     * @param segmentBuffer The table.
+     * @param hash1 The first half of the fingerprint.
+     * @param hash2 The second half of the fingerprint.
+     * @return A value indicating if the fingerprint has been inserted, which
+     * is false if it already exists.
+     */
+    private boolean insertFingerprint(ByteBuffer segmentBuffer, long hash1,
+            long hash2) {
+        int slotMask = segmentBuffer.capacity() / FINGERPRINT_SIZE - 1;
+        int slot = (int) hash2 & slotMask;
+        long storedHash1, storedHash2;
+        
+        while (true) {
+            storedHash1 = segmentBuffer.getLong(slot * FINGERPRINT_SIZE);
+            storedHash2 = segmentBuffer.getLong(slot * FINGERPRINT_SIZE + 8);
+            // An empty slot has been found.
+            if (storedHash1 == 0 && storedHash2 == 0) {
+                segmentBuffer.putLong(slot * FINGERPRINT_SIZE, hash1);
+                segmentBuffer.putLong(slot * FINGERPRINT_SIZE + 8, hash2);
+                return true;
+            }
+            
+            if (storedHash1 == hash1 && storedHash2 == hash2)
+                return false;
+            
+            slot = (slot + 1) & slotMask;
+        }
+    }
+    
+    /**
+     * Copies the fingerprints of a table into a larger one.
+     * @param segmentBuffer The table.
+     * @param slotCount The number of slots of the larger table.
+     * @return The larger table.
+     */
+    private ByteBuffer getResizedBuffer(ByteBuffer segmentBuffer,
+            int slotCount) {
+        ByteBuffer resizedBuffer =
+                ByteBuffer.allocateDirect(slotCount * FINGERPRINT_SIZE);
+        long hash1, hash2;
+        
+        for (int offset = 0; offset < segmentBuffer.capacity();
+                offset += FINGERPRINT_SIZE) {
+            hash1 = segmentBuffer.getLong(offset);
+            hash2 = segmentBuffer.getLong(offset + 8);
+            
+            if (hash1 != 0 || hash2 != 0)
+                insertFingerprint(resizedBuffer, hash1, hash2);
+        }
+        
+        return resizedBuffer;
+    }
+    
+    /**
+     * Calculates a multiplicative hash of the subject and object of a link.
+     * @param subjectString The subject string of the link.
+     * @param objectString The object string of the link.
+     * @param seed The initial value of the hash.
+     * @param multiplier The multiplier of the hash.
+     * @return The hash of the link.
+     */
+    private long getLinkHash(String subjectString, String objectString,
+            long seed, long multiplier) {
+        long hash = seed;
+        
+        for (int i = 0; i < subjectString.length(); i++)
+            hash = (hash ^ subjectString.charAt(i)) * multiplier;
+        // The length separates the subject from the object.
+        hash = (hash ^ subjectString.length()) * multiplier;
+        
+        for (int i = 0; i < objectString.length(); i++)
+            hash = (hash ^ objectString.charAt(i)) * multiplier;
+        
+        return hash;
+    }
+    
+    /**
+     * Spreads the bits of a hash (SplitMix64 finalizer).
+     * @param hash The hash.
+     * @return The mixed hash.
+     */
+    private long getMixedHash(long hash) {
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        
+        return hash ^ (hash >>> 31);
+    }
+}
\ No newline at end of file
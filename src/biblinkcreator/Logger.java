@@ -82,7 +82,8 @@ public class Logger {
      * @param message The message to be logged.
      * @param messageCategory The category of the message to be logged.
      */
-    public void logMessage(String message, MessageCategory messageCategory) {
+    public synchronized void logMessage(String message,
+            MessageCategory messageCategory) {
         if (messageCategory == MessageCategory.None)
             return;
         
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2017 David Nazarian
+ *
+ * This file is part of BibLinkCreator.
+ *
+ * BibLinkCreator is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BibLinkCreator is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with BibLinkCreator.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biblinkcreator;
+
+import java.util.*;
+
+/**
+ * A locality-sensitive hashing (LSH) index of MinHash signatures. The
+ * signatures are divided into bands and two items become candidates when at
+ * least one of their bands is identical.
+ * <br><br>
+ * Author: David Nazarian
+ * @author David Nazarian
+ */
+public class MinHashIndex {
+    // The multiplier of the hash used to combine the rows of a band.
+    private static final long HASH_MULTIPLIER = 0x100000001B3L;
+    // The number of bands of each signature.
+    private final int bandCount;
+    // The number of signature rows contained in each band.
+    private final int rowsPerBand;
+    // The number of items added into the index.
+    private int itemCount = 0;
+    // The items of the index grouped by the hash of their bands.
+    private final Map<Long, List<Integer>> bucketMap = new HashMap<>();
+    
+    /**
+     * @param bandCount The number of bands of each signature.
+     * @param rowsPerBand The number of signature rows contained in each band.
+     */
+    public MinHashIndex(int bandCount, int rowsPerBand) {
+        this.bandCount = bandCount;
+        this.rowsPerBand = rowsPerBand;
+    }
+    
+    /**
+     * Adds an item into the index.
+     * @param itemIndex The index of the item, ranging from 0 to the number of
+     * items minus 1.
+     * @param signature The MinHash signature of the item.
+     */
+    public void addSignature(int itemIndex, long[] signature) {
+        List<Integer> bucket;
+        
+        for (int band = 0; band < bandCount; band++) {
+            // The bucket of the items sharing the current band.
+            bucket = bucketMap.computeIfAbsent(getBandKey(signature, band),
+                    key -> new ArrayList<>(1));
+            bucket.add(itemIndex);
+        }
+        
+        itemCount = Math.max(itemCount, itemIndex + 1);
+    }
+    
+    /**
+     * Gets the items of the index sharing at least one band with a provided
+     * signature.
+     * @param signature The MinHash signature to be searched.
+     * @return The indexes of the candidate items.
+     */
+    public List<Integer> getCandidates(long[] signature) {
+        List<Integer> candidateList = new ArrayList<>();
+        // Prevents an item from being returned more than once.
+        BitSet candidateBitSet = new BitSet(itemCount);
+        List<Integer> bucket;
+        
+        for (int band = 0; band < bandCount; band++) {
+            bucket = bucketMap.get(getBandKey(signature, band));
+            
+            if (bucket == null)
+                continue;
+            
+            for (int itemIndex : bucket) {
+                if (!candidateBitSet.get(itemIndex)) {
+                    candidateBitSet.set(itemIndex);
+                    candidateList.add(itemIndex);
+                }
+            }
+        }
+        
+        return candidateList;
+    }
+    
+    /**
+     * Calculates a hash for a band of a signature.
+     * @param signature The MinHash signature.
+     * @param band The band of the signature.
+     * @return The hash of the band.
+     */
+    private long getBandKey(long[] signature, int band) {
+        // Bands with identical rows must not collide with each other.
+        long bandKey = band;
+        
+        for (int row = band * rowsPerBand; row < (band + 1) * rowsPerBand;
+                row++)
+            bandKey = bandKey * HASH_MULTIPLIER + signature[row];
+        
+        return bandKey;
+    }
+}
\ No newline at end of file
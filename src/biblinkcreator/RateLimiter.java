@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2017 David Nazarian
+ *
+ * This file is part of BibLinkCreator.
+ *
+ * BibLinkCreator is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BibLinkCreator is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with BibLinkCreator.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biblinkcreator;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Limits the rate of the requests sent to an API host with a token bucket.
+ * The requests are sent at a steady rate, except that a number of them can be
+ * sent at once after an idle period. When the host throttles a request, all
+ * the requests are paused for the time requested by the host, or for an
+ * exponentially increasing time with random jitter.
+ * <br><br>
+ * Author: David Nazarian
+ * @author David Nazarian
+ */
+public class RateLimiter {
+    // The maximum pause (in milliseconds) after failed or throttled requests.
+    public static final long MAX_BACKOFF = 60000;
+    // The minimum pause (in milliseconds) after a throttled request.
+    private static final long MIN_THROTTLING_BACKOFF = 1000;
+    // The interval (in milliseconds) between the requests at the steady rate.
+    private long interval;
+    // The number of requests that can be sent at once after an idle period.
+    private int burstSize;
+    // The time the next request is due at the steady rate.
+    private long theoreticalTime = 0;
+    // No requests are sent before this time after a throttled request.
+    private long pausedUntil = 0;
+    // The number of consecutive throttled requests.
+    private int throttledCount = 0;
+    
+    /**
+     * @param interval The interval (in milliseconds) between the requests at
+     * the steady rate.
+     * @param burstSize The number of requests that can be sent at once after
+     * an idle period.
+     */
+    public RateLimiter(long interval, int burstSize) {
+        setRate(interval, burstSize);
+    }
+    
+    /**
+     * Changes the rate of the requests.
+     * @param interval The interval (in milliseconds) between the requests at
+     * the steady rate.
+     * @param burstSize The number of requests that can be sent at once after
+     * an idle period.
+     */
+    public synchronized void setRate(long interval, int burstSize) {
+        this.interval = Math.max(interval, 0);
+        this.burstSize = Math.max(burstSize, 1);
+    }
+    
+    /**
+     * Waits until a request can be sent.
+     */
+    public void acquire() {
+        long delay = reserve();
+        
+        if (delay > 0)
+            try {
+                // Delays the thread.
+                Thread.sleep(delay);
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+    }
+    
+    /**
+     * Reports a request which has not been throttled, so that the pause after
+     * the next throttled request starts again from its minimum.
+     */
+    public synchronized void reportSuccess() {
+        throttledCount = 0;
+    }
+    
+    /**
+     * Reports a request throttled by the host (HTTP 429 or 503), pausing the
+     * next requests.
+     * @param retryAfter The pause (in milliseconds) requested by the host, or
+     * -1 if it hasn't been specified. The pause is limited by MAX_BACKOFF.
+     */
+    public synchronized void reportThrottling(long retryAfter) {
+        long now = System.currentTimeMillis();
+        // The requests sent before the current pause don't increase it
+        // further.
+        if (now >= pausedUntil)
+            throttledCount++;
+        
+        // A longer pause requested by the host is limited by MAX_BACKOFF,
+        // so that the downloads are retried instead of stopping for hours.
+        long pause = Math.max(getBackoffDelay(Math.max(interval,
+                MIN_THROTTLING_BACKOFF), throttledCount),
+                Math.min(retryAfter, MAX_BACKOFF));
+        pausedUntil = Math.max(pausedUntil, now + pause);
+    }
+    
+    /**
+     * Gets an exponentially increasing delay with random jitter, so that
+     * concurrent retries are spread out.
+     * @param baseDelay The delay (in milliseconds) before the first retry.
+     * @param attempt The number of the failed attempts.
+     * @return A delay (in milliseconds) between the half and the whole of the
+     * base delay doubled for each previous attempt, which is limited by
+     * MAX_BACKOFF.
+     */
+    public static long getBackoffDelay(long baseDelay, int attempt) {
+        long delay = Math.min(baseDelay, MAX_BACKOFF);
+        
+        for (int i = 1; i < attempt && delay < MAX_BACKOFF; i++)
+            delay = Math.min(delay * 2, MAX_BACKOFF);
+        
+        return delay / 2 + ThreadLocalRandom.current().nextLong(
+                delay / 2 + 1);
+    }
+    
+    /**
+     * Reserves the next free time for a request.
+     * @return The time (in milliseconds) the request has to wait.
+     */
+    private synchronized long reserve() {
+        long now = System.currentTimeMillis();
+        // The requests of a burst may be sent before their due time.
+        long sendTime = Math.max(Math.max(now, pausedUntil),
+                theoreticalTime - (burstSize - 1) * interval);
+        theoreticalTime = Math.max(theoreticalTime, sendTime) + interval;
+        
+        return sendTime - now;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2017 David Nazarian
+ *
+ * This file is part of BibLinkCreator.
+ *
+ * BibLinkCreator is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BibLinkCreator is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with BibLinkCreator.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biblinkcreator;
+
+import biblinkcreator.DataStructure.*;
+import biblinkcreator.Identifier.*;
+import java.util.*;
+
+/**
+ * The compiled form of a StringFormatData, containing a string replacement
+ * program for each of its string replacement data lists.
+ * <br><br>
+ * Author: David Nazarian
+ * @author David Nazarian
+ */
+public class StringFormatProgram {
+    private final StringReplacementProgram arxivIDProgram;
+    private final StringReplacementProgram doiProgram;
+    private final StringReplacementProgram isbnProgram;
+    private final StringReplacementProgram issnProgram;
+    private final StringReplacementProgram lccnProgram;
+    private final StringReplacementProgram oclcProgram;
+    private final StringReplacementProgram pmidProgram;
+    private final StringReplacementProgram titleProgram;
+    private final StringReplacementProgram yearProgram;
+    // Messages describing the rejected replacements of all the lists.
+    private final List<String> invalidRuleMessageList = new ArrayList<>();
+    
+    /**
+     * @param stringFormatData The string format data to be compiled.
+     */
+    public StringFormatProgram(StringFormatData stringFormatData) {
+        arxivIDProgram = compile("arXiv ID",
+                stringFormatData.getArxivIDReplacementDataList());
+        doiProgram = compile("DOI",
+                stringFormatData.getDOIReplacementDataList());
+        isbnProgram = compile("ISBN",
+                stringFormatData.getISBNReplacementDataList());
+        issnProgram = compile("ISSN",
+                stringFormatData.getISSNReplacementDataList());
+        lccnProgram = compile("LCCN",
+                stringFormatData.getLCCNReplacementDataList());
+        oclcProgram = compile("OCLC",
+                stringFormatData.getOCLCReplacementDataList());
+        pmidProgram = compile("PMID",
+                stringFormatData.getPMIDReplacementDataList());
+        titleProgram = compile("title",
+                stringFormatData.getTitleReplacementDataList());
+        yearProgram = compile("year",
+                stringFormatData.getYearReplacementDataList());
+    }
+    
+    /**
+     * Gets the string replacement program used to format an identifier.
+     * @param identifierType The type of the identifier.
+     * @return The string replacement program, or null if no replacements
+     * have been provided.
+     */
+    public StringReplacementProgram getIdentifierProgram(
+            IdentifierType identifierType) {
+        switch (identifierType) {
+            case arXivID:
+                return arxivIDProgram;
+            case DOI:
+                return doiProgram;
+            case ISBN:
+                return isbnProgram;
+            case ISSN:
+                return issnProgram;
+            case LCCN:
+                return lccnProgram;
+            case OCLC:
+                return oclcProgram;
+            case PMID:
+                return pmidProgram;
+            // The journal titles are formatted like the titles.
+            default:
+                return titleProgram;
+        }
+    }
+    
+    /**
+     * @return The string replacement program of the titles, or null if no
+     * replacements have been provided.
+     */
+    public StringReplacementProgram getTitleProgram() {
+        return titleProgram;
+    }
+    
+    /**
+     * @return The string replacement program of the years, or null if no
+     * replacements have been provided.
+     */
+    public StringReplacementProgram getYearProgram() {
+        return yearProgram;
+    }
+    
+    /**
+     * @return Messages describing the replacements rejected during the
+     * compilation.
+     */
+    public List<String> getInvalidRuleMessageList() {
+        return Collections.unmodifiableList(invalidRuleMessageList);
+    }
+    
+    /**
+     * Compiles a string replacement data list.
+     * @param listName The name of the list for the messages.
+     * @param replacementData The string replacement data list.
+     * @return The string replacement program, or null if the list is null.
+     */
+    private StringReplacementProgram compile(String listName,
+            List<StringReplacementData> replacementData) {
+        if (replacementData == null)
+            return null;
+        
+        StringReplacementProgram replacementProgram =
+                new StringReplacementProgram(replacementData);
+        
+        for (String message : replacementProgram.getInvalidRuleMessageList())
+            invalidRuleMessageList.add(listName + " " + message);
+        
+        return replacementProgram;
+    }
+}
\ No newline at end of file
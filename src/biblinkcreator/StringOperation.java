@@ -41,12 +41,17 @@ public class StringOperation {
         Regex
     }
     // An array of symbols to be removed from strings.
-    private final String[] symbols =
+    private static final String[] symbols =
         {"’", "[", "]", "(", ")", "{", "}", "‒", "–", "—",
          "―", "‐", "-", "‹", "›", "«", "»", "`", "‘", "’",
          "“", "”", "/", ",", ".", "~", "©", "℗", "®", "℠",
          "™", "_", ":", "|", ";", "¿", "?", "€", "$", 
          "\'", "\\", "\""};
+    // Normalizes the titles in a single pass, based on the symbols array.
+    private static final TitleNormalizer titleNormalizer =
+            new TitleNormalizer(symbols);
+    // Validates and converts the ISBN and ISSN identifiers.
+    private static final UIDFunctionStore uid = new UIDFunctionStore();
     // A set of prefixes for the LCCN identifiers.
     // For more information please visit the following website:
     // https://www.loc.gov/marc/lccn_structure.html
@@ -81,12 +86,46 @@ public class StringOperation {
      * @return A string with replaced control characters.
      */
     public String replaceControlChars(String str, String replacementStr) {
-        // Replaces the control character ranges 00-1F and 80-9F.
-        str = str.replaceAll("[\\x00-\\x1F\\x80-\\x9F]", replacementStr);
+        char c;
+        // The regular expression is only used if a control character exists.
+        for (int i = 0; i < str.length(); i++) {
+            c = str.charAt(i);
+            
+            if (c <= 0x1F || (c >= 0x80 && c <= 0x9F))
+                // Replaces the control character ranges 00-1F and 80-9F.
+                return str.replaceAll("[\\x00-\\x1F\\x80-\\x9F]",
+                        replacementStr);
+        }
         
         return str;
     }
     
+    /**
+     * Removes from the input string characters other than 0 to 9, x or X.
+     * @param str The input string.
+     * @return A string containing only 0 to 9, x or X.
+     */
+    private String retainDigitsAndX(String str) {
+        StringBuilder stringBuilder = null;
+        char c;
+        
+        for (int i = 0; i < str.length(); i++) {
+            c = str.charAt(i);
+            
+            if ((c >= '0' && c <= '9') || c == 'x' || c == 'X') {
+                if (stringBuilder != null)
+                    stringBuilder.append(c);
+            }
+            // The string is only copied if a character must be removed.
+            else if (stringBuilder == null) {
+                stringBuilder = new StringBuilder(str.length());
+                stringBuilder.append(str, 0, i);
+            }
+        }
+        
+        return (stringBuilder != null) ? stringBuilder.toString() : str;
+    }
+    
     /**
      * Replaces strings from the input string.
      * @param str The input string.
@@ -95,114 +134,8 @@ public class StringOperation {
      */
     public String replaceUserDefinedStrings(String str,
             List<StringReplacementData> replacementData) {
-        String replacedStr = str;
-        StringReplacementData data;
-        String searchString, replacementString;
-        int replaceIndex;
-        
-        // An iteration for each replacement item.
-        for (int i = 0; i < replacementData.size(); i++) {
-            // The replacement parameters.
-            data = replacementData.get(i);
-            // The string to be searched or a regular expression.
-            searchString = data.getSearchString();
-            // The string to be replaced.
-            replacementString = data.getReplacementString();
-            // The index from where the search and replace will occur.
-            replaceIndex = data.getReplacementIndex();
-            String strPartA, strPartB;
-            // The replace index can't be negative.
-            if (replaceIndex < 0)
-                replaceIndex = 0;
-            // The replace index can't be greater than the length of the input
-            // string.
-            if (replaceIndex > str.length())
-                replaceIndex = str.length();
-            
-            // The type of the search and replace that will occur.
-            switch (data.getStringReplacementType()) {
-                // A search and replace anywhere in the input string.
-                case Anywhere:
-                    // Creates the replaced string.
-                    replacedStr = replacedStr.replace(searchString,
-                           replacementString);
-                    
-                    break;
-                // A search and replace before the end of the input string.
-                case BeforeEnd:
-                    // The replacedStr must have a length greater than that of
-                    // searchString.
-                    if (replacedStr.length() > searchString.length()) {
-                        // The part of the replacedStr before the end with a
-                        // length equal to that of search string.
-                        strPartB = replacedStr.substring(replacedStr.length() -
-                                searchString.length());
-                        // If strPartB equals to the searchString, then a
-                        // replacement will occur.
-                        if (strPartB.equals(searchString)) {
-                            // The part of the replacedStr from the start until
-                            // the searchString.
-                            strPartA = replacedStr.substring(
-                                    0, replacedStr.length() -
-                                    searchString.length());
-                            // Creates the replaced string.
-                            replacedStr = strPartA + replacementString;
-                        }
-                    }
-                    
-                    break;
-                // A search and replace after an index of the input string.
-                case AfterIndex:
-                    // The replaceIndex must be less than the replacedStr
-                    // length.
-                    if (replaceIndex < replacedStr.length()) {
-                        // The part of replacedStr before the replaceIndex.
-                        strPartA = replacedStr.substring(0, replaceIndex);
-                        // The part of replacedStr starting from replaceIndex.
-                        strPartB = replacedStr.substring(replaceIndex);
-                        // Replaces occurrences in strPartB.
-                        strPartB = strPartB.replace(searchString,
-                                replacementString);
-                        // Creates the replaced string.
-                        replacedStr = strPartA + strPartB;
-                    }
-                    
-                    break;
-                // A search and replace before an index of the input string.
-                case BeforeIndex:
-                    // The replaceIndex must be greater than 0.
-                    if (replaceIndex > 0) {
-                        // The part of the replacedStr before the replaceIndex.
-                        strPartA = replacedStr.substring(0, replaceIndex);
-                        // The part of replacedStr starting from replaceIndex.
-                        strPartB = replacedStr.substring(replaceIndex);
-                        // Replaces occurances in strPartA.
-                        strPartA = strPartA.replace(searchString,
-                                replacementString);
-                        // Creates the replaced string.
-                        replacedStr = strPartA + strPartB;
-                    }
-                    
-                    break;
-                // A search and replace anywhere in the input string based on a
-                // based on a regular expression.
-                case Regex:
-                    // In case of provided invalid regular expression.
-                    try {
-                        // Creates the replaced string.
-                        replacedStr = replacedStr.replaceAll(searchString,
-                               replacementString);
-                    }
-                    catch (Exception ex) {
-                    }
-                    
-                    break;
-            }
-        }
-        // Replaces continuous spaces with single ones and trims the result.
-        replacedStr = replacedStr.replaceAll(" +", " ").trim();
-        
-        return replacedStr;
+        // The invalid replacements are skipped by the compiled program.
+        return new StringReplacementProgram(replacementData).apply(str);
     }
     
     /**
@@ -235,6 +168,24 @@ public class StringOperation {
      */
     public StringFormatResult formatArXivID(String arxivID,
             List<StringReplacementData> replacementData) {
+        // The replacements are compiled for a single value. The callers
+        // formatting many values should compile them once.
+        return formatArXivID(arxivID, getReplacementProgram(replacementData));
+    }
+    
+    /**
+     * Validates and formats a provided arXiv identifier and returns it
+     * accompanied by a value indicating its validity. For information about the
+     * structure of the identifier please visit the following address: <br>
+     * https://arxiv.org/help/arxiv_identifier
+     * @param arxivID The arXiv identifier to be validated and formatted.
+     * @param replacementProgram (Optional) The compiled string replacements
+     * before validation and formatting.
+     * @return A string format result containing the validated and formatted
+     * identifier and a value indicating its validity.
+     */
+    public StringFormatResult formatArXivID(String arxivID,
+            StringReplacementProgram replacementProgram) {
         StringFormatResult formatResult = new StringFormatResult();
         
         if (arxivID.length() == 0)
@@ -244,8 +195,8 @@ public class StringOperation {
         arxivID = replaceControlChars(arxivID, "");
         // String replacements will occur if replacement data have been
         // provided.
-        if (replacementData != null)
-            arxivID = replaceUserDefinedStrings(arxivID, replacementData);
+        if (replacementProgram != null)
+            arxivID = replacementProgram.apply(arxivID);
         
         // Removes the identifier prefix (if exists).
         arxivID = arxivID.replace("arXiv:", "");
@@ -382,6 +333,25 @@ public class StringOperation {
      */
     public StringFormatResult formatDOI(String doi,
             List<StringReplacementData> replacementData) {
+        // The replacements are compiled for a single value. The callers
+        // formatting many values should compile them once.
+        return formatDOI(doi, getReplacementProgram(replacementData));
+    }
+    
+    /**
+     * Validates and formats a provided DOI and returns it accompanied by a
+     * value indicating its validity. For information about the structure of the
+     * identifier please visit the following address: <br>
+     * https://www.doi.org/doi_handbook/2_Numbering.html
+     * @param doi The Digital Object Identifier (DOI) to be validated and
+     * formatted.
+     * @param replacementProgram (Optional) The compiled string replacements
+     * before validation and formatting.
+     * @return A string format result containing the validated and formatted
+     * identifier and a value indicating its validity.
+     */
+    public StringFormatResult formatDOI(String doi,
+            StringReplacementProgram replacementProgram) {
         StringFormatResult formatResult = new StringFormatResult();
         
         if (doi.length() == 0)
@@ -391,31 +361,21 @@ public class StringOperation {
         doi = replaceControlChars(doi, "");
         // String replacements will occur if replacement data have been
         // provided.
-        if (replacementData != null)
-            doi = replaceUserDefinedStrings(doi, replacementData);
+        if (replacementProgram != null)
+            doi = replacementProgram.apply(doi);
         
-        String formattedDOI = "";
-        int codePoint;
         // ASCII characters are case insensitive in DOIs. A conversion of these
         // characters to uppercase will provide uniformity for comparisons.
-        for (int i = 0; i < doi.length(); i++) {
-            // The character at the index.
-            codePoint = doi.codePointAt(i);
-            // Checks if the character is in the range a-z.
-            if (codePoint >= 0x61 && codePoint <= 0x7A)
-                // Converts the character to uppercase.
-                formattedDOI += new String(Character.toChars(codePoint - 32));
-            else 
-                // Other characters will not be converted.
-                formattedDOI += new String(Character.toChars(codePoint));
-        }
-        
-        try {
-            // URL decoding for the identifier.
-            formattedDOI = URLDecoder.decode(formattedDOI, "UTF-8");
-        }
-        catch (Exception ex) {
-            return formatResult;
+        String formattedDOI = uppercaseDOI(doi);
+        // URL decoding for the identifier, which can only change it if it
+        // contains encoded characters or spaces.
+        if (formattedDOI.indexOf('%') > -1 || formattedDOI.indexOf('+') > -1) {
+            try {
+                formattedDOI = URLDecoder.decode(formattedDOI, "UTF-8");
+            }
+            catch (Exception ex) {
+                return formatResult;
+            }
         }
         // The index of the directory code.
         int dirIndex = formattedDOI.indexOf("10.");
@@ -437,6 +397,54 @@ public class StringOperation {
         return formatResult;
     }
     
+    /**
+     * Converts the ASCII characters a-z of a DOI to uppercase. A supplementary
+     * character has its low surrogate repeated, as in the original code point
+     * by code point conversion, so that the existing DOIs are matched.
+     * @param doi The DOI to be converted.
+     * @return The converted DOI.
+     */
+    private String uppercaseDOI(String doi) {
+        int length = doi.length();
+        int i = 0;
+        char c;
+        // Pure ASCII DOIs without lowercase characters are returned as they
+        // are.
+        while (i < length) {
+            c = doi.charAt(i);
+            
+            if ((c >= 'a' && c <= 'z') || Character.isHighSurrogate(c))
+                break;
+            
+            i++;
+        }
+        
+        if (i == length)
+            return doi;
+        
+        StringBuilder stringBuilder = new StringBuilder(length + 8);
+        stringBuilder.append(doi, 0, i);
+        
+        for (; i < length; i++) {
+            c = doi.charAt(i);
+            // Checks if the character is in the range a-z.
+            if (c >= 'a' && c <= 'z')
+                // Converts the character to uppercase.
+                stringBuilder.append((char)(c - 32));
+            else {
+                // Other characters will not be converted.
+                stringBuilder.append(c);
+                // The low surrogate of a supplementary character is appended
+                // both with the character and on its own.
+                if (Character.isHighSurrogate(c) && i + 1 < length &&
+                        Character.isLowSurrogate(doi.charAt(i + 1)))
+                    stringBuilder.append(doi.charAt(i + 1));
+            }
+        }
+        
+        return stringBuilder.toString();
+    }
+    
     /**
      * Validates and formats a provided ISBN (including a conversion to an
      * ISBN13 if it represents an ISBN10) and returns it accompanied by a value
@@ -452,8 +460,27 @@ public class StringOperation {
      */
     public StringFormatResult formatISBN(String isbn,
             List<StringReplacementData> replacementData) {
+        // The replacements are compiled for a single value. The callers
+        // formatting many values should compile them once.
+        return formatISBN(isbn, getReplacementProgram(replacementData));
+    }
+    
+    /**
+     * Validates and formats a provided ISBN (including a conversion to an
+     * ISBN13 if it represents an ISBN10) and returns it accompanied by a value
+     * indicating its validity. For information about the structure of the
+     * identifier please visit the following address: <br>
+     * https://en.wikipedia.org/wiki/International_Standard_Book_Number
+     * @param isbn The International Standard Book Number (ISBN) to be validated
+     * and formatted.
+     * @param replacementProgram (Optional) The compiled string replacements
+     * before validation and formatting.
+     * @return A string format result containing the validated and formatted
+     * identifier and a value indicating its validity.
+     */
+    public StringFormatResult formatISBN(String isbn,
+            StringReplacementProgram replacementProgram) {
         StringFormatResult formatResult = new StringFormatResult();
-        UIDFunctionStore uid = new UIDFunctionStore();
         
         if (isbn.length() == 0)
             return formatResult;
@@ -462,11 +489,11 @@ public class StringOperation {
         isbn = replaceControlChars(isbn, "");
         // String replacements will occur if replacement data have been
         // provided.
-        if (replacementData != null)
-            isbn = replaceUserDefinedStrings(isbn, replacementData);
+        if (replacementProgram != null)
+            isbn = replacementProgram.apply(isbn);
         
         // Removes from it characters other than 0 to 9, x or X.
-        isbn = isbn.replaceAll("[^0-9xX]", "");
+        isbn = retainDigitsAndX(isbn);
         // Validity check for the ISBN.
         if (uid.isISBNValid(isbn)) {
             // A length of 10 is an indicator of ISBN10.
@@ -497,8 +524,26 @@ public class StringOperation {
      */
     public StringFormatResult formatISSN(String issn,
             List<StringReplacementData> replacementData) {
+        // The replacements are compiled for a single value. The callers
+        // formatting many values should compile them once.
+        return formatISSN(issn, getReplacementProgram(replacementData));
+    }
+    
+    /**
+     * Validates and formats a provided ISSN and returns it accompanied by a
+     * value indicating its validity. For information about the structure of the
+     * identifier please visit the following address: <br>
+     * https://en.wikipedia.org/wiki/International_Standard_Serial_Number
+     * @param issn The International Standard Serial Number (ISSN) to be
+     * validated and formatted.
+     * @param replacementProgram (Optional) The compiled string replacements
+     * before validation and formatting.
+     * @return A string format result containing the validated and formatted
+     * identifier and a value indicating its validity.
+     */
+    public StringFormatResult formatISSN(String issn,
+            StringReplacementProgram replacementProgram) {
         StringFormatResult formatResult = new StringFormatResult();
-        UIDFunctionStore uid = new UIDFunctionStore();
         
         if (issn.length() == 0)
             return formatResult;
@@ -507,11 +552,11 @@ public class StringOperation {
         issn = replaceControlChars(issn, "");
         // String replacements will occur if replacement data have been
         // provided.
-        if (replacementData != null)
-            issn = replaceUserDefinedStrings(issn, replacementData);
+        if (replacementProgram != null)
+            issn = replacementProgram.apply(issn);
         
         // Removes from it characters other than 0 to 9, x or X.
-        issn = issn.replaceAll("[^0-9xX]", "");
+        issn = retainDigitsAndX(issn);
         // Validity check for the ISBN.
         if (uid.isISSNValid(issn)) {
             // Sets the identifier value to be returned.
@@ -539,6 +584,27 @@ public class StringOperation {
      */
     public StringFormatResult formatLCCN(String lccn,
             List<StringReplacementData> replacementData) {
+        // The replacements are compiled for a single value. The callers
+        // formatting many values should compile them once.
+        return formatLCCN(lccn, getReplacementProgram(replacementData));
+    }
+    
+    /**
+     * Validates and formats a provided LCCN (including its normalization) and
+     * returns it accompanied by a value indicating its validity. For
+     * information about the structure of the identifier please visit the
+     * following addresses: <br>
+     * https://www.loc.gov/marc/lccn_structure.html<br>
+     * https://www.loc.gov/marc/lccn-namespace.html
+     * @param lccn The Library of Congress Control Number (LCCN) to be validated
+     * and formatted.
+     * @param replacementProgram (Optional) The compiled string replacements
+     * before validation and formatting.
+     * @return A string format result containing the validated and formatted
+     * identifier and a value indicating its validity.
+     */
+    public StringFormatResult formatLCCN(String lccn,
+            StringReplacementProgram replacementProgram) {
         StringFormatResult formatResult = new StringFormatResult();
         
         if (lccn.length() == 0)
@@ -548,8 +614,8 @@ public class StringOperation {
         lccn = replaceControlChars(lccn, "");
         // String replacements will occur if replacement data have been
         // provided.
-        if (replacementData != null)
-            lccn = replaceUserDefinedStrings(lccn, replacementData);
+        if (replacementProgram != null)
+            lccn = replacementProgram.apply(lccn);
         
         // Removes one or more whitespaces from the identifier.
         lccn = lccn.replaceAll("\\s+","");
@@ -646,6 +712,25 @@ public class StringOperation {
      */
     public StringFormatResult formatOCLC(String oclc,
             List<StringReplacementData> replacementData) {
+        // The replacements are compiled for a single value. The callers
+        // formatting many values should compile them once.
+        return formatOCLC(oclc, getReplacementProgram(replacementData));
+    }
+    
+    /**
+     * Validates and formats a provided OCLC identifier and returns it
+     * accompanied by a value indicating its validity. For more information
+     * about the structure of the number visit the following address: <br>
+     * https://www.oclc.org/batchload/controlnumber.en.html
+     * @param oclc The Online Computer Library Center (OCLC) identifier to be
+     * validated and formatted.
+     * @param replacementProgram (Optional) The compiled string replacements
+     * before validation and formatting.
+     * @return A string format result containing the validated and formatted
+     * identifier and a value indicating its validity.
+     */
+    public StringFormatResult formatOCLC(String oclc,
+            StringReplacementProgram replacementProgram) {
         StringFormatResult formatResult = new StringFormatResult();
         
         if (oclc.length() == 0)
@@ -655,8 +740,8 @@ public class StringOperation {
         oclc = replaceControlChars(oclc, "");
         // String replacements will occur if replacement data have been
         // provided.
-        if (replacementData != null)
-            oclc = replaceUserDefinedStrings(oclc, replacementData);
+        if (replacementProgram != null)
+            oclc = replacementProgram.apply(oclc);
         
         // Removes from it characters other than 0 to 9.
         oclc = oclc.replaceAll("[^0-9]", "");
@@ -684,6 +769,24 @@ public class StringOperation {
      */
     public StringFormatResult formatPMID(String pmid,
             List<StringReplacementData> replacementData) {
+        // The replacements are compiled for a single value. The callers
+        // formatting many values should compile them once.
+        return formatPMID(pmid, getReplacementProgram(replacementData));
+    }
+    
+    /**
+     * Validates and formats a provided PMID and returns it accompanied by a
+     * value indicating its validity. For more information about the structure
+     * of the identifier visit the following address: <br>
+     * https://www.oclc.org/batchload/controlnumber.en.html
+     * @param pmid The PubMed identifier (PMID) to be validated and formatted.
+     * @param replacementProgram (Optional) The compiled string replacements
+     * before validation and formatting.
+     * @return A string format result containing the validated and formatted
+     * identifier and a value indicating its validity.
+     */
+    public StringFormatResult formatPMID(String pmid,
+            StringReplacementProgram replacementProgram) {
         StringFormatResult formatResult = new StringFormatResult();
         
         if (pmid.length() == 0)
@@ -693,8 +796,8 @@ public class StringOperation {
         pmid = replaceControlChars(pmid, "");
         // String replacements will occur if replacement data have been
         // provided.
-        if (replacementData != null)
-            pmid = replaceUserDefinedStrings(pmid, replacementData);
+        if (replacementProgram != null)
+            pmid = replacementProgram.apply(pmid);
         
         // Removes from it characters other than 0 to 9.
         pmid = pmid.replaceAll("[^0-9]", "");
@@ -720,24 +823,45 @@ public class StringOperation {
      */
     public StringFormatResult formatTitle(String title,
             List<StringReplacementData> replacementData) {
+        // The replacements are compiled for a single value. The callers
+        // formatting many values should compile them once.
+        return formatTitle(title, getReplacementProgram(replacementData));
+    }
+    
+    /**
+     * Validates and formats a provided title and returns it accompanied by a
+     * value indicating its validity.
+     * @param title The title to be validated and formatted.
+     * @param replacementProgram (Optional) The compiled string replacements
+     * before validation and formatting.
+     * @return A string format result containing the validated and formatted
+     * title and a value indicating its validity.
+     */
+    public StringFormatResult formatTitle(String title,
+            StringReplacementProgram replacementProgram) {
         StringFormatResult formatResult = new StringFormatResult();
         
         if (title.length() == 0)
             return formatResult;
         
-        // Replaces the control characters from the title with a space.
-        title = replaceControlChars(title, " ");
         // String replacements will occur if replacement data have been
         // provided.
-        if (replacementData != null)
-            title = replaceUserDefinedStrings(title, replacementData);
-        
-        // Replaces the symbols from the title.
-        title = replaceSymbols(title);
+        if (replacementProgram != null) {
+            // Replaces the control characters from the title with a space.
+            title = titleNormalizer.replaceControlChars(title);
+            title = replacementProgram.apply(title);
+            // Replaces the symbols from the title and lowercases it. Any
+            // control characters added by the replacements are kept.
+            title = titleNormalizer.normalize(title, false);
+        }
+        else
+            // Replaces the control characters and the symbols from the title
+            // and lowercases it.
+            title = titleNormalizer.normalize(title, true);
         // Validity check for the title.
         if (title.length() > 0) {
             // Sets the title value to be returned.
-            formatResult.setValue(title.toLowerCase());
+            formatResult.setValue(title);
             // Sets the validity value of the title.
             formatResult.setIsValid(true);
         }
@@ -756,14 +880,30 @@ public class StringOperation {
      */
     public StringFormatResult formatYear(String year,
             List<StringReplacementData> replacementData) {
+        // The replacements are compiled for a single value. The callers
+        // formatting many values should compile them once.
+        return formatYear(year, getReplacementProgram(replacementData));
+    }
+    
+    /**
+     * Validates and formats a provided year string and returns it accompanied
+     * by a value indicating its validity.
+     * @param year The year string to be validated and formatted.
+     * @param replacementProgram (Optional) The compiled string replacements
+     * before validation and formatting.
+     * @return A string format result containing the validated and formatted
+     * year and a value indicating its validity.
+     */
+    public StringFormatResult formatYear(String year,
+            StringReplacementProgram replacementProgram) {
         StringFormatResult formatResult = new StringFormatResult();
         
         // Replaces the control characters from the year string.
         year = replaceControlChars(year, "");
         // String replacements will occur if replacement data have been
         // provided.
-        if (replacementData != null)
-            year = replaceUserDefinedStrings(year, replacementData);
+        if (replacementProgram != null)
+            year = replacementProgram.apply(year);
         
         // If a date representation has been provided, then it will be
         // splitted in order to retrieve the year.
@@ -783,6 +923,18 @@ public class StringOperation {
         return formatResult;
     }
     
+    /**
+     * Compiles a list of string replacements.
+     * @param replacementData (Optional) The list of the replacements.
+     * @return The compiled replacements, or null if no list has been
+     * provided.
+     */
+    private static StringReplacementProgram getReplacementProgram(
+            List<StringReplacementData> replacementData) {
+        return (replacementData != null) ?
+                new StringReplacementProgram(replacementData) : null;
+    }
+    
     /**
      * Validates and formats a provided identifier string.
      * @param identifierString The identifier string to be validates and
@@ -794,82 +946,67 @@ public class StringOperation {
      */
     public StringFormatResult formatIdentifier(String identifierString,
             IdentifierType identifierType, StringFormatData stringFormatData) {
+        // The string format data are compiled for a single identifier. The
+        // callers formatting many identifiers should compile them once.
+        StringFormatProgram stringFormatProgram = (stringFormatData != null) ?
+                new StringFormatProgram(stringFormatData) : null;
+        
+        return formatIdentifier(identifierString, identifierType,
+                stringFormatProgram);
+    }
+    
+    /**
+     * Validates and formats a provided identifier string.
+     * @param identifierString The identifier string to be validates and
+     * formatted.
+     * @param identifierType The type of the input string identifier.
+     * @param stringFormatProgram (Optional) The compiled string format data
+     * for the identifier.
+     * @return A string format result containing the validated and formatted
+     * identifier and a value indicating its validity.
+     */
+    public StringFormatResult formatIdentifier(String identifierString,
+            IdentifierType identifierType,
+            StringFormatProgram stringFormatProgram) {
         StringFormatResult formatResult = new StringFormatResult();
-        StringOperation stringOperation = new StringOperation();
+        // The string replacements of the identifier type.
+        StringReplacementProgram replacementProgram =
+                (stringFormatProgram != null) ?
+                stringFormatProgram.getIdentifierProgram(identifierType) : null;
         
         switch (identifierType) {
             case arXivID:
-                if (stringFormatData != null)
-                    formatResult =
-                            stringOperation.formatArXivID(identifierString,
-                            stringFormatData.getArxivIDReplacementDataList());
-                else
-                    formatResult =
-                            stringOperation.formatArXivID(identifierString,
-                            null);
+                formatResult = formatArXivID(identifierString,
+                        replacementProgram);
                 
                 break;
             case DOI:
-                if (stringFormatData != null)
-                    formatResult = stringOperation.formatDOI(identifierString,
-                            stringFormatData.getDOIReplacementDataList());
-                else
-                    formatResult = stringOperation.formatDOI(identifierString,
-                            null);
+                formatResult = formatDOI(identifierString, replacementProgram);
                 
                 break;
             case ISBN:
-                if (stringFormatData != null)
-                    formatResult = stringOperation.formatISBN(identifierString,
-                            stringFormatData.getISBNReplacementDataList());                    
-                else
-                    formatResult = stringOperation.formatISBN(identifierString,
-                            null);
+                formatResult = formatISBN(identifierString, replacementProgram);
                 
                 break;
             case LCCN:
-                if (stringFormatData != null)
-                    formatResult = stringOperation.formatLCCN(identifierString,
-                            stringFormatData.getLCCNReplacementDataList());
-                else
-                    formatResult = stringOperation.formatLCCN(identifierString,
-                            null);
+                formatResult = formatLCCN(identifierString, replacementProgram);
                 
                 break;
             case OCLC:
-                if (stringFormatData != null)
-                    formatResult = stringOperation.formatOCLC(identifierString,
-                            stringFormatData.getOCLCReplacementDataList());
-                else
-                    formatResult = stringOperation.formatOCLC(identifierString,
-                            null);
+                formatResult = formatOCLC(identifierString, replacementProgram);
                     
                 break;
             case PMID:
-                if (stringFormatData != null)
-                    formatResult = stringOperation.formatPMID(identifierString,
-                            stringFormatData.getPMIDReplacementDataList());
-                else
-                    formatResult = stringOperation.formatPMID(identifierString,
-                            null);
+                formatResult = formatPMID(identifierString, replacementProgram);
                 
                 break;
             case ISSN:
-                if (stringFormatData != null)
-                    formatResult = stringOperation.formatISSN(identifierString,
-                            stringFormatData.getISSNReplacementDataList());
-                else
-                    formatResult = stringOperation.formatISSN(identifierString,
-                            null);
+                formatResult = formatISSN(identifierString, replacementProgram);
                 
                 break;
             case JournalTitle:
-                if (stringFormatData != null)
-                    formatResult = stringOperation.formatTitle(identifierString,
-                            stringFormatData.getTitleReplacementDataList());
-                else
-                    formatResult = stringOperation.formatTitle(identifierString,
-                            null);
+                formatResult = formatTitle(identifierString,
+                        replacementProgram);
                 
                 break;  
         }
@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2017 David Nazarian
+ *
+ * This file is part of BibLinkCreator.
+ *
+ * BibLinkCreator is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BibLinkCreator is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with BibLinkCreator.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biblinkcreator;
+
+import biblinkcreator.DataStructure.*;
+import biblinkcreator.StringOperation.*;
+import java.util.*;
+import java.util.regex.*;
+
+/**
+ * An immutable, compiled list of string replacements. The regular expressions
+ * are compiled once and the invalid replacements are rejected during the
+ * compilation, so that applying the program to a string has the same result
+ * as the replaceUserDefinedStrings method of the StringOperation class.
+ * <br><br>
+ * Author: David Nazarian
+ * @author David Nazarian
+ */
+public class StringReplacementProgram {
+    // The valid replacements in the order they will be applied.
+    private final List<ReplacementRule> ruleList;
+    // Messages describing the rejected replacements.
+    private final List<String> invalidRuleMessageList;
+    
+    /**
+     * @param replacementData The list of the replacements.
+     */
+    public StringReplacementProgram(
+            List<StringReplacementData> replacementData) {
+        List<ReplacementRule> rules = new ArrayList<>();
+        List<String> invalidRuleMessages = new ArrayList<>();
+        StringReplacementData data;
+        
+        for (int i = 0; i < replacementData.size(); i++) {
+            data = replacementData.get(i);
+            
+            try {
+                rules.add(new ReplacementRule(data));
+            }
+            catch (IllegalArgumentException ex) {
+                invalidRuleMessages.add("string replacement " +
+                        String.valueOf(i + 1) + " (\"" +
+                        data.getSearchString() + "\" -> \"" +
+                        data.getReplacementString() + "\") was rejected: " +
+                        ex.getMessage());
+            }
+        }
+        
+        ruleList = Collections.unmodifiableList(rules);
+        invalidRuleMessageList =
+                Collections.unmodifiableList(invalidRuleMessages);
+    }
+    
+    /**
+     * @return Messages describing the replacements rejected during the
+     * compilation.
+     */
+    public List<String> getInvalidRuleMessageList() {
+        return invalidRuleMessageList;
+    }
+    
+    /**
+     * Applies the replacements to the input string.
+     * @param str The input string.
+     * @return A replaced string.
+     */
+    public String apply(String str) {
+        String replacedStr = str;
+        
+        for (ReplacementRule rule : ruleList)
+            replacedStr = rule.apply(replacedStr, str.length());
+        // Replaces continuous spaces with single ones and trims the result.
+        return collapseSpaces(replacedStr).trim();
+    }
+    
+    /**
+     * Replaces continuous spaces with single ones.
+     * @param str The input string.
+     * @return A string without continuous spaces.
+     */
+    private static String collapseSpaces(String str) {
+        // The string is only copied if it contains continuous spaces.
+        if (!str.contains("  "))
+            return str;
+        
+        StringBuilder stringBuilder = new StringBuilder(str.length());
+        char c;
+        
+        for (int i = 0; i < str.length(); i++) {
+            c = str.charAt(i);
+            
+            if (c != ' ' || i == 0 || str.charAt(i - 1) != ' ')
+                stringBuilder.append(c);
+        }
+        
+        return stringBuilder.toString();
+    }
+    
+    /**
+     * A single compiled replacement.
+     */
+    private static class ReplacementRule {
+        private final StringReplacementType stringReplacementType;
+        private final String searchString;
+        private final String replacementString;
+        // The index from where the search and replace will occur.
+        private final int replacementIndex;
+        // The compiled regular expression of a Regex replacement.
+        private final Pattern pattern;
+        
+        /**
+         * @param data The replacement parameters.
+         * @throws IllegalArgumentException If the replacement can't be
+         * applied.
+         */
+        public ReplacementRule(StringReplacementData data) {
+            stringReplacementType = data.getStringReplacementType();
+            searchString = data.getSearchString();
+            replacementString = data.getReplacementString();
+            // The replace index can't be negative.
+            replacementIndex = Math.max(data.getReplacementIndex(), 0);
+            
+            if (stringReplacementType == null)
+                throw new IllegalArgumentException("missing replacement type");
+            
+            if (stringReplacementType == StringReplacementType.Regex) {
+                try {
+                    pattern = Pattern.compile(searchString);
+                }
+                catch (PatternSyntaxException ex) {
+                    throw new IllegalArgumentException(
+                            "invalid regular expression");
+                }
+                
+                validateReplacementString(pattern, replacementString);
+            }
+            else
+                pattern = null;
+        }
+        
+        /**
+         * Applies the replacement.
+         * @param str The string replaced by the previous replacements.
+         * @param inputLength The length of the string before any replacement,
+         * which limits the replace index.
+         * @return A replaced string.
+         */
+        public String apply(String str, int inputLength) {
+            // The replace index can't be greater than the length of the input
+            // string.
+            int replaceIndex = Math.min(replacementIndex, inputLength);
+            
+            switch (stringReplacementType) {
+                // A search and replace anywhere in the input string.
+                case Anywhere:
+                    return str.replace(searchString, replacementString);
+                // A search and replace before the end of the input string.
+                case BeforeEnd:
+                    if (str.length() > searchString.length() &&
+                            str.endsWith(searchString))
+                        return str.substring(0, str.length() -
+                                searchString.length()) + replacementString;
+                    
+                    return str;
+                // A search and replace after an index of the input string.
+                case AfterIndex:
+                    if (replaceIndex < str.length())
+                        return str.substring(0, replaceIndex) +
+                                str.substring(replaceIndex).replace(
+                                        searchString, replacementString);
+                    
+                    return str;
+                // A search and replace before an index of the input string.
+                case BeforeIndex:
+                    if (replaceIndex > 0)
+                        return str.substring(0, replaceIndex).replace(
+                                searchString, replacementString) +
+                                str.substring(replaceIndex);
+                    
+                    return str;
+                // A search and replace based on a regular expression.
+                default:
+                    try {
+                        return pattern.matcher(str).replaceAll(
+                                replacementString);
+                    }
+                    catch (IllegalArgumentException ex) {
+                        // A group reference which has passed the validation
+                        // but isn't valid skips the replacement.
+                        return str;
+                    }
+            }
+        }
+        
+        /**
+         * Checks that the group references and the escapes of the replacement
+         * string of a regular expression are valid, as the Matcher class
+         * would check them on the first match.
+         * @param pattern The compiled regular expression.
+         * @param replacementString The replacement string.
+         * @throws IllegalArgumentException If the replacement string is
+         * invalid.
+         */
+        private static void validateReplacementString(Pattern pattern,
+                String replacementString) {
+            int groupCount = pattern.matcher("").groupCount();
+            int i = 0;
+            char c;
+            
+            while (i < replacementString.length()) {
+                c = replacementString.charAt(i++);
+                
+                if (c == '\\') {
+                    if (i == replacementString.length())
+                        throw new IllegalArgumentException(
+                                "character to be escaped is missing");
+                    
+                    i++;
+                }
+                else if (c == '$') {
+                    if (i == replacementString.length())
+                        throw new IllegalArgumentException(
+                                "group index is missing");
+                    
+                    c = replacementString.charAt(i++);
+                    // A named group reference.
+                    if (c == '{') {
+                        int end = replacementString.indexOf('}', i);
+                        
+                        if (end < 0)
+                            throw new IllegalArgumentException(
+                                    "named group is missing trailing '}'");
+                        
+                        String groupName = replacementString.substring(i, end);
+                        
+                        if (!pattern.pattern().contains(
+                                "(?<" + groupName + ">"))
+                            throw new IllegalArgumentException(
+                                    "no group with name {" + groupName + "}");
+                        
+                        i = end + 1;
+                    }
+                    // A numbered group reference.
+                    else if (c >= '0' && c <= '9') {
+                        if (c - '0' > groupCount)
+                            throw new IllegalArgumentException("no group " +
+                                    String.valueOf(c - '0'));
+                    }
+                    else
+                        throw new IllegalArgumentException(
+                                "illegal group reference");
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
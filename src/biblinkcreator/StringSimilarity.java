@@ -20,6 +20,8 @@ package biblinkcreator;
 
 import biblinkcreator.DataStructure.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A class for the string similarity measures.
@@ -45,6 +47,22 @@ public class StringSimilarity {
         WORD,
         CHAR
     }
+    // The maximum number of characters that can be packed losslessly into a
+    // 64-bit shingle key.
+    private static final int CHAR_PACKING_LIMIT = 4;
+    // The multiplier of the polynomial hash used for the longer shingles.
+    private static final long HASH_MULTIPLIER = 0x100000001B3L;
+    // The maximum number of words that can be packed losslessly into a 64-bit
+    // shingle key.
+    private static final int WORD_PACKING_LIMIT = 2;
+    // The seed of the hash functions of the MinHash signatures.
+    private static final long MINHASH_SEED = 0x9E3779B97F4A7C15L;
+    // The vocabulary of the words encountered by the instance, mapping each
+    // word to an integer identifier.
+    private final Map<String, Integer> wordVocabulary =
+            new ConcurrentHashMap<>();
+    // The identifier to be assigned to the next word of the vocabulary.
+    private final AtomicInteger nextWordID = new AtomicInteger();
     
     /**
      * Gets a similarity coefficient ranging from 0 (no similarity) to 1
@@ -58,49 +76,162 @@ public class StringSimilarity {
      */
     public double getCoefficient(String stringA, String stringB,
             StringSimilaritySelector similaritySelector) {
+        // A shingle profile for stringA.
+        ShingleProfile shingleProfileA =
+                getShingleProfile(stringA, similaritySelector);
+        // A shingle profile for stringB.
+        ShingleProfile shingleProfileB =
+                getShingleProfile(stringB, similaritySelector);
+        
+        return getCoefficient(shingleProfileA, shingleProfileB,
+                similaritySelector.getSimilarityType());
+    }
+    
+    /**
+     * Gets a similarity coefficient ranging from 0 (no similarity) to 1
+     * (absolute similarity) for the provided shingle profiles based on a
+     * selected string similarity measure. Both profiles must have been created
+     * with the same shingle type and size.
+     * @param shingleProfileA The shingle profile to be compared.
+     * @param shingleProfileB The shingle profile to be compared.
+     * @param similarityType The string similarity measure.
+     * @return The similarity coefficient of the shingle profiles.
+     */
+    public double getCoefficient(ShingleProfile shingleProfileA,
+            ShingleProfile shingleProfileB, SimilarityType similarityType) {
+        // The number of shingles contained in both profiles.
+        int intersectionCount = getIntersectionCount(
+                shingleProfileA.getShingleKeys(),
+                shingleProfileB.getShingleKeys());
+        
+        return getCoefficient(intersectionCount,
+                shingleProfileA.getShingleCount(),
+                shingleProfileB.getShingleCount(), similarityType);
+    }
+    
+    /**
+     * Determines if the similarity coefficient of the provided shingle profiles
+     * reaches a threshold, i.e. if getCoefficient would return a value greater
+     * than or equal to it. A pair is rejected without merging the profiles if
+     * their sizes can't produce the necessary number of common shingles, and
+     * the merging stops as soon as the outcome is certain.
+     * @param shingleProfileA The shingle profile to be compared.
+     * @param shingleProfileB The shingle profile to be compared.
+     * @param similaritySelector The string similarity measure and its
+     * parameters.
+     * @param threshold The threshold of the similarity coefficient.
+     * @return A value indicating if the similarity coefficient reaches the
+     * threshold.
+     */
+    public boolean exceedsThreshold(ShingleProfile shingleProfileA,
+            ShingleProfile shingleProfileB,
+            StringSimilaritySelector similaritySelector, double threshold) {
+        SimilarityType similarityType = similaritySelector.getSimilarityType();
+        long[] shingleKeysA = shingleProfileA.getShingleKeys();
+        long[] shingleKeysB = shingleProfileB.getShingleKeys();
+        // The minimum number of common shingles reaching the threshold.
+        int minIntersectionCount = getMinIntersectionCount(shingleKeysA.length,
+                shingleKeysB.length, similarityType, threshold);
+        // Length filter: the sizes of the profiles can't reach the threshold.
+        if (minIntersectionCount < 0)
+            return false;
+        
+        int intersectionCount = 0;
+        int i = 0;
+        int j = 0;
+        
+        while (intersectionCount < minIntersectionCount) {
+            // The remaining shingles can't provide enough common shingles.
+            if (intersectionCount + Math.min(shingleKeysA.length - i,
+                    shingleKeysB.length - j) < minIntersectionCount)
+                return false;
+            
+            if (shingleKeysA[i] < shingleKeysB[j])
+                i++;
+            else if (shingleKeysA[i] > shingleKeysB[j])
+                j++;
+            else {
+                intersectionCount++;
+                i++;
+                j++;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Gets the minimum number of common shingles for which two profiles of the
+     * provided sizes reach a threshold. The coefficient is calculated in the
+     * same way as in getCoefficient, so that both methods agree.
+     * @param shingleCountA The number of shingles of the first profile.
+     * @param shingleCountB The number of shingles of the second profile.
+     * @param similarityType The string similarity measure.
+     * @param threshold The threshold of the similarity coefficient.
+     * @return The minimum number of common shingles, or -1 if the threshold
+     * can't be reached.
+     */
+    private int getMinIntersectionCount(int shingleCountA, int shingleCountB,
+            SimilarityType similarityType, double threshold) {
+        // The maximum possible number of common shingles.
+        int high = Math.min(shingleCountA, shingleCountB);
+        
+        if (!(getCoefficient(high, shingleCountA, shingleCountB,
+                similarityType) >= threshold))
+            return -1;
+        
+        int low = 0;
+        int middle;
+        // The coefficient doesn't decrease as the number of common shingles
+        // increases, so the minimum can be found by a binary search.
+        while (low < high) {
+            middle = (low + high) >>> 1;
+            
+            if (getCoefficient(middle, shingleCountA, shingleCountB,
+                    similarityType) >= threshold)
+                high = middle;
+            else
+                low = middle + 1;
+        }
+        
+        return low;
+    }
+    
+    /**
+     * Calculates a similarity coefficient from the sizes of two shingle sets
+     * and of their intersection.
+     * @param intersectionCount The number of common shingles.
+     * @param shingleCountA The number of shingles of the first set.
+     * @param shingleCountB The number of shingles of the second set.
+     * @param similarityType The string similarity measure.
+     * @return The similarity coefficient.
+     */
+    private double getCoefficient(int intersectionCount, int shingleCountA,
+            int shingleCountB, SimilarityType similarityType) {
         double coefficient = 0.0;
-        // A shingle set for stringA.
-        Set<String> shingleSetA = getShingleSet(stringA,
-                similaritySelector.getShingleSize(),
-                similaritySelector.getShingleType());
-        // A shingle set for stringB.
-        Set<String> shingleSetB = getShingleSet(stringB,
-                similaritySelector.getShingleSize(),
-                similaritySelector.getShingleType());
-        // A set for the union of the shinle sets.
-        Set<String> stringUnionSet;
-        // A set for the intersection of the shingle sets.
-        Set<String> stringIntersectionSet = new HashSet<>(shingleSetA);
-        stringIntersectionSet.retainAll(shingleSetB);
-        
-        switch (similaritySelector.getSimilarityType()) {
+        
+        switch (similarityType) {
             case Cosine:
                 // The calculation for the cosine coefficient.
-                coefficient = (double) stringIntersectionSet.size() /
-                        (Math.sqrt(shingleSetA.size() * shingleSetB.size()));
+                coefficient = (double) intersectionCount /
+                        (Math.sqrt(shingleCountA * shingleCountB));
                 break;
             case Dice:
                 // The calculation for the Dice coefficient.
-                coefficient = (double) 2 * stringIntersectionSet.size() /
-                        (shingleSetA.size() + shingleSetB.size());
+                coefficient = (double) 2 * intersectionCount /
+                        (shingleCountA + shingleCountB);
                 break;
             case Jaccard:
-                // Creates the union of the shingle sets.
-                stringUnionSet = new HashSet<>(shingleSetA);
-                stringUnionSet.addAll(shingleSetB);
-                
-                // The calculation for the Jaccard coefficient.
-                coefficient = (double) stringIntersectionSet.size() /
-                        stringUnionSet.size();
-                // An alternative calculation for the Jaccard coefficient.
-                //coefficient = (double) strIntersectionSet.size() /
-                //      (strASet.size() + strBSet.size() -
-                //      strIntersectionSet.size());
+                // The calculation for the Jaccard coefficient. The size of the
+                // union is derived from the sizes of the shingle sets and of
+                // their intersection.
+                coefficient = (double) intersectionCount /
+                        (shingleCountA + shingleCountB - intersectionCount);
                 break;
             case Overlap:
                 // The calculation for the Overlap coefficient.
-                coefficient = (double) stringIntersectionSet.size() /
-                        Math.min(shingleSetA.size(), shingleSetB.size());
+                coefficient = (double) intersectionCount /
+                        Math.min(shingleCountA, shingleCountB);
                 break;
         }
         
@@ -108,55 +239,332 @@ public class StringSimilarity {
     }
     
     /**
-     * Creates a shingle set based on a provided string and parameters.
-     * @param string The string for the shingle set creation.
-     * @param shingleSize The number of words or characters to be used to create
-     * each shingle.
-     * @param shingleType The shingle type to be used (characters or words).
-     * @return A shingle set.
+     * Creates a shingle profile for a provided string which can be reused in
+     * multiple comparisons.
+     * @param string The string for the shingle profile creation.
+     * @param similaritySelector The string similarity measure and its
+     * parameters.
+     * @return A shingle profile.
      */
-    private Set<String> getShingleSet(String string, int shingleSize,
-            ShingleType shingleType) {
-        Set<String> shingleSet = new HashSet<>();
-        String shingle = "";
-        int length;
+    public ShingleProfile getShingleProfile(String string,
+            StringSimilaritySelector similaritySelector) {
+        long[] shingleKeys = null;
+        int shingleSize = similaritySelector.getShingleSize();
         
-        switch (shingleType) {
+        switch (similaritySelector.getShingleType()) {
             // Word level shingles.
             case WORD:
-                // Splits the words contained in the string.
-                String[] words = string.split(" ");
-                // The upper limit for the loop.
-                length = words.length - shingleSize;
-                
-                for (int i = 0; i <= length; i++) {
-                    // Consecutive words to be used for each shingle.
-                    for (int j = 0; j < shingleSize; j++)
-                        shingle += words[i + j] + " ";
-                    
-                    // Creates the shingle.
-                    shingle = shingle.substring(0, shingle.length() - 1);
-                    // Adds the created shingle into the result set.
-                    shingleSet.add(shingle);
-                    shingle = "";                    
-                }
-                
+                shingleKeys = getWordShingleKeys(string, shingleSize);
                 break;
             // Character level shingles.
             case CHAR:
-                // The upper limit for the loop.
-                length = string.length() - shingleSize;
-                
-                for (int i = 0; i <= length; i++) {
-                    // Creates the shingle.
-                    shingle = string.substring(i, i + shingleSize);
-                    // Adds the created shingle into the result set.
-                    shingleSet.add(shingle);
-                }
+                shingleKeys = getCharShingleKeys(string, shingleSize);
+                break;
+        }
+        
+        return new ShingleProfile(shingleKeys);
+    }
+    
+    /**
+     * Creates a MinHash signature for a shingle profile. The probability of two
+     * signatures having the same value at a position is equal to the Jaccard
+     * coefficient of their shingle profiles.
+     * @param shingleProfile The shingle profile of the signature.
+     * @param signatureSize The number of the hash functions of the signature.
+     * @return The MinHash signature of the shingle profile.
+     */
+    public long[] getMinHashSignature(ShingleProfile shingleProfile,
+            int signatureSize) {
+        long[] signature = new long[signatureSize];
+        long hash;
+        Arrays.fill(signature, Long.MAX_VALUE);
+        
+        for (long shingleKey : shingleProfile.getShingleKeys()) {
+            for (int i = 0; i < signatureSize; i++) {
+                // A different hash function is used for each position.
+                hash = getMixedHash(shingleKey + (i + 1) * MINHASH_SEED);
                 
+                if (hash < signature[i])
+                    signature[i] = hash;
+            }
+        }
+        
+        return signature;
+    }
+    
+    /**
+     * Gets the minimum Jaccard coefficient that two shingle profiles must have
+     * in order for their coefficient of the selected string similarity measure
+     * to reach a provided threshold.
+     * @param similarityType The string similarity measure.
+     * @param threshold The threshold of the string similarity measure.
+     * @return The minimum Jaccard coefficient, or 0 if the similarity measure
+     * doesn't bound the Jaccard coefficient.
+     */
+    public double getMinimumJaccard(SimilarityType similarityType,
+            double threshold) {
+        double minimumJaccard = 0.0;
+        
+        switch (similarityType) {
+            case Cosine:
+                // The Jaccard coefficient is at least the square of the cosine.
+                minimumJaccard = threshold * threshold;
                 break;
+            case Dice:
+                // The Jaccard coefficient is a function of the Dice.
+                minimumJaccard = threshold / (2 - threshold);
+                break;
+            case Jaccard:
+                minimumJaccard = threshold;
+                break;
+            case Overlap:
+                // A profile contained in a much larger one has an overlap of 1
+                // and a Jaccard coefficient close to 0.
+                minimumJaccard = 0.0;
+                break;
+        }
+        
+        return minimumJaccard;
+    }
+    
+    /**
+     * Gets the largest number of rows per band of a MinHash signature for
+     * which two profiles with a provided Jaccard coefficient will share at
+     * least one band with a provided probability.
+     * @param signatureSize The number of the hash functions of the signature.
+     * @param minimumJaccard The Jaccard coefficient of the profiles.
+     * @param recall The probability of the profiles sharing a band.
+     * @return The number of rows per band, or 0 if the profiles can't be
+     * banded.
+     */
+    public int getMinHashRowsPerBand(int signatureSize, double minimumJaccard,
+            double recall) {
+        if (minimumJaccard <= 0 || signatureSize <= 0)
+            return 0;
+        
+        int bandCount;
+        double probability;
+        // Longer bands produce fewer candidates.
+        for (int rowsPerBand = signatureSize; rowsPerBand > 1; rowsPerBand--) {
+            bandCount = signatureSize / rowsPerBand;
+            // The probability of at least one identical band.
+            probability = 1 - Math.pow(1 - Math.pow(minimumJaccard,
+                    rowsPerBand), bandCount);
+            
+            if (probability >= recall)
+                return rowsPerBand;
+        }
+        
+        return 1;
+    }
+    
+    /**
+     * Mixes the bits of a provided value (SplitMix64 finalizer).
+     * @param value The value to be mixed.
+     * @return The mixed value.
+     */
+    private long getMixedHash(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        
+        return value ^ (value >>> 31);
+    }
+    
+    /**
+     * Creates the sorted distinct keys of the character level shingles of a
+     * provided string, without creating a string for each shingle. Shingles of
+     * up to 4 characters are packed losslessly into their keys, while longer
+     * shingles are represented by a 64-bit rolling hash.
+     * @param string The string for the shingle keys creation.
+     * @param shingleSize The number of characters to be used to create each
+     * shingle.
+     * @return The sorted distinct shingle keys.
+     */
+    private long[] getCharShingleKeys(String string, int shingleSize) {
+        // The upper limit for the shingle positions.
+        int length = string.length() - shingleSize;
+        
+        if (length < 0)
+            return new long[0];
+        
+        long[] shingleKeys = new long[length + 1];
+        long shingleKey = 0;
+        
+        if (shingleSize <= CHAR_PACKING_LIMIT) {
+            // A mask keeping only the characters of the current shingle.
+            long mask = (shingleSize == CHAR_PACKING_LIMIT) ? -1L :
+                    (1L << (Character.SIZE * shingleSize)) - 1;
+            
+            for (int i = 0; i < string.length(); i++) {
+                // Shifts the next character into the key.
+                shingleKey = ((shingleKey << Character.SIZE) |
+                        string.charAt(i)) & mask;
+                // Adds the key once the shingle is complete.
+                if (i >= shingleSize - 1)
+                    shingleKeys[i - shingleSize + 1] = shingleKey;
+            }
+        }
+        else {
+            // The weight of the character leaving the rolling window.
+            long leavingWeight = 1;
+            
+            for (int i = 1; i < shingleSize; i++)
+                leavingWeight *= HASH_MULTIPLIER;
+            
+            for (int i = 0; i < string.length(); i++) {
+                // Removes the character leaving the window from the hash.
+                if (i >= shingleSize)
+                    shingleKey -= string.charAt(i - shingleSize) *
+                            leavingWeight;
+                // Adds the next character into the hash.
+                shingleKey = shingleKey * HASH_MULTIPLIER + string.charAt(i);
+                // Adds the key once the shingle is complete.
+                if (i >= shingleSize - 1)
+                    shingleKeys[i - shingleSize + 1] = shingleKey;
+            }
+        }
+        
+        return getDistinctSortedKeys(shingleKeys, shingleKeys.length);
+    }
+    
+    /**
+     * Creates the sorted distinct keys of the word level shingles of a
+     * provided string. The words are separated by single spaces and each word
+     * is mapped to an integer identifier of the vocabulary of the instance.
+     * Shingles of up to 2 words are packed losslessly into their keys, while
+     * longer shingles are represented by a 64-bit hash of their identifiers.
+     * @param string The string for the shingle keys creation.
+     * @param shingleSize The number of words to be used to create each shingle.
+     * @return The sorted distinct shingle keys.
+     */
+    private long[] getWordShingleKeys(String string, int shingleSize) {
+        // The vocabulary identifiers of the words of the string.
+        int[] wordIDs = getWordIDs(string);
+        // The upper limit for the shingle positions.
+        int length = wordIDs.length - shingleSize;
+        
+        if (length < 0)
+            return new long[0];
+        
+        long[] shingleKeys = new long[length + 1];
+        long shingleKey;
+        
+        for (int i = 0; i <= length; i++) {
+            shingleKey = 0;
+            // Consecutive words to be used for each shingle.
+            for (int j = 0; j < shingleSize; j++) {
+                if (shingleSize <= WORD_PACKING_LIMIT)
+                    shingleKey = (shingleKey << Integer.SIZE) |
+                            (wordIDs[i + j] & 0xFFFFFFFFL);
+                else
+                    shingleKey = shingleKey * HASH_MULTIPLIER +
+                            wordIDs[i + j];
+            }
+            
+            shingleKeys[i] = shingleKey;
+        }
+        
+        return getDistinctSortedKeys(shingleKeys, shingleKeys.length);
+    }
+    
+    /**
+     * Gets the vocabulary identifiers of the words of a provided string. The
+     * words are separated in the same way as String.split(" ") does, so that
+     * consecutive spaces produce empty words and the trailing empty words are
+     * discarded.
+     * @param string The string containing the words.
+     * @return The vocabulary identifiers of the words.
+     */
+    private int[] getWordIDs(String string) {
+        // A string without spaces is a single word.
+        if (string.indexOf(' ') < 0)
+            return new int[] {getWordID(string)};
+        
+        int[] wordIDs = new int[string.length() + 1];
+        int wordCount = 0;
+        // The number of words up to the last non-empty word.
+        int nonEmptyWordCount = 0;
+        int wordStart = 0;
+        
+        for (int i = 0; i <= string.length(); i++) {
+            // A word ends at a space or at the end of the string.
+            if (i == string.length() || string.charAt(i) == ' ') {
+                wordIDs[wordCount++] =
+                        getWordID(string.substring(wordStart, i));
+                
+                if (i > wordStart)
+                    nonEmptyWordCount = wordCount;
+                
+                wordStart = i + 1;
+            }
+        }
+        
+        return Arrays.copyOf(wordIDs, nonEmptyWordCount);
+    }
+    
+    /**
+     * Gets the vocabulary identifier of a word, adding the word into the
+     * vocabulary if it doesn't exist.
+     * @param word The word.
+     * @return The vocabulary identifier of the word.
+     */
+    private int getWordID(String word) {
+        Integer wordID = wordVocabulary.get(word);
+        
+        if (wordID == null)
+            wordID = wordVocabulary.computeIfAbsent(word,
+                    key -> nextWordID.getAndIncrement());
+        
+        return wordID;
+    }
+    
+    /**
+     * Sorts the provided shingle keys and removes the duplicates.
+     * @param shingleKeys The shingle keys.
+     * @param keyCount The number of the keys of the array to be used.
+     * @return The sorted distinct shingle keys.
+     */
+    private long[] getDistinctSortedKeys(long[] shingleKeys, int keyCount) {
+        Arrays.sort(shingleKeys, 0, keyCount);
+        int distinctCount = 0;
+        
+        for (int i = 0; i < keyCount; i++) {
+            // Keeps only the first occurrence of each key.
+            if (distinctCount == 0 ||
+                    shingleKeys[distinctCount - 1] != shingleKeys[i])
+                shingleKeys[distinctCount++] = shingleKeys[i];
+        }
+        
+        if (distinctCount == shingleKeys.length)
+            return shingleKeys;
+        
+        return Arrays.copyOf(shingleKeys, distinctCount);
+    }
+    
+    /**
+     * Counts the keys contained in both of the provided sorted distinct key
+     * arrays by merging them.
+     * @param shingleKeysA The sorted distinct shingle keys.
+     * @param shingleKeysB The sorted distinct shingle keys.
+     * @return The number of common keys.
+     */
+    private int getIntersectionCount(long[] shingleKeysA, long[] shingleKeysB) {
+        int intersectionCount = 0;
+        int i = 0;
+        int j = 0;
+        
+        while (i < shingleKeysA.length && j < shingleKeysB.length) {
+            if (shingleKeysA[i] < shingleKeysB[j])
+                i++;
+            else if (shingleKeysA[i] > shingleKeysB[j])
+                j++;
+            else {
+                intersectionCount++;
+                i++;
+                j++;
+            }
         }
         
-        return shingleSet;
+        return intersectionCount;
     }
 }
\ No newline at end of file
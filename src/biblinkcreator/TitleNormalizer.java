@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2017 David Nazarian
+ *
+ * This file is part of BibLinkCreator.
+ *
+ * BibLinkCreator is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BibLinkCreator is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with BibLinkCreator.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biblinkcreator;
+
+import java.util.Locale;
+
+/**
+ * Normalizes titles in a single pass over their characters. The control
+ * characters and the symbols are replaced with spaces, continuous spaces are
+ * replaced with single ones, the result is trimmed and lowercased, exactly as
+ * by the replaceControlChars, replaceSymbols and toLowerCase methods.
+ * <br><br>
+ * Author: David Nazarian
+ * @author David Nazarian
+ */
+public class TitleNormalizer {
+    // A character class of the lookup table for the characters kept as they
+    // are.
+    private static final byte KEPT_CHAR = 0;
+    // A character class of the lookup table for the control characters.
+    private static final byte CONTROL_CHAR = 1;
+    // A character class of the lookup table for the symbols.
+    private static final byte SYMBOL_CHAR = 2;
+    // The class of each character.
+    private final byte[] charClasses = new byte[Character.MAX_VALUE + 1];
+    
+    /**
+     * @param symbols The symbols to be replaced with spaces. Each symbol must
+     * be a single character.
+     */
+    public TitleNormalizer(String[] symbols) {
+        // The control character ranges 00-1F and 80-9F.
+        for (char c = 0x00; c <= 0x1F; c++)
+            charClasses[c] = CONTROL_CHAR;
+        
+        for (char c = 0x80; c <= 0x9F; c++)
+            charClasses[c] = CONTROL_CHAR;
+        
+        for (String symbol : symbols) {
+            if (symbol.length() != 1)
+                throw new IllegalArgumentException("The symbol \"" + symbol +
+                        "\" is not a single character.");
+            
+            if (charClasses[symbol.charAt(0)] == KEPT_CHAR)
+                charClasses[symbol.charAt(0)] = SYMBOL_CHAR;
+        }
+    }
+    
+    /**
+     * Replaces the control characters of the input string with spaces.
+     * @param str The input string.
+     * @return A string with replaced control characters.
+     */
+    public String replaceControlChars(String str) {
+        char[] chars = null;
+        
+        for (int i = 0; i < str.length(); i++) {
+            if (charClasses[str.charAt(i)] == CONTROL_CHAR) {
+                // The characters are only copied if a replacement occurs.
+                if (chars == null)
+                    chars = str.toCharArray();
+                
+                chars[i] = ' ';
+            }
+        }
+        
+        return (chars == null) ? str : new String(chars);
+    }
+    
+    /**
+     * Normalizes a title.
+     * @param title The title.
+     * @param replaceControlChars Determines if the control characters will be
+     * replaced with spaces along with the symbols.
+     * @return The normalized title, which may be empty.
+     */
+    public String normalize(String title, boolean replaceControlChars) {
+        int length = title.length();
+        char[] chars = new char[length];
+        int charCount = 0;
+        char c;
+        byte charClass;
+        // The ASCII letters are lowercased in the same pass, unless the
+        // default locale lowercases them differently.
+        boolean lowerCaseASCII = asciiLowerCaseIsDefault();
+        // The non-ASCII characters are lowercased by String.toLowerCase, which
+        // handles the characters whose lowercase depends on their context.
+        boolean nonASCIIKept = false;
+        
+        for (int i = 0; i < length; i++) {
+            c = title.charAt(i);
+            charClass = charClasses[c];
+            
+            if (charClass == SYMBOL_CHAR ||
+                    (charClass == CONTROL_CHAR && replaceControlChars))
+                c = ' ';
+            // Continuous spaces are replaced with single ones.
+            if (c == ' ' && charCount > 0 && chars[charCount - 1] == ' ')
+                continue;
+            
+            if (c >= 'A' && c <= 'Z' && lowerCaseASCII)
+                c = (char) (c + ('a' - 'A'));
+            else if (c >= 0x80)
+                nonASCIIKept = true;
+            
+            chars[charCount++] = c;
+        }
+        // Trims the result like String.trim.
+        int start = 0;
+        int end = charCount;
+        
+        while (start < end && chars[start] <= ' ')
+            start++;
+        
+        while (end > start && chars[end - 1] <= ' ')
+            end--;
+        
+        String normalizedTitle = new String(chars, start, end - start);
+        
+        if (nonASCIIKept || !lowerCaseASCII)
+            normalizedTitle = normalizedTitle.toLowerCase();
+        
+        return normalizedTitle;
+    }
+    
+    /**
+     * Checks if the default locale lowercases the ASCII letters to their ASCII
+     * counterparts (unlike for example the Turkish locale).
+     * @return A value indicating if the ASCII lowercasing is the default one.
+     */
+    private boolean asciiLowerCaseIsDefault() {
+        String language = Locale.getDefault().getLanguage();
+        
+        return !(language.equals("tr") || language.equals("az") ||
+                language.equals("lt"));
+    }
+}
\ No newline at end of file
@@ -25,6 +25,11 @@ package biblinkcreator;
  * @author David Nazarian
  */
 public class UIDFunctionStore {
+    /**
+     * The value returned by the getISBN13Key method for an invalid ISBN.
+     */
+    public static final long INVALID_ISBN_KEY = -1;
+    
     /**
      * Determines if a provided ISBN string (containing only digits including X)
      * is valid.
@@ -32,58 +37,12 @@ public class UIDFunctionStore {
      * @return A value indicating if the ISBN string is valid.
      */
     public boolean isISBNValid(String isbn) {
-        int sum = 0;
-        int weight;
-        String isbnParts[];
-        
         // Determines the type of the ISBN (10 or 13).
         switch (isbn.length()) {
             case 10:
-                // Splits the digits of the ISBN10.
-                isbnParts = isbn.split("");
-                // Checks if the last digit is X.
-                if (isbnParts[9].toUpperCase().equals("X"))
-                    // Converts the last digit to 10.
-                    isbnParts[9] = "10";
-                
-                for (int i = 0; i < 9; i++) {
-                    // Each digit must be a positive integer.
-                    if (isbnParts[i].matches("[0-9]") == false)
-                        return false;
-                    
-                    // Weight calculation.
-                    weight = 10 - i;
-                    // Calculates the total sum.
-                    sum += weight * Integer.parseInt(isbnParts[i]);
-                }
-                
-                // The ISBN10 is valid if its last digit is equal to the
-                // calculated value.
-                return ((11 - (sum % 11)) % 11 ==
-                        Integer.parseInt(isbnParts[9]));
+                return isISBN10Valid(isbn);
             case 13:
-                // Splits the digits of the ISBN13.
-                isbnParts = isbn.split("");
-                // Checks if the last digit is X (A valid ISBN13 is consisted
-                // only of numbers).
-                if (isbnParts[12].toUpperCase().equals("X"))
-                    return false;
-                
-                for (int i = 0; i < 12; i++) {
-                    // Each digit must be a positive integer.
-                    if (isbnParts[i].matches("[0-9]") == false)
-                        return false;
-                    
-                    // Weight calculation.
-                    weight = (i % 2 == 0) ? 1 : 3;
-                    // Calculates the total sum.
-                    sum += weight * Integer.parseInt(isbnParts[i]);
-                }
-                
-                // The ISBN13 is valid if its last digit is equal to the
-                // calculated value
-                return ((10 - (sum % 10)) % 10 ==
-                        Integer.parseInt(isbnParts[12]));
+                return isISBN13Valid(isbn);
             default:
                 return false;
         }
@@ -95,28 +54,81 @@ public class UIDFunctionStore {
      * @return The ISBN13 equivalent of the provided ISBN10.
      */
     public String getISBN13(String isbn10) {
-        int sum = 0;
-        int weight;
-        String checkDigit;
-        // The default prefix (978) of the ISBN13 and the digits of the ISBN10
-        // except its last digit which is the check digit.
-        String isbn13 = "978" + isbn10.substring(0, isbn10.length() - 1);
-        // Splits the digits of the created string.
-        String[] isbnParts = isbn13.split("");
+        char[] isbn13 = new char[13];
+        // The default prefix (978) of the ISBN13.
+        isbn13[0] = '9';
+        isbn13[1] = '7';
+        isbn13[2] = '8';
+        // The digits of the ISBN10 except its last digit which is the check
+        // digit.
+        isbn10.getChars(0, 9, isbn13, 3);
+        // The weighted sum of the prefix.
+        int sum = 38;
         
-        for (int i = 0; i < 12; i++) {
-            // Weight calculation.
-            weight = (i % 2 == 0) ? 1 : 3;
-            // Calculates the total sum.
-            sum += weight * Integer.parseInt(isbnParts[i]);
-        }
+        for (int i = 3; i < 12; i++)
+            // Calculates the total sum with alternating weights of 1 and 3.
+            sum += ((i % 2 == 0) ? 1 : 3) * (isbn13[i] - '0');
         
         // Calculates the check digit for the ISBN13.
-        checkDigit = Integer.toString((10 - (sum % 10)) % 10);
-        // Creates the ISBN13.
-        isbn13 += checkDigit;
+        isbn13[12] = (char)('0' + getISBN13CheckDigit(sum));
+        
+        return new String(isbn13);
+    }
+    
+    /**
+     * Gets a numeric key for a provided ISBN, equal to the value of its ISBN13
+     * equivalent, so that ISBNs can be compared and stored without strings.
+     * @param isbn The ISBN string (containing only digits including X).
+     * @return The value of the ISBN13 equivalent of the provided ISBN, or
+     * INVALID_ISBN_KEY if it isn't valid.
+     */
+    public long getISBN13Key(String isbn) {
+        long key;
+        
+        switch (isbn.length()) {
+            case 10:
+                if (!isISBN10Valid(isbn))
+                    return INVALID_ISBN_KEY;
+                // The default prefix (978) of the ISBN13.
+                key = 978;
+                int sum = 38;
+                
+                for (int i = 0; i < 9; i++) {
+                    key = key * 10 + (isbn.charAt(i) - '0');
+                    sum += (isbn.charAt(i) - '0') * ((i % 2 == 0) ? 3 : 1);
+                }
+                // Appends the check digit of the ISBN13.
+                return key * 10 + getISBN13CheckDigit(sum);
+            case 13:
+                if (!isISBN13Valid(isbn))
+                    return INVALID_ISBN_KEY;
+                
+                key = 0;
+                
+                for (int i = 0; i < 13; i++)
+                    key = key * 10 + (isbn.charAt(i) - '0');
+                
+                return key;
+            default:
+                return INVALID_ISBN_KEY;
+        }
+    }
+    
+    /**
+     * Gets the ISBN13 string of a key returned by the getISBN13Key method.
+     * @param isbn13Key The numeric key of the ISBN.
+     * @return The ISBN13 string.
+     */
+    public String getISBN13(long isbn13Key) {
+        char[] isbn13 = new char[13];
+        // The digits are written from the end, so that the leading zeros of
+        // the key are kept.
+        for (int i = 12; i >= 0; i--) {
+            isbn13[i] = (char)('0' + isbn13Key % 10);
+            isbn13Key /= 10;
+        }
         
-        return isbn13;
+        return new String(isbn13);
     }
     
     /**
@@ -127,32 +139,93 @@ public class UIDFunctionStore {
      */
     public boolean isISSNValid(String issn) {
         int sum = 0;
-        int weight;
-        String issnParts[];
+        char digit;
         // A valid ISSN is consisted of 8 digits.
         if (issn.length() != 8)
             return false;
         
-        // Splits the digits of the ISSN.
-        issnParts = issn.split("");
-        // Checks if the last digit is X.
-        if (issnParts[7].toUpperCase().equals("X"))
-            // Converts the last digit to 10.
-            issnParts[7] = "10";
-        
         for (int i = 0; i < 7; i++) {
+            digit = issn.charAt(i);
             // Each digit must be a positive integer.
-            if (issnParts[i].matches("[0-9]") == false)
+            if (digit < '0' || digit > '9')
                 return false;
-            
-            // Weight calculation.
-            weight = 8 - i;
-            // Calculates the total sum.
-            sum += weight * Integer.parseInt(issnParts[i]);
+            // Calculates the total sum with a weight of 8 - i.
+            sum += (8 - i) * (digit - '0');
         }
         
         // The ISSN is valid if its last digit is equal to the calculated value.
-        return ((11 - (sum % 11)) % 11 == Integer.parseInt(issnParts[7]));
+        return ((11 - (sum % 11)) % 11 == getMod11DigitValue(issn.charAt(7)));
     }
     
+    /**
+     * Determines if a provided ISBN10 string is valid.
+     * @param isbn The ISBN10 string, having a length of 10.
+     * @return A value indicating if the ISBN10 string is valid.
+     */
+    private boolean isISBN10Valid(String isbn) {
+        int sum = 0;
+        char digit;
+        
+        for (int i = 0; i < 9; i++) {
+            digit = isbn.charAt(i);
+            // Each digit must be a positive integer.
+            if (digit < '0' || digit > '9')
+                return false;
+            // Calculates the total sum with a weight of 10 - i.
+            sum += (10 - i) * (digit - '0');
+        }
+        
+        // The ISBN10 is valid if its last digit is equal to the calculated
+        // value.
+        return ((11 - (sum % 11)) % 11 == getMod11DigitValue(isbn.charAt(9)));
+    }
+    
+    /**
+     * Determines if a provided ISBN13 string is valid.
+     * @param isbn The ISBN13 string, having a length of 13.
+     * @return A value indicating if the ISBN13 string is valid.
+     */
+    private boolean isISBN13Valid(String isbn) {
+        int sum = 0;
+        char digit;
+        // A valid ISBN13 is consisted only of numbers, including its last
+        // digit.
+        for (int i = 0; i < 13; i++) {
+            digit = isbn.charAt(i);
+            
+            if (digit < '0' || digit > '9')
+                return false;
+            // Calculates the total sum with alternating weights of 1 and 3.
+            if (i < 12)
+                sum += ((i % 2 == 0) ? 1 : 3) * (digit - '0');
+        }
+        
+        // The ISBN13 is valid if its last digit is equal to the calculated
+        // value
+        return (getISBN13CheckDigit(sum) == isbn.charAt(12) - '0');
+    }
+    
+    /**
+     * Calculates the check digit of an ISBN13.
+     * @param sum The weighted sum of the first 12 digits of the ISBN13.
+     * @return The check digit.
+     */
+    private int getISBN13CheckDigit(int sum) {
+        return (10 - (sum % 10)) % 10;
+    }
+    
+    /**
+     * Gets the value of the check digit of an ISBN10 or ISSN.
+     * @param digit The check digit, which can be X for a value of 10.
+     * @return The value of the check digit, or -1 if it is invalid.
+     */
+    private int getMod11DigitValue(char digit) {
+        if (digit == 'X' || digit == 'x')
+            return 10;
+        
+        if (digit >= '0' && digit <= '9')
+            return digit - '0';
+        
+        return -1;
+    }
 }
\ No newline at end of file
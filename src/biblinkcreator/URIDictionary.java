@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2017 David Nazarian
+ *
+ * This file is part of BibLinkCreator.
+ *
+ * BibLinkCreator is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * BibLinkCreator is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with BibLinkCreator.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package biblinkcreator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A dictionary which assigns an integer ID to each distinct URI string. The
+ * strings are stored once as UTF-8 bytes in a single growing array, so that
+ * the repeated URIs of a run only cost the size of their IDs.
+ * <br><br>
+ * Author: David Nazarian
+ * @author David Nazarian
+ */
+public class URIDictionary {
+    // The UTF-8 bytes of all the stored strings.
+    private byte[] arena = new byte[1 << 16];
+    // The number of the used bytes of the arena.
+    private int arenaSize = 0;
+    // The position of the bytes of each string in the arena, indexed by ID.
+    // The bytes of a string end where the bytes of the next string begin.
+    private int[] offsets = new int[1025];
+    // The hash of each string, indexed by ID.
+    private int[] hashes = new int[1024];
+    // The number of the stored strings.
+    private int size = 0;
+    // The open-addressing table of the IDs plus 1, where 0 marks an empty slot.
+    private int[] table = new int[2048];
+    
+    /**
+     * Gets the ID of a URI string, adding the string into the dictionary if it
+     * doesn't exist.
+     * @param uriString The URI string.
+     * @return The ID of the URI string.
+     */
+    public int getID(String uriString) {
+        byte[] bytes = uriString.getBytes(StandardCharsets.UTF_8);
+        int hash = getHash(bytes);
+        int slotMask = table.length - 1;
+        int slot = hash & slotMask;
+        int id;
+        
+        while (table[slot] != 0) {
+            id = table[slot] - 1;
+            // The hashes are compared first to avoid comparing the bytes.
+            if (hashes[id] == hash && bytesEqual(id, bytes))
+                return id;
+            
+            slot = (slot + 1) & slotMask;
+        }
+        
+        id = addString(bytes, hash);
+        table[slot] = id + 1;
+        // The table grows when it becomes more than half full.
+        if (size > table.length / 2)
+            resizeTable();
+        
+        return id;
+    }
+    
+    /**
+     * Gets the ID of a URI string without adding it into the dictionary. It
+     * can be called by more than one thread while no strings are added.
+     * @param uriString The URI string.
+     * @return The ID of the URI string, or -1 if it doesn't exist.
+     */
+    public int findID(String uriString) {
+        byte[] bytes = uriString.getBytes(StandardCharsets.UTF_8);
+        int hash = getHash(bytes);
+        int slotMask = table.length - 1;
+        int slot = hash & slotMask;
+        int id;
+        
+        while (table[slot] != 0) {
+            id = table[slot] - 1;
+            
+            if (hashes[id] == hash && bytesEqual(id, bytes))
+                return id;
+            
+            slot = (slot + 1) & slotMask;
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Gets the URI string of an ID.
+     * @param id The ID of the URI string.
+     * @return The URI string.
+     */
+    public String getURIString(int id) {
+        return new String(arena, offsets[id], offsets[id + 1] - offsets[id],
+                StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * @return The number of the distinct URI strings of the dictionary.
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Appends the bytes of a new string into the arena.
+     * @param bytes The UTF-8 bytes of the string.
+     * @param hash The hash of the bytes.
+     * @return The ID of the string.
+     */
+    private int addString(byte[] bytes, int hash) {
+        if (arenaSize + bytes.length > arena.length)
+            arena = Arrays.copyOf(arena, (int) Math.min(Integer.MAX_VALUE - 8,
+                    Math.max((long) arena.length * 2,
+                            (long) arenaSize + bytes.length)));
+        
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+            offsets = Arrays.copyOf(offsets, hashes.length + 1);
+        }
+        
+        System.arraycopy(bytes, 0, arena, arenaSize, bytes.length);
+        arenaSize += bytes.length;
+        hashes[size] = hash;
+        offsets[size + 1] = arenaSize;
+        
+        return size++;
+    }
+    
+    /**
+     * Compares the bytes of a stored string with provided bytes.
+     * @param id The ID of the stored string.
+     * @param bytes The provided bytes.
+     * @return A value indicating if the bytes are equal.
+     */
+    private boolean bytesEqual(int id, byte[] bytes) {
+        int offset = offsets[id];
+        
+        if (offsets[id + 1] - offset != bytes.length)
+            return false;
+        
+        for (int i = 0; i < bytes.length; i++) {
+            if (arena[offset + i] != bytes[i])
+                return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Doubles the size of the table of the IDs.
+     */
+    private void resizeTable() {
+        int[] resizedTable = new int[table.length * 2];
+        int slotMask = resizedTable.length - 1;
+        int slot;
+        
+        for (int id = 0; id < size; id++) {
+            slot = hashes[id] & slotMask;
+            
+            while (resizedTable[slot] != 0)
+                slot = (slot + 1) & slotMask;
+            
+            resizedTable[slot] = id + 1;
+        }
+        
+        table = resizedTable;
+    }
+    
+    /**
+     * Calculates the hash of the bytes of a string (FNV-1a), with its bits
+     * spread for the table.
+     * @param bytes The bytes of the string.
+     * @return The hash of the bytes.
+     */
+    private int getHash(byte[] bytes) {
+        int hash = 0x811C9DC5;
+        
+        for (byte b : bytes)
+            hash = (hash ^ (b & 0xFF)) * 0x01000193;
+        
+        return hash ^ (hash >>> 16);
+    }
+}
\ No newline at end of file